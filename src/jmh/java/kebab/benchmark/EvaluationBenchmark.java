@@ -0,0 +1,72 @@
+package kebab.benchmark;
+
+import kebab.lang.engine.Backend;
+import kebab.lang.engine.KebabEngine;
+import kebab.lang.func.MemoCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of representative workloads on every backend. Scripts are parsed and compiled once
+ * per trial, so only running them is measured. Results of {@code _memo} functions are dropped
+ * before every run, otherwise the caches kept by the script would answer all but the first one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"fib", "loop", "strings", "lists", "in", "maps", "memo", "tail", "scopes", "peach", "functions", "tasks"})
+    public String script;
+
+    @Param({"TREE", "BYTECODE", "VISITOR"})
+    public Backend backend;
+
+    private KebabEngine engine;
+    private PrintStream out;
+
+    @Setup
+    public void setup() throws Exception {
+        out = System.out;
+        System.setOut(Scripts.discard());
+
+        engine = KebabEngine.source(Scripts.load(script)).backend(backend);
+        if (backend != Backend.VISITOR) {
+            engine.compile();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearMemoCaches() {
+        for (MemoCache cache : engine.memoCaches().values()) {
+            cache.clear();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Object run() {
+        return engine.run();
+    }
+}
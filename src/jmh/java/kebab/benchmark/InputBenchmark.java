@@ -0,0 +1,80 @@
+package kebab.benchmark;
+
+import kebab.lang.engine.KebabEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting lines and characters of a generated log, read from standard input with
+ * {@code lines()} or from a memory mapped file with {@code lines('path')}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+    private static final int LINES = 100000;
+
+    @Param({"stdin", "file"})
+    public String source;
+
+    private byte[] log;
+    private Path file;
+    private InputStream in;
+    private KebabEngine engine;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; i < LINES; i++) {
+            text.append("2018-01-01 host").append(i % 50).append(" GET /path/").append(i)
+                    .append(" status=").append(random.nextBoolean() ? 200 : 404).append('\n');
+        }
+        log = text.toString().getBytes(StandardCharsets.UTF_8);
+        file = Files.createTempFile("kebab", ".log");
+        Files.write(file, log);
+
+        in = System.in;
+        String script = Scripts.load("count");
+        if ("file".equals(source)) {
+            script = script.replace("lines()", "lines('" + file.toString().replace("\\", "\\\\") + "')");
+        }
+        engine = KebabEngine.source(script);
+        engine.compile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setIn(in);
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public Object run() {
+        System.setIn(new ByteArrayInputStream(log));
+        return engine.run();
+    }
+}
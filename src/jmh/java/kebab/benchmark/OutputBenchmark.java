@@ -0,0 +1,110 @@
+package kebab.benchmark;
+
+import kebab.lang.engine.KebabEngine;
+import kebab.lang.output.ChannelSink;
+import kebab.lang.output.FlushPolicy;
+import kebab.lang.output.MemorySink;
+import kebab.lang.output.OutputSink;
+import kebab.lang.output.StreamSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a script showing a lot of lines into {@code /dev/null} through every kind of
+ * sink. {@code print} is the unbuffered path of an auto flushing {@link PrintStream}, the way
+ * values used to be shown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark {
+
+    private static final File NULL_DEVICE = new File("/dev/null");
+
+    @Param({"print", "line", "stream", "channel", "memory"})
+    public String sink;
+
+    private FileOutputStream file;
+    private MemorySink memory;
+    private KebabEngine engine;
+
+    @Setup
+    public void setup() throws IOException {
+        file = new FileOutputStream(NULL_DEVICE);
+        memory = new MemorySink();
+        engine = KebabEngine.source(Scripts.load("show")).output(sink(file));
+        engine.compile();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        file.close();
+    }
+
+    @Benchmark
+    public Object run() {
+        memory.clear();
+        return engine.run();
+    }
+
+    private OutputSink sink(FileOutputStream file) {
+        switch (sink) {
+            case "print":
+                return new PrintSink(new PrintStream(file, true));
+            case "line":
+                return new StreamSink(file, StreamSink.DEFAULT_CAPACITY, FlushPolicy.ON_NEWLINE);
+            case "stream":
+                return new StreamSink(file);
+            case "channel":
+                return new ChannelSink(file.getChannel());
+            default:
+                return memory;
+        }
+    }
+
+    /**
+     * Sink printing every value straight to a print stream.
+     */
+    private static class PrintSink implements OutputSink {
+
+        private final PrintStream out;
+
+        PrintSink(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(String text) {
+            out.print(text);
+        }
+
+        @Override
+        public void writeLine(String text) {
+            out.println(text);
+        }
+
+        @Override
+        public void flush() {
+            out.flush();
+        }
+    }
+}
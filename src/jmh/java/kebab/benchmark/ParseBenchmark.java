@@ -0,0 +1,63 @@
+package kebab.benchmark;
+
+import kebab.KebabLexer;
+import kebab.KebabParser;
+import kebab.lang.func.KebabFunctionVisitor;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front end costs: lexing and parsing a script, and collecting its functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"fib", "lists", "scopes"})
+    public String script;
+
+    private String source;
+    private ParseTree tree;
+
+    @Setup
+    public void setup() throws Exception {
+        source = Scripts.load(script);
+        tree = parse();
+    }
+
+    @Benchmark
+    public ParseTree lexAndParse() {
+        return parse();
+    }
+
+    @Benchmark
+    public KebabFunctionVisitor collectFunctions() {
+        KebabFunctionVisitor visitor = new KebabFunctionVisitor();
+        visitor.visit(tree);
+        return visitor;
+    }
+
+    private ParseTree parse() {
+        KebabLexer lexer = new KebabLexer(new ANTLRInputStream(source));
+        KebabParser parser = new KebabParser(new CommonTokenStream(lexer));
+        return parser.parse();
+    }
+}
@@ -0,0 +1,55 @@
+package kebab.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Workload scripts of the benchmarks, stored as resources next to this class.
+ */
+final class Scripts {
+
+    private Scripts() {
+    }
+
+    /**
+     * Read a benchmark script.
+     *
+     * @param name script name without the {@code .kebab} extension.
+     * @return script source.
+     */
+    static String load(String name) throws IOException {
+        try (InputStream in = Scripts.class.getResourceAsStream(name + ".kebab")) {
+            if (in == null) {
+                throw new IOException("No benchmark script: " + name);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Stream dropping everything, used to keep script output out of the measurements.
+     */
+    static PrintStream discard() {
+        return new PrintStream(new OutputStream() {
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+    }
+}
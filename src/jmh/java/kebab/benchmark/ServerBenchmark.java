@@ -0,0 +1,112 @@
+package kebab.benchmark;
+
+import kebab.lang.engine.Backend;
+import kebab.lang.engine.KebabEngine;
+import kebab.lang.output.MemorySink;
+import kebab.server.KebabClient;
+import kebab.server.KebabServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of running a script in a fresh JVM against running it on a warm {@link KebabServer}.
+ * The cold run is the first thing a forked JVM does, so it pays for class loading and the parser
+ * warming up, though not for starting the JVM itself. The warm run is a round trip of a client to
+ * a server in the same JVM, which has run the script before.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServerBenchmark {
+
+    /**
+     * Script source for the cold runs.
+     */
+    @State(Scope.Benchmark)
+    public static class Source {
+
+        @Param({"show", "fib"})
+        public String script;
+
+        private String source;
+
+        @Setup
+        public void setup() throws IOException {
+            source = Scripts.load(script);
+        }
+    }
+
+    /**
+     * Server with the script file it is sent.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"show", "fib"})
+        public String script;
+
+        private Path file;
+        private KebabServer server;
+        private PrintStream out;
+
+        @Setup
+        public void setup() throws IOException {
+            out = System.out;
+            System.setOut(Scripts.discard());
+
+            file = Files.createTempFile(script, ".kebab");
+            Files.write(file, Scripts.load(script).getBytes(StandardCharsets.UTF_8));
+
+            server = new KebabServer(0);
+            Thread thread = new Thread(() -> {
+                try {
+                    server.listen();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            server.close();
+            Files.delete(file);
+            System.setOut(out);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Object cold(Source source) {
+        return KebabEngine.source(source.source).output(new MemorySink()).run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public int warm(Server server) throws IOException {
+        return KebabClient.run(server.server.getPort(), server.file.toString(), Backend.TREE, false);
+    }
+}
@@ -0,0 +1,118 @@
+package kebab.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from starting {@code java -jar kebab-lang.jar default.kebab} until its first {@code showl}
+ * line arrives, with and without a class data sharing archive. Unlike the cold run of
+ * {@link ServerBenchmark} this includes starting the JVM, which is what a script run from a shell
+ * waits for.
+ * <p>
+ * The jar is taken from the {@code kebab.jar} system property, which the {@code jmh} task sets to
+ * the jar it builds. The archive is written by a warm-up run of the jar, which needs JDK 13 or
+ * newer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"plain", "cds"})
+    public String archive;
+
+    private Path directory;
+    private List<String> command;
+    private Process process;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String jar = Paths.get(System.getProperty("kebab.jar", "build/libs/kebab-lang.jar")).toAbsolutePath().toString();
+
+        directory = Files.createTempDirectory("startup");
+        Path script = directory.resolve("default.kebab");
+        try (InputStream in = StartupBenchmark.class.getResourceAsStream("/default.kebab")) {
+            Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        command = new ArrayList<>();
+        command.add(java);
+        if ("cds".equals(archive)) {
+            Path shared = directory.resolve("kebab-lang.jsa");
+            Process training = new ProcessBuilder(java, "-XX:ArchiveClassesAtExit=" + shared, "-jar", jar,
+                    "--warmup", script.toString())
+                    .redirectErrorStream(true)
+                    .start();
+            drain(training.getInputStream());
+            if (training.waitFor() != 0 || !Files.exists(shared)) {
+                throw new IllegalStateException("Could not write a class data sharing archive, it needs JDK 13 or newer");
+            }
+            command.add("-XX:SharedArchiveFile=" + shared);
+        }
+
+        // Lines are written as soon as they are shown, not when the script ends.
+        command.add("-jar");
+        command.add(jar);
+        command.add("--line-flush");
+        command.add(script.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(directory.resolve("kebab-lang.jsa"));
+        Files.deleteIfExists(directory.resolve("default.kebab"));
+        Files.delete(directory);
+    }
+
+    /**
+     * Let the run finish outside of the measurement, so it does not overlap with the next one.
+     */
+    @TearDown(Level.Invocation)
+    public void finish() throws IOException, InterruptedException {
+        drain(process.getInputStream());
+        process.waitFor();
+    }
+
+    @Benchmark
+    public String firstLine() throws IOException {
+        process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        return new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)).readLine();
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (in.read(buffer) >= 0) {
+            // Nothing to keep.
+        }
+    }
+}
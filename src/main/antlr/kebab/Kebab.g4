@@ -2,6 +2,28 @@ grammar Kebab;
 
 @header {
    package kebab;
+
+   import java.util.Collections;
+   import java.util.Set;
+}
+
+@parser::members {
+
+    // Functions declared by the script, which hide built-in functions of the same name.
+    private Set<String> declaredFunctions = Collections.emptySet();
+
+    /**
+     * Set the names of the functions declared by the script before parsing it. Calls of built-in
+     * functions which are not keywords, such as lines() or map(), are then parsed as calls of the
+     * declared functions with the same name.
+     */
+    public void setDeclaredFunctions(Set<String> declaredFunctions) {
+        this.declaredFunctions = declaredFunctions;
+    }
+
+    private boolean isBuiltin(String name) {
+        return !declaredFunctions.contains(name);
+    }
 }
 
 parse
@@ -21,6 +43,7 @@ statement
  | completeIfStatement
  | eachLoopStatement
  | loopStatement
+ | spawn
  ;
 
 /*
@@ -30,8 +53,8 @@ statement
     keb b
 */
 assignment
- : Keb Identifier indexes? ':' expression
- | Keb Identifier indexes?
+ : Keb identifier indexes? ':' expression
+ | Keb identifier indexes?
  ;
 
 /*
@@ -41,15 +64,41 @@ assignment
     a: yes
 */
 reAssignment
- : Identifier indexes? ':' expression
+ : identifier indexes? ':' expression
  ;
 
+/*
+    Function calls, including the built-in ones. Functions applied to list elements are passed by
+    name, sort() takes a function comparing two elements and otherwise sorts numbers or strings.
+
+    map([1, 2, 3], square)
+    filter([1, 2, 3], is_odd)
+    reduce([1, 2, 3], add, 0)
+    sort(['b', 'a'])
+    sort(people, by_age)
+
+    Tasks started with _spawn are awaited with await(), channels pass values between them.
+
+    keb jobs: channel(10)
+    send(jobs, 1)
+    close(jobs)
+    keb job: receive(jobs)
+*/
 functionCall
- : Identifier '(' expressionList? ')' #identifierFunctionCall
- | Show       '(' expression ')'      #showFunctionCall
+ : Show       '(' expression ')'      #showFunctionCall
  | ShowL      '(' expression? ')'     #showLineFunctionCall
  | Assert     '(' expression ')'      #assertFunctionCall
  | Size       '(' expression ')'      #sizeFunctionCall
+ | {isBuiltin("map")}?    MapList '(' expression ',' identifier ')'                #mapFunctionCall
+ | {isBuiltin("filter")}? Filter  '(' expression ',' identifier ')'                #filterFunctionCall
+ | {isBuiltin("reduce")}? Reduce  '(' expression ',' identifier ',' expression ')' #reduceFunctionCall
+ | {isBuiltin("sort")}?   Sort    '(' expression (',' identifier)? ')'             #sortFunctionCall
+ | {isBuiltin("await")}?   Await        '(' expression ')'                #awaitFunctionCall
+ | {isBuiltin("channel")}? NewChannel   '(' expression ')'                #channelFunctionCall
+ | {isBuiltin("send")}?    Send         '(' expression ',' expression ')' #sendFunctionCall
+ | {isBuiltin("receive")}? Receive      '(' expression ')'                #receiveFunctionCall
+ | {isBuiltin("close")}?   CloseChannel '(' expression ')'                #closeFunctionCall
+ | identifier '(' expressionList? ')' #identifierFunctionCall
  ;
 
 /*
@@ -90,9 +139,22 @@ elseStatement
 
     _fun test() {
     }
+
+    Results of pure functions can be cached, by default up to 10000 of them.
+
+    _memo _func fib(n) {
+    }
+
+    _memo(100) _func fib(n) {
+    }
 */
 functionDeclaration
- : Func Identifier '(' argumentList? ')' Open block Close
+ : memo? Func identifier '(' argumentList? ')' Open block Close
+ ;
+
+// Memoisation of a function, with an optional cache size.
+memo
+ : Memo ('(' Number ')')?
  ;
 
 /*
@@ -103,7 +165,30 @@ functionDeclaration
     }
 */
 eachLoopStatement
- : Loop '(' Identifier Colon expression ')' Open block Close
+ : Loop '(' identifier Colon expression ')' Open block Close
+ ;
+
+/*
+    A for-each loop running its iterations in parallel, evaluates to a list of the values the
+    iterations return with _ret, in the order of the elements.
+
+    keb squares: _peach(a : [1, 2, 3]) {
+        _ret a * a
+    }
+*/
+parallelEach
+ : Peach '(' identifier Colon expression ')' Open block Close
+ ;
+
+/*
+    Start a function call on another thread, evaluates to a task which await() waits for. As a
+    statement the task is left to run on its own.
+
+    keb task: _spawn fib(30)
+    showl(await(task))
+*/
+spawn
+ : Spawn identifier '(' expressionList? ')'
  ;
 
 /*
@@ -151,12 +236,16 @@ expression
  | Number                                   #numberExpression
  | Bool                                     #boolExpression
  | Empty                                    #emptyExpression
+ | {isBuiltin("lines")}? Lines '(' expression? ')' #linesExpression
  | functionCall indexes?                    #functionCallExpression
  | list indexes?                            #listExpression
- | Identifier indexes?                      #identifierExpression
+ | map indexes?                             #mapExpression
+ | identifier indexes?                      #identifierExpression
  | String indexes?                          #stringExpression
  | '(' expression ')' indexes?              #expressionExpression
  | Input '(' String? ')'                    #inputExpression
+ | parallelEach                             #parallelEachExpression
+ | spawn                                    #spawnExpression
  ;
 
 // List with expressions.
@@ -164,6 +253,20 @@ list
  : '[' expressionList? ']'
  ;
 
+/*
+    Map with keys and values.
+
+    keb m: {'a': 1, 2: 'b'}
+*/
+map
+ : Open (mapEntry (',' mapEntry)*)? Close
+ ;
+
+// Key and value of a map.
+mapEntry
+ : expression ':' expression
+ ;
+
 // List indexes.
 indexes
  : ('[' expression ']')+
@@ -171,7 +274,28 @@ indexes
 
 // Function argument or argument with default value.
 argument
- : Identifier (':' expression)?
+ : identifier (':' expression)?
+ ;
+
+/*
+    Name of a variable, parameter or function. Names of built-in functions which are not keywords
+    can be used as well.
+
+    keb lines: 3
+    _func filter(x) { }
+*/
+identifier
+ : Identifier
+ | Lines
+ | MapList
+ | Filter
+ | Reduce
+ | Sort
+ | Await
+ | NewChannel
+ | Send
+ | Receive
+ | CloseChannel
  ;
 
 // General tokens.
@@ -192,14 +316,29 @@ ShowL    : 'showl';
 // Loops: foreach and simple loop.
 EachLoop : '_each';
 Loop     : '_loop';
+Peach    : '_peach';
 
 // Function stuff.
 Func     : '_func';
+Memo     : '_memo';
+
+// Tasks and channels.
+Spawn        : '_spawn';
+Await        : 'await';
+NewChannel   : 'channel';
+Send         : 'send';
+Receive      : 'receive';
+CloseChannel : 'close';
 
 // todo sort out
 Input    : 'input';
+Lines    : 'lines';
 Assert   : 'assert';
 Size     : 'size';
+MapList  : 'map';
+Filter   : 'filter';
+Reduce   : 'reduce';
+Sort     : 'sort';
 In       : 'in';
 Empty    : 'empty';
 
@@ -1,26 +1,145 @@
 package kebab;
 
+import kebab.lang.engine.Backend;
 import kebab.lang.engine.KebabEngine;
+import kebab.lang.engine.Warmup;
+import kebab.lang.func.MemoCache;
+import kebab.lang.node.expression.BinaryNode.Specialisation;
+import kebab.lang.output.FlushPolicy;
+import kebab.server.KebabClient;
+import kebab.server.KebabServer;
+
+import java.util.Map;
 
 public class Main {
 
+    private static final String VISITOR_FLAG = "--visitor";
+    private static final String BYTECODE_FLAG = "--bytecode";
+    private static final String DUMP_FLAG = "--dump";
+    private static final String LINE_FLUSH_FLAG = "--line-flush";
+    private static final String MEMO_STATS_FLAG = "--memo-stats";
+    private static final String NODE_STATS_FLAG = "--node-stats";
+    private static final String SERVER_FLAG = "--server";
+    private static final String CLIENT_FLAG = "--client";
+    private static final String PORT_FLAG = "--port=";
+    private static final String WARMUP_FLAG = "--warmup";
+
     public static void main(String... args) {
 
-        String file;
-        if (args.length > 0) {
-            file = args[0];
-        } else {
-            System.out.println("java -jar kebab-lang.jar <path_to_source_file>");
+        String file = null;
+        Backend backend = Backend.TREE;
+        boolean dump = false;
+        boolean memoStats = false;
+        boolean nodeStats = false;
+        boolean server = false;
+        boolean client = false;
+        boolean warmup = false;
+        int port = KebabServer.DEFAULT_PORT;
+        FlushPolicy flushPolicy = FlushPolicy.ON_SIZE;
+        for (String arg : args) {
+            if (VISITOR_FLAG.equals(arg)) {
+                backend = Backend.VISITOR;
+            } else if (BYTECODE_FLAG.equals(arg)) {
+                backend = Backend.BYTECODE;
+            } else if (DUMP_FLAG.equals(arg)) {
+                dump = true;
+            } else if (LINE_FLUSH_FLAG.equals(arg)) {
+                flushPolicy = FlushPolicy.ON_NEWLINE;
+            } else if (MEMO_STATS_FLAG.equals(arg)) {
+                memoStats = true;
+            } else if (NODE_STATS_FLAG.equals(arg)) {
+                nodeStats = true;
+            } else if (SERVER_FLAG.equals(arg)) {
+                server = true;
+            } else if (CLIENT_FLAG.equals(arg)) {
+                client = true;
+            } else if (WARMUP_FLAG.equals(arg)) {
+                warmup = true;
+            } else if (arg.startsWith(PORT_FLAG)) {
+                port = Integer.parseInt(arg.substring(PORT_FLAG.length()));
+            } else {
+                file = arg;
+            }
+        }
+
+        if (server) {
+            try (KebabServer kebabServer = new KebabServer(port)) {
+
+                // The first scripts sent should not pay for the parser warming up.
+                Warmup.run();
+                System.out.printf("Kebab server listening on port %d%n", kebabServer.getPort());
+                kebabServer.listen();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
             return;
         }
 
+        if (warmup) {
+            try {
+                Warmup.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+            if (file == null) {
+                return;
+            }
+        }
+
+        if (file == null) {
+            System.out.println("java -jar kebab-lang.jar [--visitor | --bytecode] [--dump] [--line-flush] [--memo-stats] [--node-stats] <path_to_source_file>");
+            System.out.println("java -jar kebab-lang.jar --warmup [<path_to_source_file>]");
+            System.out.println("java -jar kebab-lang.jar --server [--port=<port>]");
+            System.out.println("java -jar kebab-lang.jar --client [--port=<port>] [--visitor | --bytecode] [--line-flush] <path_to_source_file | ->");
+            return;
+        }
+
+        if (client) {
+            try {
+                System.exit(KebabClient.run(port, file, backend, flushPolicy == FlushPolicy.ON_NEWLINE));
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.exit(2);
+            }
+        }
+
         try {
-            KebabEngine
+            KebabEngine engine = KebabEngine
                     .file(file)
-                    .run();
+                    .backend(backend)
+                    .flush(flushPolicy);
+
+            if (dump) {
+
+                // Print the optimised node tree instead of running it.
+                System.out.print(engine.compile().dump());
+            } else {
+                engine.run();
+            }
+
+            if (memoStats) {
+                for (Map.Entry<String, MemoCache> entry : engine.memoCaches().entrySet()) {
+                    MemoCache memo = entry.getValue();
+                    System.err.printf("%s: %d hits, %d misses, %d evictions, %d cached%n", entry.getKey(),
+                            memo.getHits(), memo.getMisses(), memo.getEvictions(), memo.size());
+                }
+            }
+
+            // Only the node tree specialises, the visitor has nothing to count.
+            if (nodeStats && backend != Backend.VISITOR) {
+                Map<Specialisation, Integer> counts = engine.compile().specialisations();
+                System.err.printf("binary nodes: %d numbers, %d string, %d list, %d generic, %d not run%n",
+                        counts.get(Specialisation.NUMBERS), counts.get(Specialisation.STRING),
+                        counts.get(Specialisation.LIST), counts.get(Specialisation.GENERIC),
+                        counts.get(Specialisation.UNINITIALIZED));
+            }
 
         } catch (Exception e) {
+
+            // Same status as a failed run on the server.
             e.printStackTrace();
+            System.exit(1);
         }
     }
-}
\ No newline at end of file
+}
@@ -70,6 +70,37 @@ public class Block {
         variables.remove(variable);
     }
 
+    /**
+     * Check if no variables are declared in this scope and its parents below another scope.
+     *
+     * @param outer enclosing scope, which is not checked.
+     * @return true if no variable is declared.
+     */
+    public boolean isEmptyBelow(Block outer) {
+        for (Block block = this; block != outer; block = block.parent) {
+            if (!block.variables.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy the variables visible from this scope into a new global scope, for a task which must not
+     * see later changes of this scope or its parents.
+     *
+     * @return copied scope.
+     */
+    public Block snapshot() {
+        Block copy = new Block();
+        for (Block block = this; block != null; block = block.parent) {
+            for (Map.Entry<String, KebabValue> variable : block.variables.entrySet()) {
+                copy.variables.putIfAbsent(variable.getKey(), variable.getValue());
+            }
+        }
+        return copy;
+    }
+
     public boolean isGlobalScope() {
         return parent == null;
     }
@@ -0,0 +1,194 @@
+package kebab.lang;
+
+import kebab.KebabParser;
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Built-in functions applying a function of the script to the elements of a list: {@code map},
+ * {@code filter}, {@code reduce} and {@code sort}. The function is called through a {@link Callee}
+ * of the running backend.
+ * <p>
+ * Lists of {@link #PARALLEL_THRESHOLD} or more elements are mapped, filtered and sorted on the
+ * common fork/join pool, smaller ones on the calling thread. Both give the same list: applied
+ * functions are checked to have no side effects before the script runs, results are collected in
+ * the order of the elements and both sorts are stable. {@code reduce} folds from the left on the
+ * calling thread, as the result would depend on the split for a function which is not associative.
+ * <p>
+ * A function ending without {@code _ret} fails {@code map}, {@code filter} and {@code reduce}, the
+ * same way as a {@code _peach} iteration without one: no value is left to put in the list.
+ */
+public final class ListFunctions {
+
+    // Lists this long are worth splitting between threads.
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * A function of the script, bound to the thread calling it.
+     */
+    public interface Callee {
+
+        /**
+         * @param arguments argument values.
+         * @return value returned by the function.
+         */
+        KebabValue call(KebabValue... arguments);
+    }
+
+    private ListFunctions() {
+    }
+
+    /**
+     * Apply a function to every element.
+     *
+     * @param context call, for error messages.
+     * @param list    mapped value.
+     * @param callees creates the function for the thread calling the supplier.
+     * @return list of the returned values.
+     */
+    public static KebabValue map(ParserRuleContext context, KebabValue list, Supplier<Callee> callees) {
+        List<KebabValue> elements = elements(context, list);
+        return ParallelEach.run(elements, () -> {
+            Callee callee = callees.get();
+            return element -> returned(context, element, callee.call(element));
+        }, elements.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Keep the elements a function returns a true value for.
+     *
+     * @param context call, for error messages.
+     * @param list    filtered value.
+     * @param callees creates the function for the thread calling the supplier.
+     * @return list of the kept elements.
+     */
+    public static KebabValue filter(ParserRuleContext context, KebabValue list, Supplier<Callee> callees) {
+        List<KebabValue> elements = elements(context, list);
+        return ParallelEach.run(elements, () -> {
+            Callee callee = callees.get();
+            return element -> returned(context, element, callee.call(element)).asBoolean() ? element : null;
+        }, elements.size() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Combine the elements from the first to the last one.
+     *
+     * @param context call, for error messages.
+     * @param list    reduced value.
+     * @param callee  function taking the value so far and an element.
+     * @param initial value so far before the first element.
+     * @return value after the last element.
+     */
+    public static KebabValue reduce(ParserRuleContext context, KebabValue list, Callee callee, KebabValue initial) {
+        KebabValue value = initial;
+        for (KebabValue element : elements(context, list)) {
+            value = returned(context, element, callee.call(value, element));
+        }
+        return value;
+    }
+
+    /**
+     * Sort the elements, keeping equal ones in their order.
+     *
+     * @param context call, for error messages.
+     * @param list    sorted value.
+     * @param callees creates the function comparing two elements for the thread calling the
+     *                supplier, {@code null} to sort numbers or strings by their value.
+     * @return sorted list.
+     */
+    public static KebabValue sort(ParserRuleContext context, KebabValue list, Supplier<Callee> callees) {
+        KebabValue[] values = elements(context, list).toArray(new KebabValue[0]);
+        boolean parallel = values.length >= PARALLEL_THRESHOLD;
+
+        Comparator<KebabValue> order;
+        if (callees == null) {
+            checkComparable(context, values);
+            order = KebabValue::compareTo;
+        } else if (parallel) {
+
+            // Keyed by thread rather than thread local, so nothing outlives the sort.
+            Map<Thread, Callee> bound = new ConcurrentHashMap<>();
+            order = (lhs, rhs) -> compare(context,
+                    bound.computeIfAbsent(Thread.currentThread(), thread -> callees.get()).call(lhs, rhs));
+        } else {
+            Callee callee = callees.get();
+            order = (lhs, rhs) -> compare(context, callee.call(lhs, rhs));
+        }
+
+        try {
+            if (parallel) {
+                Arrays.parallelSort(values, order);
+            } else {
+                Arrays.sort(values, order);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new KebabException(context.start, "Inconsistent comparison in sort()");
+        }
+        return new KebabValue(KebabList.of(Arrays.asList(values)));
+    }
+
+    /**
+     * Report a call applying a function which is not declared.
+     *
+     * @param context call.
+     * @param name    name of the applied function.
+     * @param count   amount of arguments the function would be called with.
+     * @return error to throw.
+     */
+    public static KebabException undeclared(ParserRuleContext context, String name, int count) {
+        return new KebabException(context.start, "No function '%s' taking %s is declared for %s()",
+                name, count == 1 ? "one argument" : count + " arguments", context.start.getText());
+    }
+
+    /**
+     * Get the value a function returned for an element, failing if it ended without {@code _ret}.
+     */
+    private static KebabValue returned(ParserRuleContext context, KebabValue element, KebabValue result) {
+        if (result.isVoid()) {
+            throw new KebabException(context.start, "Function '%s' returned no value for element: %s in %s()",
+                    context.getRuleContext(KebabParser.IdentifierContext.class, 0).getText(), element,
+                    context.start.getText());
+        }
+        return result;
+    }
+
+    private static List<KebabValue> elements(ParserRuleContext context, KebabValue list) {
+        if (!list.isList()) {
+            throw new KebabException(context.start, "Expected a list in %s(), got: %s",
+                    context.start.getText(), list);
+        }
+        return list.asList();
+    }
+
+    /**
+     * Make sure values are all numbers or all strings, before any of them is compared.
+     */
+    private static void checkComparable(ParserRuleContext context, KebabValue[] values) {
+        for (KebabValue value : values) {
+            if (!value.isNumber() && !value.isString() || value.isNumber() != values[0].isNumber()) {
+                throw new KebabException(context.start, "Cannot compare: '%s' to: '%s' in sort()",
+                        values[0], value);
+            }
+        }
+    }
+
+    /**
+     * Order two elements by the sign of a number returned by a comparing function.
+     */
+    private static int compare(ParserRuleContext context, KebabValue result) {
+        if (!result.isNumber()) {
+            throw new KebabException(context.start, "Expected a number from the function in sort(), got: %s",
+                    result);
+        }
+        return (int) Math.signum(result.doubleValue());
+    }
+}
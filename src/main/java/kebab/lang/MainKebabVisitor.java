@@ -3,39 +3,151 @@ package kebab.lang;
 import kebab.KebabBaseVisitor;
 import kebab.KebabParser;
 import kebab.lang.func.Func;
+import kebab.lang.input.MappedLines;
+import kebab.lang.input.InputSource;
+import kebab.lang.input.StandardInput;
+import kebab.lang.output.FlushPolicy;
+import kebab.lang.output.OutputSink;
+import kebab.lang.output.StreamSink;
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabMap;
+import kebab.lang.value.KebabNumber;
 import kebab.lang.value.KebabValue;
-import kebab.lang.value.ReturnValue;
+import kebab.lang.value.Task;
+import kebab.lang.value.TaskGroup;
 import kebab.util.KebabException;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.misc.NotNull;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
 
     private static final String BOOL_TRUE = "yes";
 
-    private static ReturnValue returnValue = new ReturnValue();
     private Block scope;
     private Map<String, Func> functions;
+    private final OutputSink output;
+    private final InputSource input;
+    private final TaskGroup tasks;
 
+    // Value of the last _ret, blocks complete with KebabValue.RETURN once it is set.
+    private KebabValue returned;
+
+    // Function being run and the scope of its parameters, null in the global code.
+    private Func function;
+    private Block functionScope;
+
+    /**
+     * Visitor showing values on {@link System#out}, every line is written out as it is shown.
+     */
     public MainKebabVisitor(Block scope, Map<String, Func> functions) {
+        this(scope, functions, new StreamSink(System.out, StreamSink.DEFAULT_CAPACITY,
+                FlushPolicy.ON_NEWLINE));
+    }
+
+    /**
+     * Visitor reading lines from standard input.
+     *
+     * @param output where the script shows values.
+     */
+    public MainKebabVisitor(Block scope, Map<String, Func> functions, OutputSink output) {
+        this(scope, functions, output, StandardInput.INSTANCE);
+    }
+
+    /**
+     * Visitor of a run of its own, tasks it spawns are not tracked by anyone.
+     *
+     * @param output where the script shows values.
+     * @param input  where the script reads lines.
+     */
+    public MainKebabVisitor(Block scope, Map<String, Func> functions, OutputSink output, InputSource input) {
+        this(scope, functions, output, input, new TaskGroup());
+    }
+
+    /**
+     * @param output where the script shows values.
+     * @param input  where the script reads lines.
+     * @param tasks  tasks of the run, which tasks spawned by the script join.
+     */
+    public MainKebabVisitor(Block scope, Map<String, Func> functions, OutputSink output, InputSource input,
+                            TaskGroup tasks) {
         this.scope = scope;
         this.functions = functions;
+        this.output = output;
+        this.input = input;
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return where the script shows values.
+     */
+    public OutputSink getOutput() {
+        return output;
+    }
+
+    /**
+     * @return scope the visitor currently evaluates in.
+     */
+    public Block getScope() {
+        return scope;
+    }
+
+    /**
+     * Take the value stored by the last {@code _ret}, called by whoever receives the
+     * {@link KebabValue#RETURN} completion of a block.
+     *
+     * @return returned value.
+     */
+    public KebabValue takeReturned() {
+        KebabValue value = returned;
+        returned = null;
+        return value;
+    }
+
+    /**
+     * Switch the scope of the visitor, used when entering and leaving functions.
+     */
+    public void setScope(Block scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * @return function being run, {@code null} in the global code.
+     */
+    public Func getFunction() {
+        return function;
+    }
+
+    /**
+     * @return scope holding the parameters of the function being run.
+     */
+    public Block getFunctionScope() {
+        return functionScope;
+    }
+
+    /**
+     * Switch the function being run, used when entering and leaving functions.
+     *
+     * @param function      function being run, {@code null} for the global code.
+     * @param functionScope scope holding the parameters of the function.
+     */
+    public void setFunction(Func function, Block functionScope) {
+        this.function = function;
+        this.functionScope = functionScope;
     }
 
     /**
      * Function declaration.
      * functionDeclaration
-     * : Func Identifier '(' identifierList? ')' block Close
+     * : Func identifier '(' identifierList? ')' block Close
      * ;
      */
     @Override
@@ -50,7 +162,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         if (!v.isNumber()) {
             throw new KebabException(ctx);
         }
-        return new KebabValue(-1 * v.asDouble());
+        return KebabNumber.valueOf(-v.doubleValue());
     }
 
     /**
@@ -67,7 +179,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         if (!value.isBoolean() && !value.isEmpty()) {
             throw new KebabException(ctx);
         }
-        return new KebabValue(!value.asBoolean());
+        return KebabValue.valueOf(!value.asBoolean());
     }
 
     // expression '^' expression                #powerExpression
@@ -76,7 +188,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(Math.pow(lhs.asDouble(), rhs.asDouble()));
+            return KebabNumber.valueOf(Math.pow(lhs.doubleValue(), rhs.doubleValue()));
         }
         throw new KebabException(ctx);
     }
@@ -93,25 +205,26 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
 
         // number * number
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() * rhs.asDouble());
+            return KebabNumber.valueOf(lhs.doubleValue() * rhs.doubleValue());
         }
 
         // string * number
         if (lhs.isString() && rhs.isNumber()) {
-            StringBuilder str = new StringBuilder();
-            int stop = rhs.asDouble().intValue();
+            String string = lhs.asString();
+            int stop = (int) rhs.doubleValue();
+            StringBuilder str = new StringBuilder(Math.max(0, string.length() * stop));
             for (int i = 0; i < stop; i++) {
-                str.append(lhs.asString());
+                str.append(string);
             }
             return new KebabValue(str.toString());
         }
 
         // list * number
         if (lhs.isList() && rhs.isNumber()) {
-            List<KebabValue> total = new ArrayList<>();
-            int stop = rhs.asDouble().intValue();
+            KebabList total = KebabList.EMPTY;
+            int stop = (int) rhs.doubleValue();
             for (int i = 0; i < stop; i++) {
-                total.addAll(lhs.asList());
+                total = total.concat(lhs.asList());
             }
             return new KebabValue(total);
         }
@@ -121,13 +234,23 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     // list: '[' exprList? ']'
     @Override
     public KebabValue visitList(KebabParser.ListContext context) {
-        List<KebabValue> list = new ArrayList<>();
+        KebabList.Builder list = new KebabList.Builder();
         if (context.expressionList() != null) {
             for (KebabParser.ExpressionContext ex : context.expressionList().expression()) {
                 list.add(this.visit(ex));
             }
         }
-        return new KebabValue(list);
+        return new KebabValue(list.build());
+    }
+
+    // map: Open (mapEntry (',' mapEntry)*)? Close
+    @Override
+    public KebabValue visitMap(KebabParser.MapContext context) {
+        KebabMap map = KebabMap.EMPTY;
+        for (KebabParser.MapEntryContext entry : context.mapEntry()) {
+            map = map.update(this.visit(entry.expression(0)), this.visit(entry.expression(1)));
+        }
+        return new KebabValue(map);
     }
 
     // expression '/' expression                #divideExpression
@@ -136,7 +259,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() / rhs.asDouble());
+            return KebabNumber.valueOf(lhs.doubleValue() / rhs.doubleValue());
         }
         throw new KebabException(ctx);
     }
@@ -147,7 +270,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() % rhs.asDouble());
+            return KebabNumber.valueOf(lhs.doubleValue() % rhs.doubleValue());
         }
         throw new KebabException(ctx);
     }
@@ -164,24 +287,22 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
 
         // number + number
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() + rhs.asDouble());
+            return KebabNumber.valueOf(lhs.doubleValue() + rhs.doubleValue());
         }
 
         // list + any
         if (lhs.isList()) {
-            List<KebabValue> list = lhs.asList();
-            list.add(rhs);
-            return new KebabValue(list);
+            return new KebabValue(lhs.asList().append(rhs));
         }
 
         // string + any
         if (lhs.isString()) {
-            return new KebabValue(lhs.asString() + "" + rhs.toString());
+            return KebabValue.concat(lhs.asCharSequence(), rhs.toString());
         }
 
         // any + string
         if (rhs.isString()) {
-            return new KebabValue(lhs.toString() + "" + rhs.asString());
+            return KebabValue.concat(lhs.toString(), rhs.asCharSequence());
         }
 
         return new KebabValue(lhs.toString() + rhs.toString());
@@ -193,12 +314,13 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() - rhs.asDouble());
+            return KebabNumber.valueOf(lhs.doubleValue() - rhs.doubleValue());
         }
         if (lhs.isList()) {
-            List<KebabValue> list = lhs.asList();
-            list.remove(rhs);
-            return new KebabValue(list);
+            return new KebabValue(lhs.asList().remove(rhs));
+        }
+        if (lhs.isMap()) {
+            return new KebabValue(lhs.asMap().remove(rhs));
         }
         throw new KebabException(ctx);
     }
@@ -209,10 +331,10 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() >= rhs.asDouble());
+            return KebabValue.valueOf(lhs.doubleValue() >= rhs.doubleValue());
         }
         if (lhs.isString() && rhs.isString()) {
-            return new KebabValue(lhs.asString().compareTo(rhs.asString()) >= 0);
+            return KebabValue.valueOf(lhs.asString().compareTo(rhs.asString()) >= 0);
         }
         throw new KebabException(ctx);
     }
@@ -223,10 +345,10 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() <= rhs.asDouble());
+            return KebabValue.valueOf(lhs.doubleValue() <= rhs.doubleValue());
         }
         if (lhs.isString() && rhs.isString()) {
-            return new KebabValue(lhs.asString().compareTo(rhs.asString()) <= 0);
+            return KebabValue.valueOf(lhs.asString().compareTo(rhs.asString()) <= 0);
         }
         throw new KebabException(ctx);
     }
@@ -237,10 +359,10 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() > rhs.asDouble());
+            return KebabValue.valueOf(lhs.doubleValue() > rhs.doubleValue());
         }
         if (lhs.isString() && rhs.isString()) {
-            return new KebabValue(lhs.asString().compareTo(rhs.asString()) > 0);
+            return KebabValue.valueOf(lhs.asString().compareTo(rhs.asString()) > 0);
         }
         throw new KebabException(ctx);
     }
@@ -251,10 +373,10 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
         if (lhs.isNumber() && rhs.isNumber()) {
-            return new KebabValue(lhs.asDouble() < rhs.asDouble());
+            return KebabValue.valueOf(lhs.doubleValue() < rhs.doubleValue());
         }
         if (lhs.isString() && rhs.isString()) {
-            return new KebabValue(lhs.asString().compareTo(rhs.asString()) < 0);
+            return KebabValue.valueOf(lhs.asString().compareTo(rhs.asString()) < 0);
         }
         throw new KebabException(ctx);
     }
@@ -267,7 +389,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         if (lhs == null) {
             throw new KebabException(ctx);
         }
-        return new KebabValue(lhs.equals(rhs));
+        return KebabValue.valueOf(lhs.equals(rhs));
     }
 
     // expression '!=' expression               #notEqExpression
@@ -275,7 +397,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     public KebabValue visitNotEqExpression(@NotNull KebabParser.NotEqExpressionContext ctx) {
         KebabValue lhs = this.visit(ctx.expression(0));
         KebabValue rhs = this.visit(ctx.expression(1));
-        return new KebabValue(!lhs.equals(rhs));
+        return KebabValue.valueOf(!lhs.equals(rhs));
     }
 
     // expression '&&' expression               #andExpression
@@ -287,7 +409,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         if (!lhs.isBoolean() || !rhs.isBoolean()) {
             throw new KebabException(ctx);
         }
-        return new KebabValue(lhs.asBoolean() && rhs.asBoolean());
+        return KebabValue.valueOf(lhs.asBoolean() && rhs.asBoolean());
     }
 
     // expression '||' expression               #orExpression
@@ -299,7 +421,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         if (!lhs.isBoolean() || !rhs.isBoolean()) {
             throw new KebabException(ctx);
         }
-        return new KebabValue(lhs.asBoolean() || rhs.asBoolean());
+        return KebabValue.valueOf(lhs.asBoolean() || rhs.asBoolean());
     }
 
     // expression '?' expression ':' expression #ternaryExpression
@@ -307,9 +429,9 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     public KebabValue visitTernaryExpression(KebabParser.TernaryExpressionContext ctx) {
         KebabValue condition = this.visit(ctx.expression(0));
         if (condition.asBoolean()) {
-            return new KebabValue(this.visit(ctx.expression(1)));
+            return this.visit(ctx.expression(1));
         } else {
-            return new KebabValue(this.visit(ctx.expression(2)));
+            return this.visit(ctx.expression(2));
         }
     }
 
@@ -320,12 +442,15 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue rhs = this.visit(ctx.expression(1));
 
         if (rhs.isList()) {
-            for (KebabValue val : rhs.asList()) {
-                if (val.equals(lhs)) {
-                    return new KebabValue(true);
-                }
-            }
-            return new KebabValue(false);
+            return KebabValue.valueOf(rhs.asList().contains(lhs));
+        }
+        if (rhs.isMap()) {
+            return KebabValue.valueOf(rhs.asMap().containsKey(lhs));
+        }
+
+        // Substring search.
+        if (rhs.isString() && lhs.isString()) {
+            return KebabValue.valueOf(rhs.asString().contains(lhs.asCharSequence()));
         }
         throw new KebabException(ctx);
     }
@@ -333,13 +458,13 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     // Number                                   #numberExpression
     @Override
     public KebabValue visitNumberExpression(@NotNull KebabParser.NumberExpressionContext ctx) {
-        return new KebabValue(Double.valueOf(ctx.getText()));
+        return KebabNumber.valueOf(Double.parseDouble(ctx.getText()));
     }
 
     // Bool                                     #boolExpression
     @Override
     public KebabValue visitBoolExpression(@NotNull KebabParser.BoolExpressionContext ctx) {
-        return new KebabValue(BOOL_TRUE.equals(ctx.getText()));
+        return KebabValue.valueOf(BOOL_TRUE.equals(ctx.getText()));
     }
 
     /**
@@ -356,12 +481,20 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     private KebabValue resolveIndexes(ParserRuleContext ctx, KebabValue val, List<KebabParser.ExpressionContext> indexes) {
         for (KebabParser.ExpressionContext ec : indexes) {
             KebabValue idx = this.visit(ec);
+            if (val.isMap()) {
+                KebabValue element = val.asMap().get(idx);
+                if (element == null) {
+                    throw new KebabException(ec.start, "No key: '%s' in map", idx);
+                }
+                val = element;
+                continue;
+            }
             if (!idx.isNumber() || (!val.isList() && !val.isString())) {
                 throw new KebabException(ec.start, "Could not resolve indexes on: '%s' at: %s", val, idx);
             }
-            int i = idx.asDouble().intValue();
+            int i = (int) idx.doubleValue();
             if (val.isString()) {
-                val = new KebabValue(val.asString().substring(i, i + 1));
+                val = KebabValue.valueOf(val.asString().charAt(i));
             } else {
                 val = val.asList().get(i);
             }
@@ -369,23 +502,46 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         return val;
     }
 
-    private void setAtIndex(ParserRuleContext ctx, List<KebabParser.ExpressionContext> indexes, KebabValue val, KebabValue newVal) {
-        if (!val.isList()) {
-            throw new KebabException(ctx);
+    /**
+     * Lists and maps are immutable, so an element is set by rebuilding the path of nested values to
+     * it.
+     *
+     * @return list or map holding the new element.
+     */
+    private KebabValue setAtIndex(ParserRuleContext ctx, List<KebabParser.ExpressionContext> indexes, KebabValue val,
+                                  KebabValue newVal) {
+        KebabValue[] keys = new KebabValue[indexes.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = this.visit(indexes.get(i));
         }
-        // TODO some more list size checking in here
-        for (int i = 0; i < indexes.size() - 1; i++) {
-            KebabValue idx = this.visit(indexes.get(i));
-            if (!idx.isNumber()) {
-                throw new KebabException(ctx);
+        return setAtIndex(ctx, keys, 0, val, newVal);
+    }
+
+    private KebabValue setAtIndex(ParserRuleContext ctx, KebabValue[] keys, int depth, KebabValue val,
+                                  KebabValue newVal) {
+        KebabValue key = keys[depth];
+        if (val.isMap()) {
+            KebabMap map = val.asMap();
+            if (depth < keys.length - 1) {
+                KebabValue element = map.get(key);
+                if (element == null) {
+                    throw new KebabException(ctx.start, "No key: '%s' in map", key);
+                }
+                newVal = setAtIndex(ctx, keys, depth + 1, element, newVal);
             }
-            val = val.asList().get(idx.asDouble().intValue());
+            return new KebabValue(map.update(key, newVal));
         }
-        KebabValue idx = this.visit(indexes.get(indexes.size() - 1));
-        if (!idx.isNumber()) {
+
+        // TODO some more list size checking in here
+        if (!val.isList() || !key.isNumber()) {
             throw new KebabException(ctx);
         }
-        val.asList().set(idx.asDouble().intValue(), newVal);
+        KebabList list = val.asList();
+        int i = (int) key.doubleValue();
+        if (depth < keys.length - 1) {
+            newVal = setAtIndex(ctx, keys, depth + 1, list.get(i), newVal);
+        }
+        return new KebabValue(list.update(i, newVal));
     }
 
     /**
@@ -412,11 +568,25 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         return val;
     }
 
-    // Identifier indexes?                      #identifierExpression
+    // map indexes?                             #mapExpression
+    @Override
+    public KebabValue visitMapExpression(KebabParser.MapExpressionContext ctx) {
+        KebabValue val = this.visit(ctx.map());
+        if (ctx.indexes() != null) {
+            List<KebabParser.ExpressionContext> exps = ctx.indexes().expression();
+            val = resolveIndexes(ctx, val, exps);
+        }
+        return val;
+    }
+
+    // identifier indexes?                      #identifierExpression
     @Override
     public KebabValue visitIdentifierExpression(@NotNull KebabParser.IdentifierExpressionContext ctx) {
-        String id = ctx.Identifier().getText();
+        String id = ctx.identifier().getText();
         KebabValue val = scope.resolve(id);
+        if (val == null) {
+            throw new KebabException(ctx.start, "Variable '%s' is not declared in this scope", id);
+        }
 
         if (ctx.indexes() != null) {
             List<KebabParser.ExpressionContext> exps = ctx.indexes().expression();
@@ -460,27 +630,81 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
                 text = text.substring(1, text.length() - 1).replaceAll("\\\\(.)", "$1");
                 return new KebabValue(new String(Files.readAllBytes(Paths.get(text))));
             } else {
-                BufferedReader buffer = new BufferedReader(new InputStreamReader(System.in));
-                return new KebabValue(buffer.readLine());
+
+                // Show a pending prompt before waiting for the user.
+                output.flush();
+                return new KebabValue(input.readLine());
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    // Lines '(' expression? ')'                #linesExpression
+    @Override
+    public KebabValue visitLinesExpression(KebabParser.LinesExpressionContext ctx) {
+        if (ctx.expression() == null) {
+
+            // Show a pending prompt before waiting for the user.
+            output.flush();
+            return new KebabValue(input.lines());
+        }
+
+        KebabValue path = this.visit(ctx.expression());
+        if (!path.isString()) {
+            throw new KebabException(ctx.start, "Expected a file path in lines(), got: %s", path);
+        }
+        return new KebabValue(new MappedLines(Paths.get(path.asString())));
+    }
+
+    /**
+     * A for-each loop running its iterations in parallel, every thread visits the body with a
+     * visitor of its own.
+     * <pre>
+     * parallelEach
+     * : Peach '(' identifier Colon expression ')' Open block Close
+     * ;
+     * </pre>
+     */
+    @Override
+    public KebabValue visitParallelEach(KebabParser.ParallelEachContext ctx) {
+        List<KebabValue> elements = ParallelEach.elements(ctx, this.visit(ctx.expression()));
+
+        // Make sure scope doesn't have a variable like this already.
+        String id = ctx.identifier().getText();
+        Block loop = new Block(scope);
+        loop.assign(ctx.start, id, KebabValue.EMPTY);
+
+        return ParallelEach.run(elements, () -> {
+            Block range = new Block(loop);
+            range.assignParam(id, KebabValue.EMPTY);
+            MainKebabVisitor visitor = new MainKebabVisitor(range, functions, output, input, tasks);
+            return element -> {
+                range.assignParam(id, element);
+                KebabValue returned = visitor.visit(ctx.block()) == KebabValue.RETURN ? visitor.takeReturned() : null;
+                return ParallelEach.returned(ctx, element, returned);
+            };
+        }, true);
+    }
+
     /**
      * Reassignment to variable.
      * <pre>
      * reAssignment
-     * : Identifier indexes? ':' expression
+     * : identifier indexes? ':' expression
      * ;
      * </pre>
      */
     @Override
     public KebabValue visitReAssignment(@NotNull KebabParser.ReAssignmentContext ctx) {
-        scope.reAssign(ctx.start,
-                ctx.Identifier().getText(),
-                this.visit(ctx.expression()));
+        KebabValue newVal = this.visit(ctx.expression());
+        if (ctx.indexes() != null) {
+            String id = ctx.identifier().getText();
+            KebabValue val = scope.resolve(id);
+            scope.reAssign(ctx.start, id, setAtIndex(ctx, ctx.indexes().expression(), val, newVal));
+        } else {
+            scope.reAssign(ctx.start, ctx.identifier().getText(), newVal);
+        }
 
         return KebabValue.VOID;
     }
@@ -489,7 +713,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
      * Assignment/creation of a variable.
      * <pre>
      * assignment
-     * : 'keb' Identifier indexes? ':' expression
+     * : 'keb' identifier indexes? ':' expression
      * ;
      * </pre>
      */
@@ -498,17 +722,18 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
 
         // Variable created without assignment.
         if (ctx.expression() == null) {
-            scope.assign(ctx.start, ctx.Identifier().getText(), KebabValue.EMPTY);
+            scope.assign(ctx.start, ctx.identifier().getText(), KebabValue.EMPTY);
             return KebabValue.VOID;
         }
 
         KebabValue newVal = this.visit(ctx.expression());
         if (ctx.indexes() != null) {
-            KebabValue val = scope.resolve(ctx.Identifier().getText());
+            String id = ctx.identifier().getText();
+            KebabValue val = scope.resolve(id);
             List<KebabParser.ExpressionContext> expression = ctx.indexes().expression();
-            setAtIndex(ctx, expression, val, newVal);
+            scope.reAssign(ctx.start, id, setAtIndex(ctx, expression, val, newVal));
         } else {
-            String id = ctx.Identifier().getText();
+            String id = ctx.identifier().getText();
             scope.assign(ctx.start, id, newVal);
         }
         return KebabValue.VOID;
@@ -517,25 +742,154 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     /**
      * Function call with args or no args.
      * <pre>
-     * : Identifier (('(' expressionList? ')') | '()') #identifierFunctionCall
+     * : identifier (('(' expressionList? ')') | '()') #identifierFunctionCall
      * </pre>
      */
     @Override
     public KebabValue visitIdentifierFunctionCall(KebabParser.IdentifierFunctionCallContext ctx) {
-        List<KebabParser.ExpressionContext> params = ctx.expressionList() != null ? ctx.expressionList().expression() : new ArrayList<>();
-        String id = ctx.Identifier().getText();
+        List<KebabParser.ExpressionContext> params = ctx.expressionList() != null ? ctx.expressionList().expression() : Collections.emptyList();
+        String id = ctx.identifier().getText();
 
+        Func function = resolve(id, params.size());
+        if (function != null) {
+            return function.invoke(params, this);
+        }
+        throw new KebabException(ctx);
+    }
+
+    /**
+     * Find the function a call resolves to.
+     *
+     * @param id    function name.
+     * @param count argument count of the call.
+     * @return called function or {@code null} if there is none.
+     */
+    private Func resolve(String id, int count) {
         Func function;
-        if ((function = functions.get(id + params.size())) != null) {
+        if ((function = functions.get(id + count)) != null) {
 
             // Try to get a function by real parameter count.
-            return function.invoke(params, functions, scope);
+            return function;
         } else if ((function = functions.get(id)) != null && function.isPurelyOptional()) {
 
             // Try to get a purely optional function.
-            return function.invoke(params, functions, scope);
+            return function;
         }
-        throw new KebabException(ctx);
+        return null;
+    }
+
+    /**
+     * Get a function passed by name to a built-in list function, every thread calls it with a
+     * visitor of its own.
+     *
+     * @param ctx        built-in call.
+     * @param identifier function name.
+     * @param count      amount of arguments it is called with.
+     * @return creates the function for the calling thread.
+     */
+    private Supplier<ListFunctions.Callee> callees(ParserRuleContext ctx, KebabParser.IdentifierContext identifier,
+                                                   int count) {
+        Func function = resolve(identifier.getText(), count);
+        if (function == null) {
+            throw ListFunctions.undeclared(ctx, identifier.getText(), count);
+        }
+
+        Block scope = this.scope;
+        return () -> {
+            MainKebabVisitor visitor = new MainKebabVisitor(scope, functions, output, input, tasks);
+            return arguments -> function.call(arguments, visitor);
+        };
+    }
+
+    // MapList '(' expression ',' identifier ')'   #mapFunctionCall
+    @Override
+    public KebabValue visitMapFunctionCall(KebabParser.MapFunctionCallContext ctx) {
+        KebabValue list = this.visit(ctx.expression());
+        return ListFunctions.map(ctx, list, callees(ctx, ctx.identifier(), 1));
+    }
+
+    // Filter '(' expression ',' identifier ')'    #filterFunctionCall
+    @Override
+    public KebabValue visitFilterFunctionCall(KebabParser.FilterFunctionCallContext ctx) {
+        KebabValue list = this.visit(ctx.expression());
+        return ListFunctions.filter(ctx, list, callees(ctx, ctx.identifier(), 1));
+    }
+
+    // Reduce '(' expression ',' identifier ',' expression ')'  #reduceFunctionCall
+    @Override
+    public KebabValue visitReduceFunctionCall(KebabParser.ReduceFunctionCallContext ctx) {
+        KebabValue list = this.visit(ctx.expression(0));
+        KebabValue initial = this.visit(ctx.expression(1));
+        return ListFunctions.reduce(ctx, list, callees(ctx, ctx.identifier(), 2).get(), initial);
+    }
+
+    // Sort '(' expression (',' identifier)? ')'   #sortFunctionCall
+    @Override
+    public KebabValue visitSortFunctionCall(KebabParser.SortFunctionCallContext ctx) {
+        KebabValue list = this.visit(ctx.expression());
+        return ListFunctions.sort(ctx, list,
+                ctx.identifier() != null ? callees(ctx, ctx.identifier(), 2) : null);
+    }
+
+    /**
+     * Start a function call as a task, which runs with a visitor of its own in a copy of the
+     * variables visible here. Arguments are evaluated before the task starts.
+     * <pre>
+     * spawn
+     * : Spawn identifier '(' expressionList? ')'
+     * ;
+     * </pre>
+     */
+    @Override
+    public KebabValue visitSpawn(KebabParser.SpawnContext ctx) {
+        List<KebabParser.ExpressionContext> params = ctx.expressionList() != null ? ctx.expressionList().expression() : Collections.emptyList();
+        String id = ctx.identifier().getText();
+
+        Func function = resolve(id, params.size());
+        if (function == null) {
+            throw Tasks.undeclared(ctx, id, params.size());
+        }
+
+        KebabValue[] arguments = new KebabValue[params.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = this.visit(params.get(i));
+        }
+        Block snapshot = scope.snapshot();
+        return Tasks.spawn(tasks, arguments, output -> {
+            MainKebabVisitor visitor = new MainKebabVisitor(snapshot, functions, output, input, tasks);
+            return () -> function.call(arguments, visitor);
+        });
+    }
+
+    // Await '(' expression ')'     #awaitFunctionCall
+    @Override
+    public KebabValue visitAwaitFunctionCall(KebabParser.AwaitFunctionCallContext ctx) {
+        return Tasks.await(ctx, this.visit(ctx.expression()), output);
+    }
+
+    // NewChannel '(' expression ')'    #channelFunctionCall
+    @Override
+    public KebabValue visitChannelFunctionCall(KebabParser.ChannelFunctionCallContext ctx) {
+        return Tasks.channel(ctx, this.visit(ctx.expression()));
+    }
+
+    // Send '(' expression ',' expression ')'   #sendFunctionCall
+    @Override
+    public KebabValue visitSendFunctionCall(KebabParser.SendFunctionCallContext ctx) {
+        KebabValue channel = this.visit(ctx.expression(0));
+        return Tasks.send(ctx, channel, this.visit(ctx.expression(1)));
+    }
+
+    // Receive '(' expression ')'   #receiveFunctionCall
+    @Override
+    public KebabValue visitReceiveFunctionCall(KebabParser.ReceiveFunctionCallContext ctx) {
+        return Tasks.receive(ctx, this.visit(ctx.expression()));
+    }
+
+    // CloseChannel '(' expression ')'  #closeFunctionCall
+    @Override
+    public KebabValue visitCloseFunctionCall(KebabParser.CloseFunctionCallContext ctx) {
+        return Tasks.close(ctx, this.visit(ctx.expression()));
     }
 
     /**
@@ -546,7 +900,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
      */
     @Override
     public KebabValue visitShowFunctionCall(KebabParser.ShowFunctionCallContext ctx) {
-        System.out.print(this.visit(ctx.expression()));
+        output.write(this.visit(ctx.expression()).toString());
         return KebabValue.VOID;
     }
 
@@ -559,9 +913,9 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     @Override
     public KebabValue visitShowLineFunctionCall(KebabParser.ShowLineFunctionCallContext ctx) {
         if (ctx.expression() == null) {
-            System.out.println();
+            output.writeLine("");
         } else {
-            System.out.println(this.visit(ctx.expression()));
+            output.writeLine(this.visit(ctx.expression()).toString());
         }
         return KebabValue.VOID;
     }
@@ -588,11 +942,15 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue value = this.visit(ctx.expression());
 
         if (value.isString()) {
-            return new KebabValue(value.asString().length());
+            return KebabNumber.valueOf(value.asCharSequence().length());
         }
 
         if (value.isList()) {
-            return new KebabValue(value.asList().size());
+            return KebabNumber.valueOf(value.asList().size());
+        }
+
+        if (value.isMap()) {
+            return KebabNumber.valueOf(value.asMap().size());
         }
 
         throw new KebabException(ctx);
@@ -641,6 +999,22 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         return KebabValue.VOID;
     }
 
+    /**
+     * Whole script.
+     * <pre>
+     * parse
+     *  : block EOF
+     *  ;
+     * </pre>
+     */
+    @Override
+    public KebabValue visitParse(KebabParser.ParseContext ctx) {
+        if (this.visit(ctx.block()) == KebabValue.RETURN) {
+            return takeReturned();
+        }
+        return KebabValue.VOID;
+    }
+
     /**
      * Code block - scope.
      * <pre>
@@ -653,12 +1027,21 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     public KebabValue visitBlock(KebabParser.BlockContext ctx) {
 
         scope = new Block(scope); // create new local scope
-        ctx.statement().forEach(this::visit);
+        for (KebabParser.StatementContext statement : ctx.statement()) {
+            if (this.visit(statement) == KebabValue.RETURN) {
+                scope = scope.parent();
+                return KebabValue.RETURN;
+            }
+        }
         KebabParser.ExpressionContext ex;
         if ((ex = ctx.expression()) != null) {
-            returnValue.value = this.visit(ex);
+
+            // A function calling itself in tail position runs again instead of nesting a call.
+            returned = function != null && function.isTailCall(ex, this)
+                    ? function.reenter(ex, this)
+                    : this.visit(ex);
             scope = scope.parent();
-            throw returnValue;
+            return KebabValue.RETURN;
         }
         scope = scope.parent();
         return KebabValue.VOID;
@@ -668,7 +1051,7 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
      * A for-each loop for strings and lists.
      * <pre>
      * eachLoopStatement
-     * : EachLoop '(' Identifier Colon expression ')' Open block Close
+     * : EachLoop '(' identifier Colon expression ')' Open block Close
      * ;
      * </pre>
      */
@@ -676,36 +1059,39 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
     public KebabValue visitEachLoopStatement(KebabParser.EachLoopStatementContext ctx) {
 
         KebabValue iterate = this.visit(ctx.expression());
-        if (!iterate.isString() && !iterate.isList()) {
-            throw new KebabException(ctx.start, "Cannot iterate a non-string or a non-list in a _loop");
+        if (!iterate.isString() && !iterate.isList() && !iterate.isMap() && !iterate.isSequence()) {
+            throw new KebabException(ctx.start,
+                    "Cannot iterate a non-string, non-list, non-map or non-sequence in a _loop");
         }
 
         // Loop inner scope identifier.
-        String id = ctx.Identifier().getText();
+        String id = ctx.identifier().getText();
 
         // Make sure scope doesn't have a variable like this already.
         scope.assign(ctx.start, id, KebabValue.EMPTY);
         if (iterate.isString()) {
 
             // Iterate a list of string.
-            for (char c : iterate.asString().toCharArray()) {
-                scope.reAssign(ctx.start, id, new KebabValue(String.valueOf(c)));
+            String string = iterate.asString();
+            for (int i = 0; i < string.length(); i++) {
+                scope.reAssign(ctx.start, id, KebabValue.valueOf(string.charAt(i)));
 
-                KebabValue returnValue = this.visit(ctx.block());
-                if (returnValue != KebabValue.VOID) {
-                    return returnValue;
+                if (this.visit(ctx.block()) == KebabValue.RETURN) {
+                    return KebabValue.RETURN;
                 }
             }
 
-        } else if (iterate.isList()) {
+        } else {
 
-            // Iterate a list.
-            for (KebabValue value : iterate.asList()) {
+            // Iterate a list, the keys of a map or a sequence.
+            Iterable<KebabValue> values = iterate.isList() ? iterate.asList()
+                    : iterate.isMap() ? iterate.asMap().keySet()
+                    : iterate.asSequence();
+            for (KebabValue value : values) {
                 scope.reAssign(ctx.start, id, value);
 
-                KebabValue returnValue = this.visit(ctx.block());
-                if (returnValue != KebabValue.VOID) {
-                    return returnValue;
+                if (this.visit(ctx.block()) == KebabValue.RETURN) {
+                    return KebabValue.RETURN;
                 }
             }
         }
@@ -728,11 +1114,12 @@ public class MainKebabVisitor extends KebabBaseVisitor<KebabValue> {
         KebabValue expression = this.visit(ctx.expression());
         while (expression.asBoolean()) {
 
-            KebabValue returnValue = this.visit(ctx.block());
-            if (returnValue != KebabValue.VOID) {
-                return returnValue;
+            if (this.visit(ctx.block()) == KebabValue.RETURN) {
+                return KebabValue.RETURN;
             }
 
+            Task.checkCancelled();
+
             // Check loop condition all the time.
             expression = this.visit(ctx.expression());
         }
@@ -0,0 +1,190 @@
+package kebab.lang;
+
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Runs the iterations of a {@code _peach} loop, or of a built-in list function such as
+ * {@code map}, on the common fork/join pool. The elements are split in halves until a range is
+ * small enough to be run by one thread, every range gets an {@link Iteration} of its own, so
+ * threads never share the loop variable or the variables declared by the body. Values returned by
+ * the iterations are collected in the order of the elements.
+ * <p>
+ * Bodies and applied functions are checked not to show output, read input or assign variables
+ * declared outside of them before the script runs, everything else they see is only read while
+ * the iterations run.
+ */
+public final class ParallelEach {
+
+    // Ranges are split until every worker gets about this many of them.
+    private static final int RANGES_PER_WORKER = 4;
+
+    /**
+     * Loop body of one range, run by a single thread.
+     */
+    public interface Iteration {
+
+        /**
+         * Run the body for an element.
+         *
+         * @param element value of the loop variable.
+         * @return value for the element, {@code null} to leave the element out.
+         */
+        KebabValue run(KebabValue element);
+    }
+
+    private ParallelEach() {
+    }
+
+    /**
+     * Get the elements a {@code _peach} loop iterates.
+     *
+     * @param context loop, for error messages.
+     * @param iterate value of the iterated expression.
+     * @return characters of a string, elements of a list or keys of a map.
+     */
+    public static List<KebabValue> elements(ParserRuleContext context, KebabValue iterate) {
+        if (iterate.isList()) {
+            return iterate.asList();
+        }
+        List<KebabValue> elements = new ArrayList<>();
+        if (iterate.isString()) {
+            String string = iterate.asString();
+            for (int i = 0; i < string.length(); i++) {
+                elements.add(KebabValue.valueOf(string.charAt(i)));
+            }
+        } else if (iterate.isMap()) {
+            elements.addAll(iterate.asMap().keySet());
+        } else {
+            throw new KebabException(context.start,
+                    "Cannot iterate a non-string, non-list or non-map in a _peach");
+        }
+        return elements;
+    }
+
+    /**
+     * Check the value an iteration of a {@code _peach} loop returned, an iteration ending without
+     * {@code _ret} fails the loop as it has no element to give.
+     *
+     * @param context  loop, for error messages.
+     * @param element  value of the loop variable.
+     * @param returned value returned by the body, {@code null} if it completed without {@code _ret}.
+     * @return the returned value.
+     */
+    public static KebabValue returned(ParserRuleContext context, KebabValue element, KebabValue returned) {
+        if (returned == null || returned.isVoid()) {
+            throw new KebabException(context.start, "No value returned by the _peach body for element: %s",
+                    element);
+        }
+        return returned;
+    }
+
+    /**
+     * Run the iterations and collect their results. If iterations fail, the error of the first
+     * failing element is thrown once the others are done.
+     *
+     * @param elements   iterated elements.
+     * @param iterations creates the body of a range, called by the thread running it.
+     * @param parallel   false to run all iterations as one range on the calling thread.
+     * @return values returned by the iterations, in the order of the elements.
+     */
+    public static KebabValue run(List<KebabValue> elements, Supplier<Iteration> iterations, boolean parallel) {
+        int threshold = elements.size();
+        if (parallel) {
+            threshold /= ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_WORKER;
+        }
+        Range loop = new Range(elements, iterations, Math.max(1, threshold));
+        loop.invoke();
+        if (loop.error != null) {
+            throw loop.error;
+        }
+
+        KebabList.Builder list = new KebabList.Builder();
+        for (KebabValue result : loop.results) {
+            if (result != null) {
+                list.add(result);
+            }
+        }
+        return new KebabValue(list.build());
+    }
+
+    /**
+     * Elements from {@code start} to {@code end}, split further while bigger than the threshold.
+     */
+    private static final class Range extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<KebabValue> elements;
+        private final Supplier<Iteration> iterations;
+        private final int threshold;
+        private final int start;
+        private final int end;
+
+        // Shared by all ranges of a loop.
+        private final KebabValue[] results;
+        private final Range loop;
+
+        // Index and error of the first failing element, guarded by the range of the whole loop.
+        private volatile int failed;
+        private RuntimeException error;
+
+        Range(List<KebabValue> elements, Supplier<Iteration> iterations, int threshold) {
+            this.elements = elements;
+            this.iterations = iterations;
+            this.threshold = threshold;
+            this.start = 0;
+            this.end = elements.size();
+            this.results = new KebabValue[end];
+            this.loop = this;
+            this.failed = end;
+        }
+
+        private Range(Range parent, int start, int end) {
+            this.elements = parent.elements;
+            this.iterations = parent.iterations;
+            this.threshold = parent.threshold;
+            this.start = start;
+            this.end = end;
+            this.results = parent.results;
+            this.loop = parent.loop;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > threshold) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Range(this, start, middle), new Range(this, middle, end));
+                return;
+            }
+
+            Iteration iteration = iterations.get();
+            for (int i = start; i < end && i < loop.failed; i++) {
+                try {
+                    results[i] = iteration.run(elements.get(i));
+                } catch (RuntimeException e) {
+                    loop.fail(i, e);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Keep the error of the element which comes first, later elements are skipped.
+         */
+        private synchronized void fail(int index, RuntimeException e) {
+            if (index < failed) {
+                failed = index;
+                error = e;
+            }
+        }
+    }
+}
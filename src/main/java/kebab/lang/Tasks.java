@@ -0,0 +1,167 @@
+package kebab.lang;
+
+import kebab.lang.output.OutputSink;
+import kebab.lang.value.Channel;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.Task;
+import kebab.lang.value.TaskGroup;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs functions started with {@code _spawn} and implements the built-in functions working with
+ * tasks and channels: {@code await}, {@code channel}, {@code send}, {@code receive} and
+ * {@code close}.
+ * <p>
+ * Tasks run on a virtual thread each when the JVM has them, and on a pool of daemon threads
+ * otherwise, which starts a thread whenever all of its threads are busy. Tasks wait for each other
+ * through channels, so a pool with a fixed amount of threads could leave a producer waiting for a
+ * consumer which never gets a thread.
+ * <p>
+ * A task runs in a copy of the variables visible where it was spawned, so neither side sees later
+ * assignments of the other. Values never change in place, so lists and maps passed to a task or
+ * sent through a channel are copies as far as the script can tell.
+ */
+public final class Tasks {
+
+    private static final ExecutorService EXECUTOR = executor();
+
+    private Tasks() {
+    }
+
+    /**
+     * Start a task.
+     *
+     * @param tasks     tasks of the run.
+     * @param arguments values passed to the spawned function.
+     * @param call      prepares the call of the spawned function on the spawning thread, given the
+     *                  output of the task, the call then runs on the thread of the task.
+     * @return task value.
+     */
+    public static KebabValue spawn(TaskGroup tasks, KebabValue[] arguments,
+                                   Function<OutputSink, Supplier<KebabValue>> call) {
+        Task task = tasks.create(arguments);
+        Supplier<KebabValue> body = call.apply(task.getOutput());
+        EXECUTOR.execute(() -> task.run(body));
+        return new KebabValue(task);
+    }
+
+    /**
+     * Wait for a task to finish, the output of the task is shown first.
+     *
+     * @param context call, for error messages.
+     * @param task    awaited value.
+     * @param output  output of the awaiting code.
+     * @return value returned by the function of the task.
+     */
+    public static KebabValue await(ParserRuleContext context, KebabValue task, OutputSink output) {
+        if (!task.isTask()) {
+            throw new KebabException(context.start, "Expected a task in await(), got: %s", task);
+        }
+        return task.asTask().await(output);
+    }
+
+    /**
+     * Create a channel.
+     *
+     * @param context  call, for error messages.
+     * @param capacity amount of values the channel can hold before senders wait.
+     * @return channel value.
+     */
+    public static KebabValue channel(ParserRuleContext context, KebabValue capacity) {
+        if (!capacity.isNumber() || capacity.doubleValue() < 1
+                || capacity.doubleValue() > Integer.MAX_VALUE
+                || capacity.doubleValue() != Math.floor(capacity.doubleValue())) {
+
+            throw new KebabException(context.start, "Invalid channel capacity: %s", capacity);
+        }
+        return new KebabValue(new Channel(capacity.asLong().intValue()));
+    }
+
+    /**
+     * Send a value, waiting while the channel is full.
+     *
+     * @param context call, for error messages.
+     * @param channel channel value.
+     * @param value   sent value.
+     * @return {@link KebabValue#VOID}.
+     */
+    public static KebabValue send(ParserRuleContext context, KebabValue channel, KebabValue value) {
+        if (!channelOf(context, channel).send(value)) {
+            throw new KebabException(context.start, "Cannot send to a closed channel");
+        }
+        return KebabValue.VOID;
+    }
+
+    /**
+     * Receive a value, waiting while the channel is empty.
+     *
+     * @param context call, for error messages.
+     * @param channel channel value.
+     * @return received value.
+     */
+    public static KebabValue receive(ParserRuleContext context, KebabValue channel) {
+        KebabValue value = channelOf(context, channel).receive();
+        if (value == null) {
+            throw new KebabException(context.start, "Cannot receive from a closed and empty channel");
+        }
+        return value;
+    }
+
+    /**
+     * Close a channel, values already sent can still be received.
+     *
+     * @param context call, for error messages.
+     * @param channel channel value.
+     * @return {@link KebabValue#VOID}.
+     */
+    public static KebabValue close(ParserRuleContext context, KebabValue channel) {
+        channelOf(context, channel).close();
+        return KebabValue.VOID;
+    }
+
+    /**
+     * Report a spawn of a function which is not declared.
+     *
+     * @param context spawn.
+     * @param name    name of the spawned function.
+     * @param count   amount of arguments.
+     * @return error to throw.
+     */
+    public static KebabException undeclared(ParserRuleContext context, String name, int count) {
+        return new KebabException(context.start, "No function '%s' taking %s is declared for _spawn",
+                name, count == 1 ? "one argument" : count + " arguments");
+    }
+
+    private static Channel channelOf(ParserRuleContext context, KebabValue channel) {
+        if (!channel.isChannel()) {
+            throw new KebabException(context.start, "Expected a channel in %s(), got: %s",
+                    context.start.getText(), channel);
+        }
+        return channel.asChannel();
+    }
+
+    /**
+     * Use a virtual thread per task if the JVM has them, looked up by name as the code targets
+     * Java 8. Both kinds of threads are daemons, a cancelled task which does not stop does not
+     * keep the script running.
+     */
+    private static ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "kebab-task-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
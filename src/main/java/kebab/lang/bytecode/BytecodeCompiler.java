@@ -0,0 +1,68 @@
+package kebab.lang.bytecode;
+
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Program;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles the functions of a program to JVM bytecode. Only functions doing numeric work can be
+ * compiled, see {@link KernelAnalysis}, the rest of the program keeps running in the node tree.
+ */
+public class BytecodeCompiler {
+
+    private BytecodeCompiler() {
+    }
+
+    /**
+     * Compile what can be compiled and attach it to the functions of the program.
+     *
+     * @param program compiled node tree.
+     * @return amount of functions compiled to bytecode.
+     */
+    public static int compile(Program program) {
+        Collection<Kernel> found = KernelAnalysis.analyse(program.getFunctions().values());
+        if (found.isEmpty()) {
+            return 0;
+        }
+
+        Map<FuncNode, Kernel> kernels = new LinkedHashMap<>();
+        for (Kernel kernel : found) {
+            kernel.setMethodName(kernel.getFunction().getIdentifier() + "$" + kernels.size());
+            kernels.put(kernel.getFunction(), kernel);
+        }
+
+        KernelGenerator generator = new KernelGenerator(kernels);
+        KebabClassLoader loader = new KebabClassLoader();
+        Map<FuncNode, CompiledFunction> compiled = new LinkedHashMap<>();
+        try {
+            loader.define(binaryName(KernelGenerator.SCRIPT), generator.script());
+            for (Kernel kernel : found) {
+                String className = KernelGenerator.SCRIPT + "$" + kernel.getMethodName();
+                Class<?> type = loader.define(binaryName(className), generator.entry(kernel, className));
+
+                Set<String> declared = KernelAnalysis.declaredInCalls(found, kernel);
+                compiled.put(kernel.getFunction(), (CompiledFunction) type
+                        .getConstructor(String[].class, int.class)
+                        .newInstance(declared.toArray(new String[declared.size()]),
+                                kernel.getFunction().getParameters().length));
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+
+            // Generated code the JVM refuses, keep interpreting everything.
+            return 0;
+        }
+
+        for (Map.Entry<FuncNode, CompiledFunction> entry : compiled.entrySet()) {
+            entry.getKey().setCompiled(entry.getValue());
+        }
+        return compiled.size();
+    }
+
+    private static String binaryName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+}
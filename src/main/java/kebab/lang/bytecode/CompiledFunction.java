@@ -0,0 +1,64 @@
+package kebab.lang.bytecode;
+
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+
+/**
+ * Bytecode implementation of a function, subclasses are generated by the
+ * {@link BytecodeCompiler}. A compiled function only handles numeric arguments, any other call
+ * is left to the interpreter.
+ */
+public abstract class CompiledFunction {
+
+    private final String[] declared;
+    private final int parameterCount;
+
+    /**
+     * @param declared       variables declared by the function and the functions it calls.
+     * @param parameterCount parameter count of the function.
+     */
+    protected CompiledFunction(String[] declared, int parameterCount) {
+        this.declared = declared;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Run the function if the call is one it was compiled for.
+     *
+     * @param frame frame of the call with the parameters assigned.
+     * @return returned value or {@code null} if the function has to be interpreted.
+     */
+    public KebabValue execute(Frame frame) {
+        for (int i = 0; i < parameterCount; i++) {
+            if (!frame.get(i).isNumber()) {
+                return null;
+            }
+        }
+
+        // Redeclaring a variable of a caller is an error, which only the interpreter reports.
+        Frame caller = frame.getCaller();
+        for (String name : declared) {
+            if (caller.lookup(name) != null) {
+                return null;
+            }
+        }
+        return call(frame);
+    }
+
+    /**
+     * Unbox the parameters and run the compiled code.
+     *
+     * @param frame frame of the call with the parameters assigned.
+     * @return returned value.
+     */
+    protected abstract KebabValue call(Frame frame);
+
+    /**
+     * Compare numbers the same way {@link KebabValue#equals(Object)} does, called from generated
+     * code.
+     */
+    public static boolean equal(double lhs, double rhs) {
+        return KebabNumber.equal(lhs, rhs);
+    }
+}
@@ -0,0 +1,23 @@
+package kebab.lang.bytecode;
+
+/**
+ * Loads the classes generated for one program, they are unloaded together with the program.
+ */
+class KebabClassLoader extends ClassLoader {
+
+    KebabClassLoader() {
+        super(KebabClassLoader.class.getClassLoader());
+    }
+
+    /**
+     * Define and initialise a generated class.
+     *
+     * @param name     binary class name.
+     * @param bytecode class file contents.
+     * @return loaded class.
+     */
+    Class<?> define(String name, byte[] bytecode) throws ClassNotFoundException {
+        defineClass(name, bytecode, 0, bytecode.length);
+        return Class.forName(name, true, this);
+    }
+}
@@ -0,0 +1,113 @@
+package kebab.lang.bytecode;
+
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A function which can be compiled to bytecode, along with the types inferred for it.
+ */
+class Kernel {
+
+    private final FuncNode function;
+    private final ValueType returnType;
+    private final ValueType[] slotTypes;
+    private final Set<FuncNode> callees;
+    private final Set<String> declared;
+    private final Map<Node, ValueType> types;
+    private String methodName;
+
+    Kernel(FuncNode function, ValueType returnType) {
+        this.function = function;
+        this.returnType = returnType;
+        this.slotTypes = new ValueType[function.getDescriptor().size()];
+        this.callees = new LinkedHashSet<>();
+        this.declared = new LinkedHashSet<>();
+        this.types = new IdentityHashMap<>();
+    }
+
+    /**
+     * Forget the types inferred by a previous pass, parameters are always numbers.
+     */
+    void reset() {
+        for (int i = 0; i < slotTypes.length; i++) {
+            slotTypes[i] = i < function.getParameters().length ? ValueType.NUMBER : null;
+        }
+        callees.clear();
+        declared.clear();
+        types.clear();
+    }
+
+    /**
+     * Remember the type inferred for an expression.
+     *
+     * @return the type.
+     */
+    ValueType setType(Node expression, ValueType type) {
+        if (type != null) {
+            types.put(expression, type);
+        }
+        return type;
+    }
+
+    /**
+     * @return type inferred for an expression of the function.
+     */
+    ValueType typeOf(Node expression) {
+        return types.get(expression);
+    }
+
+    /**
+     * Get the JVM descriptor of the static method implementing the function.
+     *
+     * @return method descriptor.
+     */
+    String getMethodDescriptor() {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (int i = 0; i < function.getParameters().length; i++) {
+            descriptor.append(ValueType.NUMBER.getDescriptor());
+        }
+        return descriptor.append(')').append(returnType.getDescriptor()).toString();
+    }
+
+    FuncNode getFunction() {
+        return function;
+    }
+
+    ValueType getReturnType() {
+        return returnType;
+    }
+
+    /**
+     * @return types of the frame slots, {@code null} for slots the function never uses.
+     */
+    ValueType[] getSlotTypes() {
+        return slotTypes;
+    }
+
+    /**
+     * @return functions called by this function.
+     */
+    Set<FuncNode> getCallees() {
+        return callees;
+    }
+
+    /**
+     * @return variables declared by this function, not including parameters.
+     */
+    Set<String> getDeclared() {
+        return declared;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+}
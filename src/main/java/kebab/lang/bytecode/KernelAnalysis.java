@@ -0,0 +1,364 @@
+package kebab.lang.bytecode;
+
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.expression.AddNode;
+import kebab.lang.node.expression.AndNode;
+import kebab.lang.node.expression.BinaryNode;
+import kebab.lang.node.expression.CallNode;
+import kebab.lang.node.expression.ConstantNode;
+import kebab.lang.node.expression.DivideNode;
+import kebab.lang.node.expression.EqNode;
+import kebab.lang.node.expression.GtEqNode;
+import kebab.lang.node.expression.GtNode;
+import kebab.lang.node.expression.LtEqNode;
+import kebab.lang.node.expression.LtNode;
+import kebab.lang.node.expression.ModulusNode;
+import kebab.lang.node.expression.MultiplyNode;
+import kebab.lang.node.expression.NotEqNode;
+import kebab.lang.node.expression.NotNode;
+import kebab.lang.node.expression.OrNode;
+import kebab.lang.node.expression.PowerNode;
+import kebab.lang.node.expression.SubtractNode;
+import kebab.lang.node.expression.TernaryNode;
+import kebab.lang.node.expression.UnaryMinusNode;
+import kebab.lang.node.expression.VariableNode;
+import kebab.lang.node.scope.LocalVariable;
+import kebab.lang.node.scope.Variable;
+import kebab.lang.node.statement.DeclareNode;
+import kebab.lang.node.statement.IfNode;
+import kebab.lang.node.statement.LoopNode;
+import kebab.lang.node.statement.ReAssignNode;
+import kebab.lang.value.KebabValue;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the functions which can be compiled to bytecode. A function qualifies when it only uses
+ * numbers and booleans, its own variables and calls to other qualifying functions, and when every
+ * path through it ends with {@code _ret}. Parameters are assumed to be numbers, the compiled code
+ * checks that on every call. Memoised functions are left to the node tree, so that their recursive
+ * calls go through the cache.
+ */
+class KernelAnalysis {
+
+    private final Map<FuncNode, Kernel> kernels = new LinkedHashMap<>();
+
+    private KernelAnalysis(Collection<FuncNode> functions) {
+        for (FuncNode function : functions) {
+            if (function.getMemo() == null) {
+                kernels.put(function, new Kernel(function, guessReturnType(function.getBody())));
+            }
+        }
+    }
+
+    /**
+     * Find the functions which can be compiled.
+     *
+     * @param functions all functions of a program.
+     * @return compilable functions with their inferred types.
+     */
+    static Collection<Kernel> analyse(Collection<FuncNode> functions) {
+        KernelAnalysis analysis = new KernelAnalysis(functions);
+
+        // Dropping a function may invalidate its callers, so repeat until nothing changes.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Iterator<Kernel> iterator = analysis.kernels.values().iterator();
+            while (iterator.hasNext()) {
+                Kernel kernel = iterator.next();
+                kernel.reset();
+                if (!analysis.returns(kernel.getFunction().getBody())
+                        || !analysis.statement(kernel, kernel.getFunction().getBody())) {
+
+                    iterator.remove();
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                changed = analysis.dropRedeclarations();
+            }
+        }
+        return analysis.kernels.values();
+    }
+
+    /**
+     * Get the variables declared by a function and every function it may call.
+     *
+     * @param kernels compilable functions.
+     * @param kernel  function to check.
+     * @return declared variable names.
+     */
+    static Set<String> declaredInCalls(Collection<Kernel> kernels, Kernel kernel) {
+        Map<FuncNode, Kernel> byFunction = new LinkedHashMap<>();
+        for (Kernel k : kernels) {
+            byFunction.put(k.getFunction(), k);
+        }
+
+        Set<String> declared = new HashSet<>(kernel.getDeclared());
+        for (FuncNode callee : reachable(byFunction, kernel)) {
+            declared.addAll(byFunction.get(callee).getDeclared());
+        }
+        return declared;
+    }
+
+    /**
+     * Drop functions which declare a variable one of their callers already has, the interpreter
+     * reports those as errors.
+     *
+     * @return true if a function was dropped.
+     */
+    private boolean dropRedeclarations() {
+        for (Kernel kernel : kernels.values()) {
+            Set<String> names = new HashSet<>(kernel.getDeclared());
+            for (String parameter : kernel.getFunction().getParameters()) {
+                names.add(parameter);
+            }
+
+            for (FuncNode callee : reachable(kernels, kernel)) {
+                for (String name : kernels.get(callee).getDeclared()) {
+                    if (names.contains(name)) {
+                        kernels.remove(callee);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find all functions a function may call, directly or through other functions.
+     */
+    private static Set<FuncNode> reachable(Map<FuncNode, Kernel> kernels, Kernel kernel) {
+        Set<FuncNode> reached = new HashSet<>();
+        Deque<FuncNode> pending = new ArrayDeque<>(kernel.getCallees());
+        while (!pending.isEmpty()) {
+            FuncNode function = pending.pop();
+            if (reached.add(function)) {
+                pending.addAll(kernels.get(function).getCallees());
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Functions returning only comparisons return booleans, everything else is expected to
+     * return numbers.
+     */
+    private static ValueType guessReturnType(BlockNode body) {
+        Set<Node> returned = new HashSet<>();
+        collectReturns(body, returned);
+        for (Node node : returned) {
+            if (guessType(node) != ValueType.BOOLEAN) {
+                return ValueType.NUMBER;
+            }
+        }
+        return returned.isEmpty() ? ValueType.NUMBER : ValueType.BOOLEAN;
+    }
+
+    private static void collectReturns(Node node, Set<Node> returned) {
+        if (node instanceof BlockNode && ((BlockNode) node).getReturnExpression() != null) {
+            returned.add(((BlockNode) node).getReturnExpression());
+        }
+        for (Node child : node.getChildren()) {
+            if (child instanceof BlockNode || child instanceof IfNode || child instanceof LoopNode) {
+                collectReturns(child, returned);
+            }
+        }
+    }
+
+    private static ValueType guessType(Node node) {
+        if (node instanceof ConstantNode) {
+            return ((ConstantNode) node).getValue().isBoolean() ? ValueType.BOOLEAN : ValueType.NUMBER;
+        }
+        if (node instanceof GtNode || node instanceof GtEqNode || node instanceof LtNode
+                || node instanceof LtEqNode || node instanceof EqNode || node instanceof NotEqNode
+                || node instanceof AndNode || node instanceof OrNode || node instanceof NotNode) {
+            return ValueType.BOOLEAN;
+        }
+        return ValueType.NUMBER;
+    }
+
+    /**
+     * Check if a block cannot complete without returning.
+     */
+    private boolean returns(BlockNode block) {
+        if (block.getReturnExpression() != null) {
+            return true;
+        }
+        for (Node statement : block.getStatements()) {
+            if (statement instanceof IfNode) {
+                IfNode ifNode = (IfNode) statement;
+                boolean all = ifNode.getElseBlock() != null && returns(ifNode.getElseBlock());
+                for (BlockNode branch : ifNode.getBlocks()) {
+                    all &= returns(branch);
+                }
+                if (all) {
+                    return true;
+                }
+            } else if (statement instanceof LoopNode && isTrue(((LoopNode) statement).getCondition())) {
+
+                // _loop(yes) is only left through _ret.
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a statement can be compiled.
+     */
+    private boolean statement(Kernel kernel, Node node) {
+        if (node instanceof BlockNode) {
+            BlockNode block = (BlockNode) node;
+            for (Node statement : block.getStatements()) {
+                if (!statement(kernel, statement)) {
+                    return false;
+                }
+            }
+            Node returned = block.getReturnExpression();
+            return returned == null || type(kernel, returned) == kernel.getReturnType();
+
+        } else if (node instanceof DeclareNode) {
+            DeclareNode declare = (DeclareNode) node;
+            Node value = declare.getChildren()[0];
+            ValueType type = value == null ? null : type(kernel, value);
+            int slot = declare.getVariable().getSlot();
+            ValueType[] slotTypes = kernel.getSlotTypes();
+            if (type == null || (slotTypes[slot] != null && slotTypes[slot] != type)) {
+                return false;
+            }
+            slotTypes[slot] = type;
+            kernel.getDeclared().add(declare.getVariable().getIdentifier());
+            return true;
+
+        } else if (node instanceof ReAssignNode) {
+            ReAssignNode reAssign = (ReAssignNode) node;
+            ValueType type = variableType(kernel, reAssign.getVariable());
+            return type != null && type == type(kernel, reAssign.getChildren()[0]);
+
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            for (int i = 0; i < ifNode.getConditions().length; i++) {
+                if (type(kernel, ifNode.getConditions()[i]) != ValueType.BOOLEAN
+                        || !statement(kernel, ifNode.getBlocks()[i])) {
+                    return false;
+                }
+            }
+            return ifNode.getElseBlock() == null || statement(kernel, ifNode.getElseBlock());
+
+        } else if (node instanceof LoopNode) {
+            LoopNode loop = (LoopNode) node;
+            return type(kernel, loop.getCondition()) == ValueType.BOOLEAN && statement(kernel, loop.getBody());
+
+        } else if (node instanceof CallNode) {
+            return type(kernel, node) != null;
+        }
+        return false;
+    }
+
+    /**
+     * Infer the type of an expression.
+     *
+     * @return value type or {@code null} if the expression cannot be compiled.
+     */
+    private ValueType type(Kernel kernel, Node node) {
+        return kernel.setType(node, inferType(kernel, node));
+    }
+
+    private ValueType inferType(Kernel kernel, Node node) {
+        if (node instanceof ConstantNode) {
+            KebabValue value = ((ConstantNode) node).getValue();
+            if (value.isNumber()) {
+                return ValueType.NUMBER;
+            }
+            return value.isBoolean() ? ValueType.BOOLEAN : null;
+
+        } else if (node instanceof VariableNode) {
+            return variableType(kernel, ((VariableNode) node).getVariable());
+
+        } else if (node instanceof BinaryNode) {
+            BinaryNode binary = (BinaryNode) node;
+            ValueType lhs = type(kernel, binary.getLhs());
+            ValueType rhs = type(kernel, binary.getRhs());
+            if (lhs == null || lhs != rhs) {
+                return null;
+            }
+            if (node instanceof AddNode || node instanceof SubtractNode || node instanceof MultiplyNode
+                    || node instanceof DivideNode || node instanceof ModulusNode || node instanceof PowerNode) {
+                return lhs == ValueType.NUMBER ? ValueType.NUMBER : null;
+            }
+            if (node instanceof GtNode || node instanceof GtEqNode
+                    || node instanceof LtNode || node instanceof LtEqNode) {
+                return lhs == ValueType.NUMBER ? ValueType.BOOLEAN : null;
+            }
+            if (node instanceof EqNode || node instanceof NotEqNode) {
+                return ValueType.BOOLEAN;
+            }
+            if (node instanceof AndNode || node instanceof OrNode) {
+                return lhs == ValueType.BOOLEAN ? ValueType.BOOLEAN : null;
+            }
+            return null;
+
+        } else if (node instanceof UnaryMinusNode) {
+            return type(kernel, node.getChildren()[0]) == ValueType.NUMBER ? ValueType.NUMBER : null;
+
+        } else if (node instanceof NotNode) {
+            return type(kernel, node.getChildren()[0]) == ValueType.BOOLEAN ? ValueType.BOOLEAN : null;
+
+        } else if (node instanceof TernaryNode) {
+            Node[] children = node.getChildren();
+            ValueType whenTrue = type(kernel, children[1]);
+            if (type(kernel, children[0]) != ValueType.BOOLEAN || whenTrue != type(kernel, children[2])) {
+                return null;
+            }
+            return whenTrue;
+
+        } else if (node instanceof CallNode) {
+            FuncNode function = ((CallNode) node).getFunction();
+            Kernel callee = function == null ? null : kernels.get(function);
+
+            // Optional parameters are evaluated by the interpreter only.
+            Node[] arguments = node.getChildren();
+            if (callee == null || arguments.length != function.getParameters().length) {
+                return null;
+            }
+            for (Node argument : arguments) {
+                if (type(kernel, argument) != ValueType.NUMBER) {
+                    return null;
+                }
+            }
+            kernel.getCallees().add(function);
+            return callee.getReturnType();
+        }
+        return null;
+    }
+
+    /**
+     * Only variables of the function itself can be compiled, others are resolved by name.
+     */
+    private static ValueType variableType(Kernel kernel, Variable variable) {
+        if (variable instanceof LocalVariable) {
+            return kernel.getSlotTypes()[((LocalVariable) variable).getSlot()];
+        }
+        return null;
+    }
+
+    static boolean isTrue(Node node) {
+        if (!node.isConstant()) {
+            return false;
+        }
+        KebabValue value = ((ConstantNode) node).getValue();
+        return value.isBoolean() && value.asBoolean();
+    }
+}
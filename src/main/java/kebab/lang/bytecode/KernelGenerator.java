@@ -0,0 +1,351 @@
+package kebab.lang.bytecode;
+
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.expression.AddNode;
+import kebab.lang.node.expression.AndNode;
+import kebab.lang.node.expression.BinaryNode;
+import kebab.lang.node.expression.CallNode;
+import kebab.lang.node.expression.ConstantNode;
+import kebab.lang.node.expression.DivideNode;
+import kebab.lang.node.expression.EqNode;
+import kebab.lang.node.expression.GtEqNode;
+import kebab.lang.node.expression.GtNode;
+import kebab.lang.node.expression.LtEqNode;
+import kebab.lang.node.expression.LtNode;
+import kebab.lang.node.expression.ModulusNode;
+import kebab.lang.node.expression.MultiplyNode;
+import kebab.lang.node.expression.NotEqNode;
+import kebab.lang.node.expression.NotNode;
+import kebab.lang.node.expression.OrNode;
+import kebab.lang.node.expression.PowerNode;
+import kebab.lang.node.expression.SubtractNode;
+import kebab.lang.node.expression.TailCallNode;
+import kebab.lang.node.expression.TernaryNode;
+import kebab.lang.node.expression.UnaryMinusNode;
+import kebab.lang.node.expression.VariableNode;
+import kebab.lang.node.scope.LocalVariable;
+import kebab.lang.node.statement.DeclareNode;
+import kebab.lang.node.statement.IfNode;
+import kebab.lang.node.statement.LoopNode;
+import kebab.lang.node.statement.ReAssignNode;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.Task;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes the classes of compiled functions. Every function becomes a static method of one script
+ * class working on unboxed doubles and booleans, plus a small {@link CompiledFunction} subclass
+ * which unboxes the parameters of a frame and calls it.
+ */
+class KernelGenerator implements Opcodes {
+
+    static final String SCRIPT = "kebab/compiled/Script";
+
+    private static final String FRAME = "kebab/lang/node/scope/Frame";
+    private static final String VALUE = Type.getInternalName(KebabValue.class);
+    private static final String NUMBER = "kebab/lang/value/KebabNumber";
+    private static final String COMPILED = Type.getInternalName(CompiledFunction.class);
+    private static final String TASK = Type.getInternalName(Task.class);
+
+    private final Map<FuncNode, Kernel> kernels;
+
+    // State of the method being written.
+    private MethodVisitor method;
+    private Kernel kernel;
+    private int[] locals;
+    private Label start;
+
+    KernelGenerator(Map<FuncNode, Kernel> kernels) {
+        this.kernels = kernels;
+    }
+
+    /**
+     * Write the script class holding the static method of every compiled function.
+     *
+     * @return class file contents.
+     */
+    byte[] script() {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, SCRIPT, null, "java/lang/Object", null);
+        for (Kernel kernel : kernels.values()) {
+            this.kernel = kernel;
+            this.locals = allocateLocals(kernel);
+            this.method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, kernel.getMethodName(),
+                    kernel.getMethodDescriptor(), null, null);
+
+            method.visitCode();
+            start = new Label();
+            method.visitLabel(start);
+            statement(kernel.getFunction().getBody());
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Write the {@link CompiledFunction} subclass calling a compiled function.
+     *
+     * @param kernel    compiled function.
+     * @param className internal name of the class.
+     * @return class file contents.
+     */
+    byte[] entry(Kernel kernel, String className) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, COMPILED, null);
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "([Ljava/lang/String;I)V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitVarInsn(ILOAD, 2);
+        constructor.visitMethodInsn(INVOKESPECIAL, COMPILED, "<init>", "([Ljava/lang/String;I)V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor call = writer.visitMethod(ACC_PROTECTED, "call", "(L" + FRAME + ";)L" + VALUE + ";", null, null);
+        call.visitCode();
+        for (int i = 0; i < kernel.getFunction().getParameters().length; i++) {
+            call.visitVarInsn(ALOAD, 1);
+            call.visitLdcInsn(i);
+            call.visitMethodInsn(INVOKEVIRTUAL, FRAME, "get", "(I)L" + VALUE + ";", false);
+            call.visitMethodInsn(INVOKEVIRTUAL, VALUE, "doubleValue", "()D", false);
+        }
+        call.visitMethodInsn(INVOKESTATIC, SCRIPT, kernel.getMethodName(), kernel.getMethodDescriptor(), false);
+        if (kernel.getReturnType() == ValueType.NUMBER) {
+            call.visitMethodInsn(INVOKESTATIC, NUMBER, "valueOf", "(D)L" + NUMBER + ";", false);
+        } else {
+            call.visitMethodInsn(INVOKESTATIC, VALUE, "valueOf", "(Z)L" + VALUE + ";", false);
+        }
+        call.visitInsn(ARETURN);
+        call.visitMaxs(0, 0);
+        call.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Map frame slots to JVM local variables, parameters come first.
+     */
+    private static int[] allocateLocals(Kernel kernel) {
+        ValueType[] types = kernel.getSlotTypes();
+        int[] locals = new int[types.length];
+        int next = 0;
+        for (int slot = 0; slot < types.length; slot++) {
+            locals[slot] = types[slot] == null ? -1 : next;
+            next += types[slot] == null ? 0 : types[slot].getSize();
+        }
+        return locals;
+    }
+
+    private void statement(Node node) {
+        if (node instanceof BlockNode) {
+            BlockNode block = (BlockNode) node;
+            for (Node statement : block.getStatements()) {
+                statement(statement);
+            }
+            if (block.getReturnExpression() instanceof TailCallNode) {
+                tailCall((TailCallNode) block.getReturnExpression());
+            } else if (block.getReturnExpression() != null) {
+                expression(block.getReturnExpression());
+                method.visitInsn(kernel.getReturnType() == ValueType.NUMBER ? DRETURN : IRETURN);
+            }
+
+        } else if (node instanceof DeclareNode) {
+            DeclareNode declare = (DeclareNode) node;
+            expression(declare.getChildren()[0]);
+            store(declare.getVariable());
+
+        } else if (node instanceof ReAssignNode) {
+            ReAssignNode reAssign = (ReAssignNode) node;
+            expression(reAssign.getChildren()[0]);
+            store((LocalVariable) reAssign.getVariable());
+
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            Label end = new Label();
+            for (int i = 0; i < ifNode.getConditions().length; i++) {
+                Label next = new Label();
+                expression(ifNode.getConditions()[i]);
+                method.visitJumpInsn(IFEQ, next);
+                statement(ifNode.getBlocks()[i]);
+                method.visitJumpInsn(GOTO, end);
+                method.visitLabel(next);
+            }
+            if (ifNode.getElseBlock() != null) {
+                statement(ifNode.getElseBlock());
+            }
+            method.visitLabel(end);
+
+        } else if (node instanceof LoopNode) {
+            LoopNode loop = (LoopNode) node;
+            Label start = new Label();
+            Label end = new Label();
+            method.visitLabel(start);
+
+            // _loop(yes) is only left through _ret, the code after it must stay unreachable.
+            if (!KernelAnalysis.isTrue(loop.getCondition())) {
+                expression(loop.getCondition());
+                method.visitJumpInsn(IFEQ, end);
+            }
+            statement(loop.getBody());
+            checkCancelled();
+            method.visitJumpInsn(GOTO, start);
+            method.visitLabel(end);
+
+        } else {
+
+            // A call whose value is not used.
+            expression(node);
+            method.visitInsn(kernel.typeOf(node) == ValueType.NUMBER ? POP2 : POP);
+        }
+    }
+
+    private void expression(Node node) {
+        if (node instanceof ConstantNode) {
+            KebabValue value = ((ConstantNode) node).getValue();
+            if (value.isNumber()) {
+                method.visitLdcInsn(value.doubleValue());
+            } else {
+                method.visitInsn(value.asBoolean() ? ICONST_1 : ICONST_0);
+            }
+
+        } else if (node instanceof VariableNode) {
+            LocalVariable variable = (LocalVariable) ((VariableNode) node).getVariable();
+            method.visitVarInsn(kernel.typeOf(node) == ValueType.NUMBER ? DLOAD : ILOAD, locals[variable.getSlot()]);
+
+        } else if (node instanceof BinaryNode) {
+            binary((BinaryNode) node);
+
+        } else if (node instanceof UnaryMinusNode) {
+            expression(node.getChildren()[0]);
+            method.visitInsn(DNEG);
+
+        } else if (node instanceof NotNode) {
+            expression(node.getChildren()[0]);
+            method.visitInsn(ICONST_1);
+            method.visitInsn(IXOR);
+
+        } else if (node instanceof TernaryNode) {
+            Node[] children = node.getChildren();
+            Label whenFalse = new Label();
+            Label end = new Label();
+            expression(children[0]);
+            method.visitJumpInsn(IFEQ, whenFalse);
+            expression(children[1]);
+            method.visitJumpInsn(GOTO, end);
+            method.visitLabel(whenFalse);
+            expression(children[2]);
+            method.visitLabel(end);
+
+        } else {
+            Kernel callee = kernels.get(((CallNode) node).getFunction());
+            for (Node argument : node.getChildren()) {
+                expression(argument);
+            }
+            method.visitMethodInsn(INVOKESTATIC, SCRIPT, callee.getMethodName(), callee.getMethodDescriptor(), false);
+        }
+    }
+
+    /**
+     * Store the arguments of a call to the function itself in its parameters and jump back to
+     * the start. Recursive kernels never declare variables, so no other local is live.
+     */
+    private void tailCall(TailCallNode call) {
+        Node[] arguments = call.getChildren();
+        for (Node argument : arguments) {
+            expression(argument);
+        }
+        for (int slot = arguments.length - 1; slot >= 0; slot--) {
+            method.visitVarInsn(DSTORE, locals[slot]);
+        }
+        checkCancelled();
+        method.visitJumpInsn(GOTO, start);
+    }
+
+    /**
+     * Stop a cancelled task before jumping back, see {@link Task#checkCancelled()}.
+     */
+    private void checkCancelled() {
+        method.visitMethodInsn(INVOKESTATIC, TASK, "checkCancelled", "()V", false);
+    }
+
+    private void binary(BinaryNode node) {
+
+        // Both operands are evaluated, like the interpreter does for && and || too.
+        expression(node.getLhs());
+        expression(node.getRhs());
+        if (node instanceof AddNode) {
+            method.visitInsn(DADD);
+        } else if (node instanceof SubtractNode) {
+            method.visitInsn(DSUB);
+        } else if (node instanceof MultiplyNode) {
+            method.visitInsn(DMUL);
+        } else if (node instanceof DivideNode) {
+            method.visitInsn(DDIV);
+        } else if (node instanceof ModulusNode) {
+            method.visitInsn(DREM);
+        } else if (node instanceof PowerNode) {
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+        } else if (node instanceof AndNode) {
+            method.visitInsn(IAND);
+        } else if (node instanceof OrNode) {
+            method.visitInsn(IOR);
+        } else if (node instanceof GtNode) {
+            compare(DCMPL, IFLE);
+        } else if (node instanceof GtEqNode) {
+            compare(DCMPL, IFLT);
+        } else if (node instanceof LtNode) {
+            compare(DCMPG, IFGE);
+        } else if (node instanceof LtEqNode) {
+            compare(DCMPG, IFGT);
+        } else {
+            if (kernel.typeOf(node.getLhs()) == ValueType.NUMBER) {
+                method.visitMethodInsn(INVOKESTATIC, COMPILED, "equal", "(DD)Z", false);
+            } else {
+                compare(-1, IF_ICMPNE);
+            }
+            if (node instanceof NotEqNode) {
+                method.visitInsn(ICONST_1);
+                method.visitInsn(IXOR);
+            }
+        }
+    }
+
+    /**
+     * Turn a comparison into a 0 or 1 on the stack.
+     *
+     * @param compare     double comparison instruction, -1 for none.
+     * @param jumpIfFalse jump taken when the comparison fails.
+     */
+    private void compare(int compare, int jumpIfFalse) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        if (compare >= 0) {
+            method.visitInsn(compare);
+        }
+        method.visitJumpInsn(jumpIfFalse, isFalse);
+        method.visitInsn(ICONST_1);
+        method.visitJumpInsn(GOTO, end);
+        method.visitLabel(isFalse);
+        method.visitInsn(ICONST_0);
+        method.visitLabel(end);
+    }
+
+    private void store(LocalVariable variable) {
+        ValueType type = kernel.getSlotTypes()[variable.getSlot()];
+        method.visitVarInsn(type == ValueType.NUMBER ? DSTORE : ISTORE, locals[variable.getSlot()]);
+    }
+}
@@ -0,0 +1,32 @@
+package kebab.lang.bytecode;
+
+/**
+ * Types of values a compiled function keeps unboxed.
+ */
+enum ValueType {
+
+    NUMBER("D", 2),
+    BOOLEAN("Z", 1);
+
+    private final String descriptor;
+    private final int size;
+
+    ValueType(String descriptor, int size) {
+        this.descriptor = descriptor;
+        this.size = size;
+    }
+
+    /**
+     * @return JVM type descriptor.
+     */
+    String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * @return amount of JVM local variable slots a value takes.
+     */
+    int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,22 @@
+package kebab.lang.engine;
+
+/**
+ * Available script execution backends.
+ */
+public enum Backend {
+
+    /**
+     * Walks the ANTLR parse tree directly, kept as the reference interpreter.
+     */
+    VISITOR,
+
+    /**
+     * Lowers the parse tree into a node tree once and evaluates that.
+     */
+    TREE,
+
+    /**
+     * Like {@link #TREE}, with numeric functions compiled to JVM bytecode.
+     */
+    BYTECODE
+}
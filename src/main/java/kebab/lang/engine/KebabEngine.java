@@ -1,23 +1,33 @@
 package kebab.lang.engine;
 
-import kebab.KebabLexer;
-import kebab.KebabParser;
-import kebab.lang.MainKebabVisitor;
 import kebab.lang.Block;
-import kebab.lang.func.KebabFunctionVisitor;
+import kebab.lang.MainKebabVisitor;
+import kebab.lang.func.Func;
+import kebab.lang.func.MemoCache;
+import kebab.lang.input.InputSource;
+import kebab.lang.input.StandardInput;
+import kebab.lang.node.Program;
+import kebab.lang.output.BufferedSink;
+import kebab.lang.output.FlushPolicy;
+import kebab.lang.output.OutputSink;
+import kebab.lang.output.StreamSink;
+import kebab.lang.value.TaskGroup;
+import kebab.util.Assert;
 import org.antlr.v4.runtime.ANTLRFileStream;
+import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.Map;
+import java.util.TreeMap;
 
 public class KebabEngine {
 
-    private final MainKebabVisitor evaluationVisitor;
-    private final KebabFunctionVisitor symbolVisitor;
-    private final KebabParser parser;
-    private final KebabLexer lexer;
-    private final ParseTree tree;
-    private final Block scope;
+    private final ParsedScript script;
+
+    private Backend backend;
+    private OutputSink output;
+    private InputSource input;
+    private FlushPolicy flushPolicy;
 
     /**
      * Main kebab engine constructor from char stream.
@@ -25,25 +35,129 @@ public class KebabEngine {
      * @param charStream input stream of the code.
      */
     private KebabEngine(CharStream charStream) {
-        this.lexer = new KebabLexer(charStream);
-        this.parser = new KebabParser(new CommonTokenStream(lexer));
-        this.parser.setBuildParseTree(true);
+        this(ParsedScript.parse(charStream));
+    }
+
+    /**
+     * Engine running an already parsed script.
+     *
+     * @param script parsed script, shared with other engines.
+     */
+    KebabEngine(ParsedScript script) {
+        this.script = script;
+        this.backend = Backend.TREE;
+        this.input = StandardInput.INSTANCE;
+        this.flushPolicy = FlushPolicy.ON_SIZE;
+    }
 
-        this.tree = parser.parse();
-        this.scope = new Block();
-        this.symbolVisitor = new KebabFunctionVisitor();
-        this.symbolVisitor.visit(tree);
-        this.evaluationVisitor = new MainKebabVisitor(scope, symbolVisitor.getFunctions());
+    /**
+     * Select the backend used to run the script, {@link Backend#TREE} by default.
+     *
+     * @param backend execution backend.
+     * @return this engine.
+     */
+    public KebabEngine backend(Backend backend) {
+        Assert.notNull(backend);
+        this.backend = backend;
+        return this;
+    }
+
+    /**
+     * Select where the script shows values, a buffered sink over {@link System#out} by default.
+     * The sink is flushed at the end of every run and may only be used by one run at a time.
+     *
+     * @param output output sink.
+     * @return this engine.
+     */
+    public KebabEngine output(OutputSink output) {
+        Assert.notNull(output);
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Select where the script reads lines with {@code input()} and {@code lines()},
+     * {@link StandardInput} by default.
+     *
+     * @param input input source.
+     * @return this engine.
+     */
+    public KebabEngine input(InputSource input) {
+        Assert.notNull(input);
+        this.input = input;
+        return this;
     }
 
     /**
-     * Rune the kebab engine!
+     * Select when the default output is written to {@link System#out},
+     * {@link FlushPolicy#ON_SIZE} by default.
+     *
+     * @param flushPolicy flush policy of the default output.
+     * @return this engine.
+     */
+    public KebabEngine flush(FlushPolicy flushPolicy) {
+        Assert.notNull(flushPolicy);
+        this.flushPolicy = flushPolicy;
+        return this;
+    }
+
+    /**
+     * Compile the script into a node tree, the tree is compiled only once per script. With the
+     * {@link Backend#BYTECODE} backend numeric functions of the tree are compiled further.
+     *
+     * @return compiled program.
+     */
+    public Program compile() {
+        return script.compile(backend);
+    }
+
+    /**
+     * Rune the kebab engine! Every run has its own variables and output, so one engine may run
+     * its script from several threads at once. Output of tasks which were never awaited is shown
+     * once the script ends, and the run fails if one of them failed.
      *
      * @return value from the script.
      */
     public Object run() {
-        return this.evaluationVisitor
-                .visit(tree);
+
+        // Each run buffers into its own default sink.
+        OutputSink sink = output != null ? output
+                : new StreamSink(System.out, BufferedSink.DEFAULT_CAPACITY, flushPolicy);
+        if (backend != Backend.VISITOR) {
+            return compile().execute(sink, input);
+        }
+
+        TaskGroup tasks = new TaskGroup();
+        MainKebabVisitor visitor = new MainKebabVisitor(new Block(), script.getFunctions(), sink, input, tasks);
+        Object returned;
+        RuntimeException failure;
+        try {
+            returned = visitor.visit(script.getTree());
+        } finally {
+            failure = tasks.finish(sink);
+            sink.flush();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return returned;
+    }
+
+    /**
+     * Get the result caches of the functions declared with {@code _memo}. Caches belong to the
+     * script, so they are shared by all runs and backends and keep their results between runs.
+     *
+     * @return caches by function identifier, which ends with the count of non-optional parameters
+     * such as {@code fib1}.
+     */
+    public Map<String, MemoCache> memoCaches() {
+        Map<String, MemoCache> caches = new TreeMap<>();
+        for (Func func : script.getFunctions().values()) {
+            if (func.getMemo() != null) {
+                caches.put(func.getIdentifier(), func.getMemo());
+            }
+        }
+        return caches;
     }
 
     /**
@@ -54,4 +168,13 @@ public class KebabEngine {
     public static KebabEngine file(String file) throws Exception {
         return new KebabEngine(new ANTLRFileStream(file));
     }
-}
\ No newline at end of file
+
+    /**
+     * Initialize the kebab engine from source code.
+     *
+     * @param source kebab code.
+     */
+    public static KebabEngine source(String source) {
+        return new KebabEngine(new ANTLRInputStream(source));
+    }
+}
@@ -0,0 +1,117 @@
+package kebab.lang.engine;
+
+import kebab.KebabLexer;
+import kebab.KebabParser;
+import kebab.lang.bytecode.BytecodeCompiler;
+import kebab.lang.func.Func;
+import kebab.lang.func.KebabFunctionVisitor;
+import kebab.lang.node.NodeCompiler;
+import kebab.lang.node.Program;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed script with its function table, and the programs compiled from it. Nothing in here
+ * changes while scripts run, so it can be shared by engines.
+ */
+class ParsedScript {
+
+    // Rough heap cost of a token with its parse tree node.
+    private static final int BYTES_PER_TOKEN = 160;
+
+    private final ParseTree tree;
+    private final Map<String, Func> functions;
+    private final long weight;
+
+    private Program program;
+    private Program bytecodeProgram;
+
+    private ParsedScript(ParseTree tree, Map<String, Func> functions, long weight) {
+        this.tree = tree;
+        this.functions = functions;
+        this.weight = weight;
+    }
+
+    /**
+     * Lex and parse a script and collect its functions.
+     *
+     * @param charStream input stream of the code.
+     * @return parsed script.
+     */
+    static ParsedScript parse(CharStream charStream) {
+        KebabLexer lexer = new KebabLexer(charStream);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        KebabParser parser = new KebabParser(tokens);
+        parser.setDeclaredFunctions(declaredFunctions(tokens));
+        parser.setBuildParseTree(true);
+
+        ParseTree tree = parser.parse();
+        KebabFunctionVisitor symbolVisitor = new KebabFunctionVisitor();
+        symbolVisitor.visit(tree);
+
+        long weight = 2L * charStream.size() + (long) BYTES_PER_TOKEN * tokens.size();
+        return new ParsedScript(tree, symbolVisitor.getFunctions(), weight);
+    }
+
+    /**
+     * Find the names of the functions a script declares before parsing it, they decide whether calls
+     * such as {@code lines()} call the built-in function or the declared one.
+     *
+     * @param tokens tokens of the script, which are all read.
+     * @return names of the declared functions.
+     */
+    private static Set<String> declaredFunctions(CommonTokenStream tokens) {
+        tokens.fill();
+        Set<String> names = new HashSet<>();
+        List<Token> all = tokens.getTokens();
+        for (int i = 0; i + 1 < all.size(); i++) {
+            if (all.get(i).getType() == KebabParser.Func) {
+                names.add(all.get(i + 1).getText());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Get the program compiled for a backend, it is compiled on first use.
+     *
+     * @param backend {@link Backend#BYTECODE} for a program with compiled functions, any other
+     *                backend for the plain node tree.
+     * @return compiled program.
+     */
+    synchronized Program compile(Backend backend) {
+        if (backend == Backend.BYTECODE) {
+            if (bytecodeProgram == null) {
+                bytecodeProgram = NodeCompiler.compile(tree, functions);
+                BytecodeCompiler.compile(bytecodeProgram);
+            }
+            return bytecodeProgram;
+        }
+        if (program == null) {
+            program = NodeCompiler.compile(tree, functions);
+        }
+        return program;
+    }
+
+    ParseTree getTree() {
+        return tree;
+    }
+
+    Map<String, Func> getFunctions() {
+        return functions;
+    }
+
+    /**
+     * @return estimated memory used by the parse tree, in bytes.
+     */
+    long getWeight() {
+        return weight;
+    }
+}
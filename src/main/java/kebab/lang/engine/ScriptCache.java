@@ -0,0 +1,231 @@
+package kebab.lang.engine;
+
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of parsed scripts, so running the same script again skips lexing, parsing, collecting
+ * functions and compiling. Scripts are keyed by a hash of their contents. Files can additionally
+ * be looked up by path and modification time, which avoids reading unchanged files at all.
+ * <p>
+ * The cache is bounded by entry count and by the estimated memory of the parsed scripts, the
+ * least recently used scripts are evicted first. Files are remembered up to the same count, and
+ * forgotten along with their script. It is safe to use from multiple threads.
+ */
+public class ScriptCache {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final boolean trackFiles;
+
+    // Access ordered, guarded by scripts.
+    private final LinkedHashMap<String, ParsedScript> scripts;
+    private final LinkedHashMap<Path, FileStamp> files;
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum amount of cached scripts.
+     * @param maxWeight  maximum estimated memory of cached scripts, in bytes.
+     * @param trackFiles true to trust path and modification time of files, instead of reading
+     *                   and hashing them on every lookup.
+     */
+    public ScriptCache(int maxEntries, long maxWeight, boolean trackFiles) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.trackFiles = trackFiles;
+        this.scripts = new LinkedHashMap<>(16, 0.75f, true);
+        this.files = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get an engine for a script file, parsing the file only if it is not cached.
+     *
+     * @param file file location.
+     * @return new engine sharing the parsed script.
+     */
+    public KebabEngine file(String file) throws IOException {
+        Path path = Paths.get(file).toAbsolutePath();
+        if (!trackFiles) {
+            return source(read(path));
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        FileStamp stamp;
+        synchronized (scripts) {
+            stamp = files.get(path);
+        }
+        if (stamp != null && stamp.matches(attributes)) {
+            ParsedScript script = lookup(stamp.key);
+            if (script != null) {
+                hits.incrementAndGet();
+                return new KebabEngine(script);
+            }
+        }
+
+        String source = read(path);
+        String key = hash(source);
+        ParsedScript script = getOrParse(key, source);
+        synchronized (scripts) {
+            files.put(path, new FileStamp(attributes, key));
+            if (files.size() > maxEntries) {
+                Iterator<FileStamp> eldest = files.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return new KebabEngine(script);
+    }
+
+    /**
+     * Get an engine for source code, parsing the code only if it is not cached.
+     *
+     * @param source kebab code.
+     * @return new engine sharing the parsed script.
+     */
+    public KebabEngine source(String source) {
+        return new KebabEngine(getOrParse(hash(source), source));
+    }
+
+    /**
+     * Drop all cached scripts, counters are kept.
+     */
+    public void clear() {
+        synchronized (scripts) {
+            scripts.clear();
+            files.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (scripts) {
+            return scripts.size();
+        }
+    }
+
+    /**
+     * @return estimated memory of the cached scripts, in bytes.
+     */
+    public long getWeight() {
+        synchronized (scripts) {
+            return weight;
+        }
+    }
+
+    /**
+     * @return amount of files whose modification time is remembered.
+     */
+    int getFileCount() {
+        synchronized (scripts) {
+            return files.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private ParsedScript getOrParse(String key, String source) {
+        ParsedScript script = lookup(key);
+        if (script != null) {
+            hits.incrementAndGet();
+            return script;
+        }
+        misses.incrementAndGet();
+
+        // Parse outside of the lock, a concurrent parse of the same script just loses the race.
+        script = ParsedScript.parse(new ANTLRInputStream(source));
+        synchronized (scripts) {
+            ParsedScript existing = scripts.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            scripts.put(key, script);
+            weight += script.getWeight();
+            evict();
+        }
+        return script;
+    }
+
+    private ParsedScript lookup(String key) {
+        synchronized (scripts) {
+            return scripts.get(key);
+        }
+    }
+
+    /**
+     * Evict least recently used scripts until the cache is within its bounds, the newest script
+     * always stays. Files which were read into an evicted script are forgotten as well.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, ParsedScript>> iterator = scripts.entrySet().iterator();
+        while (scripts.size() > 1 && (scripts.size() > maxEntries || weight > maxWeight)) {
+            Map.Entry<String, ParsedScript> eldest = iterator.next();
+            weight -= eldest.getValue().getWeight();
+            iterator.remove();
+            evictions.incrementAndGet();
+
+            String key = eldest.getKey();
+            files.values().removeIf(stamp -> stamp.key.equals(key));
+        }
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new KebabException("SHA-256 is not available: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Modification time and size of a file when it was last read.
+     */
+    private static class FileStamp {
+
+        private final long modified;
+        private final long size;
+        private final String key;
+
+        FileStamp(BasicFileAttributes attributes, String key) {
+            this.modified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.key = key;
+        }
+
+        boolean matches(BasicFileAttributes attributes) {
+            return modified == attributes.lastModifiedTime().toMillis() && size == attributes.size();
+        }
+    }
+}
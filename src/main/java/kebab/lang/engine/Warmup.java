@@ -0,0 +1,48 @@
+package kebab.lang.engine;
+
+import kebab.lang.output.MemorySink;
+import org.antlr.v4.runtime.ANTLRInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Warms up a JVM by parsing and running a script which touches every rule of the grammar. The
+ * generated lexer and parser share their DFA caches between all instances, so scripts parsed
+ * afterwards mostly follow DFA states which already exist instead of simulating the ATN. Running
+ * the script on every backend loads the classes scripts need, which is also what a class data
+ * sharing archive should hold.
+ * <p>
+ * The DFA states keep the ATN configurations they were computed from and cannot be stored, they
+ * only live as long as the JVM. A server warms up once, a single script run would only pay twice.
+ */
+public final class Warmup {
+
+    // Resource next to this class.
+    private static final String SCRIPT = "warmup.kebab";
+
+    private Warmup() {
+    }
+
+    /**
+     * Parse the warm-up script once and run it on every backend, its output is discarded.
+     */
+    public static void run() throws IOException {
+        ParsedScript script;
+        try (InputStream in = Warmup.class.getResourceAsStream(SCRIPT)) {
+            if (in == null) {
+                throw new IOException("No warm-up script: " + SCRIPT);
+            }
+            script = ParsedScript.parse(new ANTLRInputStream(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+
+        for (Backend backend : Backend.values()) {
+            new KebabEngine(script)
+                    .backend(backend)
+                    .output(new MemorySink())
+                    .run();
+        }
+    }
+}
@@ -4,12 +4,13 @@ import kebab.KebabParser;
 import kebab.lang.Block;
 import kebab.lang.MainKebabVisitor;
 import kebab.lang.value.KebabValue;
-import kebab.lang.value.ReturnValue;
 import kebab.util.KebabException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 public class Func {
 
@@ -19,6 +20,11 @@ public class Func {
 
     private final int realParameterCount;
 
+    private MemoCache memo;
+
+    // Returned expressions which call this function itself.
+    private final Set<KebabParser.ExpressionContext> tailCalls = new HashSet<>();
+
     public Func(List<FuncParameter> parameters,
                 String identifier,
                 ParseTree block,
@@ -33,48 +39,180 @@ public class Func {
     /**
      * Invoke a function.
      *
-     * @param params    function parameters.
-     * @param functions functions that this function refers to.
-     * @param scope     scope of the function.
+     * @param params function parameters.
+     * @param caller visitor of the caller, reused to evaluate the function.
      * @return kebab value.
      */
-    public KebabValue invoke(List<KebabParser.ExpressionContext> params,
-                             Map<String, Func> functions,
-                             Block scope) {
+    public KebabValue invoke(List<KebabParser.ExpressionContext> params, MainKebabVisitor caller) {
 
         if (params.size() > params.size()) {
             throw new KebabException("Invalid parameter count of on function: %s", identifier);
         }
 
+        // Real parameters are evaluated in the scope of the caller.
+        KebabValue[] values = new KebabValue[this.parameters.size()];
+        for (int i = 0; i < params.size(); i++) {
+            values[i] = caller.visit(params.get(i));
+        }
+        return invoke(values, params.size(), caller);
+    }
+
+    /**
+     * Invoke a function with evaluated arguments, as the built-in list functions do.
+     *
+     * @param arguments argument values, optional parameters may be left out.
+     * @param caller    visitor of the caller, reused to evaluate the function.
+     * @return kebab value.
+     */
+    public KebabValue call(KebabValue[] arguments, MainKebabVisitor caller) {
+        KebabValue[] values = new KebabValue[this.parameters.size()];
+        System.arraycopy(arguments, 0, values, 0, arguments.length);
+        return invoke(values, arguments.length, caller);
+    }
+
+    /**
+     * Run a function once its arguments are evaluated.
+     *
+     * @param count amount of evaluated arguments.
+     */
+    private KebabValue invoke(KebabValue[] values, int count, MainKebabVisitor caller) {
+
         // Block of the function.
-        scope = new Block(scope);
+        Block callerScope = caller.getScope();
+        Block scope = new Block(callerScope);
+        Func callerFunction = caller.getFunction();
+        Block callerFunctionScope = caller.getFunctionScope();
+        caller.setScope(scope);
+        caller.setFunction(this, scope);
+        try {
+            assignParams(scope, values, count, caller);
+
+            if (!isCached(callerScope)) {
+                return run(caller);
+            }
+            KebabValue result = memo.get(values);
+            if (result == null) {
+                result = run(caller);
+                memo.put(values, result);
+            }
+            return result;
+        } finally {
+            caller.setScope(callerScope);
+            caller.setFunction(callerFunction, callerFunctionScope);
+        }
+    }
+
+    /**
+     * Check if a returned expression is a call of this function to itself which can reuse the
+     * scope of the running call. While the function has variables of its own declared the call
+     * is made as usual, as the nested call would see them.
+     *
+     * @param expression returned expression.
+     * @param caller     visitor running this function.
+     * @return true if the call can run in the scope of the running call.
+     */
+    public boolean isTailCall(KebabParser.ExpressionContext expression, MainKebabVisitor caller) {
+        return tailCalls.contains(expression) && caller.getScope().isEmptyBelow(caller.getFunctionScope());
+    }
+
+    /**
+     * Assign the arguments of a tail call to the parameters of the running call, the function
+     * then runs again.
+     *
+     * @param expression returned call of this function.
+     * @param caller     visitor running this function.
+     * @return {@link KebabValue#TAIL_CALL}.
+     */
+    public KebabValue reenter(KebabParser.ExpressionContext expression, MainKebabVisitor caller) {
+        KebabParser.IdentifierFunctionCallContext call = KebabFunctionVisitor.callOf(expression);
+        List<KebabParser.ExpressionContext> params = call.expressionList() != null
+                ? call.expressionList().expression()
+                : Collections.emptyList();
+
+        // Arguments see the parameters of the running call, so all are evaluated first.
+        KebabValue[] values = new KebabValue[this.parameters.size()];
+        for (int i = 0; i < params.size(); i++) {
+            values[i] = caller.visit(params.get(i));
+        }
 
-        MainKebabVisitor evaluationVisitor = new MainKebabVisitor(scope, functions);
+        Block scope = caller.getScope();
+        caller.setScope(caller.getFunctionScope());
+        try {
+            assignParams(caller.getFunctionScope(), values, params.size(), caller);
+        } finally {
+            caller.setScope(scope);
+        }
+        return KebabValue.TAIL_CALL;
+    }
 
+    /**
+     * Assign parameters, optional ones are evaluated in the scope of the function.
+     *
+     * @param count amount of evaluated arguments.
+     */
+    private void assignParams(Block scope, KebabValue[] values, int count, MainKebabVisitor caller) {
         for (int i = 0; i < this.parameters.size(); i++) {
 
             FuncParameter virtual = this.parameters.get(i);
 
-            KebabValue value;
-            if (i < params.size()) {
+            // Assign optional parameters.
+            if (i >= count) {
+                values[i] = caller.visit(virtual.getContext());
+            }
+            scope.assignParam(virtual.getIdentifier(), values[i]);
+        }
+    }
 
-                // Assign real parameters.
-                value = evaluationVisitor.visit(params.get(i));
-            } else {
+    /**
+     * Run the body until it returns anything but a tail call.
+     */
+    private KebabValue run(MainKebabVisitor caller) {
+        KebabValue value;
+        do {
+            value = caller.visit(this.block) == KebabValue.RETURN ? caller.takeReturned() : KebabValue.VOID;
+        } while (value == KebabValue.TAIL_CALL);
+        return value;
+    }
 
-                // Assign optional parameters.
-                value = evaluationVisitor.visit(virtual.getContext());
+    /**
+     * Check if a call can use the cache. Declaring a variable the caller already has fails, so such
+     * calls are always run.
+     */
+    private boolean isCached(Block callerScope) {
+        if (memo == null) {
+            return false;
+        }
+        for (String variable : memo.getDeclared()) {
+            if (callerScope.resolve(variable) != null) {
+                return false;
             }
-            scope.assignParam(virtual.getIdentifier(), value);
         }
+        return true;
+    }
 
-        KebabValue value = KebabValue.VOID;
-        try {
-            evaluationVisitor.visit(this.block);
-        } catch (ReturnValue returnValue) {
-            value = returnValue.value;
-        }
-        return value;
+    /**
+     * Cache results of this function, which must be pure.
+     *
+     * @param memo cache shared by all backends.
+     */
+    void memoise(MemoCache memo) {
+        this.memo = memo;
+    }
+
+    /**
+     * @return cache of results, {@code null} if the function is not memoised.
+     */
+    public MemoCache getMemo() {
+        return memo;
+    }
+
+    /**
+     * Run a returned call of this function to itself in the scope of the running call.
+     *
+     * @param expression returned expression.
+     */
+    void addTailCall(KebabParser.ExpressionContext expression) {
+        tailCalls.add(expression);
     }
 
     /**
@@ -85,4 +223,20 @@ public class Func {
     public boolean isPurelyOptional() {
         return realParameterCount == 0;
     }
+
+    public List<FuncParameter> getParameters() {
+        return parameters;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public ParseTree getBlock() {
+        return block;
+    }
+
+    public int getRealParameterCount() {
+        return realParameterCount;
+    }
 }
\ No newline at end of file
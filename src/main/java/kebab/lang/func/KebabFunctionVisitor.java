@@ -4,6 +4,7 @@ import kebab.KebabBaseVisitor;
 import kebab.KebabParser;
 import kebab.lang.value.KebabValue;
 import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 import java.util.*;
@@ -12,8 +13,105 @@ public class KebabFunctionVisitor extends KebabBaseVisitor<KebabValue> {
 
     private final Map<String, Func> functions;
 
+    // Declarations of the functions, to check memoised ones once all are known.
+    private final Map<String, KebabParser.FunctionDeclarationContext> declarations;
+
+    // Parallel loops and built-in calls applying functions in parallel, checked once all
+    // functions are known.
+    private final List<ParserRuleContext> parallel;
+
     public KebabFunctionVisitor() {
         this.functions = new HashMap<>();
+        this.declarations = new HashMap<>();
+        this.parallel = new ArrayList<>();
+    }
+
+    @Override
+    public KebabValue visitParse(KebabParser.ParseContext context) {
+        visitChildren(context);
+
+        Map<String, Purity> checked = new HashMap<>();
+        for (Map.Entry<String, KebabParser.FunctionDeclarationContext> entry : declarations.entrySet()) {
+            KebabParser.MemoContext memo = entry.getValue().memo();
+            if (memo != null) {
+                memoise(functions.get(entry.getKey()), memo, checked);
+            } else {
+
+                // Calls of memoised functions always go through their cache.
+                collectTailCalls(entry.getValue().block(), functions.get(entry.getKey()));
+            }
+        }
+        for (ParserRuleContext construct : parallel) {
+            checkParallel(construct, checked);
+        }
+        return KebabValue.VOID;
+    }
+
+    @Override
+    public KebabValue visitParallelEach(KebabParser.ParallelEachContext context) {
+        parallel.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public KebabValue visitMapFunctionCall(KebabParser.MapFunctionCallContext context) {
+        parallel.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public KebabValue visitFilterFunctionCall(KebabParser.FilterFunctionCallContext context) {
+        parallel.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public KebabValue visitSortFunctionCall(KebabParser.SortFunctionCallContext context) {
+        if (context.identifier() != null) {
+            parallel.add(context);
+        }
+        return visitChildren(context);
+    }
+
+    /**
+     * Get the call of a returned expression.
+     *
+     * @param expression returned expression.
+     * @return call, or {@code null} if the expression is not a call of a function.
+     */
+    static KebabParser.IdentifierFunctionCallContext callOf(KebabParser.ExpressionContext expression) {
+        while (expression instanceof KebabParser.ExpressionExpressionContext
+                && ((KebabParser.ExpressionExpressionContext) expression).indexes() == null) {
+            expression = ((KebabParser.ExpressionExpressionContext) expression).expression();
+        }
+        if (expression instanceof KebabParser.FunctionCallExpressionContext) {
+            KebabParser.FunctionCallExpressionContext call = (KebabParser.FunctionCallExpressionContext) expression;
+            if (call.indexes() == null && call.functionCall() instanceof KebabParser.IdentifierFunctionCallContext) {
+                return (KebabParser.IdentifierFunctionCallContext) call.functionCall();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the {@code _ret} expressions of a function which call the function itself.
+     */
+    private void collectTailCalls(ParseTree tree, Func func) {
+        if (tree instanceof KebabParser.FunctionDeclarationContext
+                || tree instanceof KebabParser.ParallelEachContext) {
+            return;
+        }
+        if (tree instanceof KebabParser.BlockContext) {
+            KebabParser.ExpressionContext returned = ((KebabParser.BlockContext) tree).expression();
+            KebabParser.IdentifierFunctionCallContext call;
+            if (returned != null && (call = callOf(returned)) != null
+                    && func.getIdentifier().equals(resolve(call))) {
+                func.addTailCall(returned);
+            }
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectTailCalls(tree.getChild(i), func);
+        }
     }
 
     @Override
@@ -31,7 +129,7 @@ public class KebabFunctionVisitor extends KebabBaseVisitor<KebabValue> {
             for (KebabParser.ArgumentContext argumentContext : context.argumentList().argument()) {
 
                 KebabParser.ExpressionContext expression = argumentContext.expression();
-                String id = argumentContext.Identifier().getText();
+                String id = argumentContext.identifier().getText();
 
                 if (expression != null) {
                     optionalsStarted = true;
@@ -63,7 +161,7 @@ public class KebabFunctionVisitor extends KebabBaseVisitor<KebabValue> {
 
         // Function name identified.
         String identifier = context
-                .Identifier()
+                .identifier()
                 .getText();
 
         if (realParameterCount > 0) {
@@ -77,10 +175,128 @@ public class KebabFunctionVisitor extends KebabBaseVisitor<KebabValue> {
                 identifier,
                 block,
                 realParameterCount));
+        this.declarations.put(identifier, context);
 
         return KebabValue.VOID;
     }
 
+    /**
+     * Give a function a cache, after checking that it and every function it calls are pure.
+     *
+     * @param checked purity of functions checked so far.
+     */
+    private void memoise(Func func, KebabParser.MemoContext memo, Map<String, Purity> checked) {
+        int capacity = MemoCache.DEFAULT_CAPACITY;
+        if (memo.Number() != null) {
+            double number = Double.parseDouble(memo.Number().getText());
+            if (number < 1 || number > Integer.MAX_VALUE || number != Math.floor(number)) {
+                throw new KebabException(memo.start, "Invalid memo cache size: %s", memo.Number().getText());
+            }
+            capacity = (int) number;
+        }
+
+        // Walk the functions reachable from the memoised one.
+        Set<String> declared = new LinkedHashSet<>();
+        Set<String> reached = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(func.getIdentifier());
+        reached.add(func.getIdentifier());
+        while (!pending.isEmpty()) {
+            String identifier = pending.poll();
+            Purity purity = checked.computeIfAbsent(identifier, id -> new Purity(declarations.get(id)));
+
+            String reason = purity.getReason();
+            if (reason != null) {
+                String subject = identifier.equals(func.getIdentifier())
+                        ? "it"
+                        : "'" + declarations.get(identifier).identifier().getText() + "'";
+                throw new KebabException(memo.start, "Function '%s' cannot be memoised: %s %s",
+                        declarations.get(func.getIdentifier()).identifier().getText(), subject, reason);
+            }
+            declared.addAll(purity.getDeclared());
+
+            for (ParserRuleContext call : purity.getCalls()) {
+                String callee = resolve(call);
+                if (callee != null && reached.add(callee)) {
+                    pending.add(callee);
+                }
+            }
+        }
+        func.memoise(new MemoCache(capacity, declared.toArray(new String[declared.size()])));
+    }
+
+    /**
+     * Check that the body of a parallel loop, or the function applied by a built-in call, and the
+     * functions they call can run on several threads at once: they may read any variable, but
+     * neither show output, read input nor assign variables declared outside of them.
+     *
+     * @param construct parallel loop or built-in call.
+     * @param checked   purity of functions checked so far.
+     */
+    private void checkParallel(ParserRuleContext construct, Map<String, Purity> checked) {
+        String name = "_peach";
+        Deque<ParserRuleContext> pending = new ArrayDeque<>();
+        if (construct instanceof KebabParser.ParallelEachContext) {
+            Purity body = new Purity((KebabParser.ParallelEachContext) construct);
+            String reason = body.getSideEffect();
+            if (reason != null) {
+                throw new KebabException(construct.start, "%s cannot run in parallel: its body %s", name, reason);
+            }
+            pending.addAll(body.getCalls());
+        } else {
+            name = construct.start.getText() + "()";
+            pending.add(construct);
+        }
+
+        // Walk the functions reachable from the body or the applied function.
+        Set<String> reached = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String identifier = resolve(pending.poll());
+            if (identifier == null || !reached.add(identifier)) {
+                continue;
+            }
+            Purity purity = checked.computeIfAbsent(identifier, id -> new Purity(declarations.get(id)));
+
+            String reason = purity.getSideEffect();
+            if (reason != null) {
+                throw new KebabException(construct.start, "%s cannot run in parallel: '%s' %s", name,
+                        declarations.get(identifier).identifier().getText(), reason);
+            }
+            pending.addAll(purity.getCalls());
+        }
+    }
+
+    /**
+     * Find the function a call, or a built-in call passing a function by name, is resolved to when
+     * it runs.
+     *
+     * @return identifier of the function, {@code null} if no function matches the call.
+     */
+    private String resolve(ParserRuleContext call) {
+        String identifier = call.getRuleContext(KebabParser.IdentifierContext.class, 0).getText();
+        int count;
+        if (call instanceof KebabParser.IdentifierFunctionCallContext) {
+            KebabParser.ExpressionListContext arguments =
+                    ((KebabParser.IdentifierFunctionCallContext) call).expressionList();
+            count = arguments == null ? 0 : arguments.expression().size();
+        } else if (call instanceof KebabParser.MapFunctionCallContext
+                || call instanceof KebabParser.FilterFunctionCallContext) {
+            count = 1;
+        } else {
+
+            // reduce() and sort() pass two values.
+            count = 2;
+        }
+
+        Func func;
+        if (functions.containsKey(identifier + count)) {
+            return identifier + count;
+        } else if ((func = functions.get(identifier)) != null && func.isPurelyOptional()) {
+            return identifier;
+        }
+        return null;
+    }
+
     /**
      * Get functions of symbol visitor.
      *
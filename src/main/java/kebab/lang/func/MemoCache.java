@@ -0,0 +1,188 @@
+package kebab.lang.func;
+
+import kebab.lang.value.KebabValue;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results of a memoised function by the values of its arguments. The cache of a function is
+ * shared by every run of its script on every backend, which is safe as memoised functions are
+ * pure. It is bounded by entry count, the least recently used results are evicted first, and it is
+ * safe to use from multiple threads.
+ * <p>
+ * Arguments match when they are equal values. Unlike {@code ==}, number arguments must be exactly
+ * equal, so a cached result is the one the function would return. Calls with sequence arguments,
+ * which are consumed by iterating them, are never cached.
+ */
+public class MemoCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final String[] declared;
+
+    // Access ordered, guarded by itself.
+    private final LinkedHashMap<Arguments, KebabValue> results;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param capacity maximum amount of cached results.
+     * @param declared variables declared by the function and the functions it calls.
+     */
+    public MemoCache(int capacity, String[] declared) {
+        this.capacity = capacity;
+        this.declared = declared;
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get the result of an earlier call.
+     *
+     * @param arguments argument values of the call.
+     * @return cached result or {@code null} if the call has to be run.
+     */
+    public KebabValue get(KebabValue[] arguments) {
+        if (!isCacheable(arguments)) {
+            return null;
+        }
+
+        KebabValue result;
+        synchronized (results) {
+            result = results.get(new Arguments(arguments));
+        }
+        if (result != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Cache the result of a call.
+     *
+     * @param arguments argument values of the call.
+     * @param result    returned value.
+     */
+    public void put(KebabValue[] arguments, KebabValue result) {
+        if (!isCacheable(arguments)) {
+            return;
+        }
+
+        synchronized (results) {
+            results.put(new Arguments(arguments), result);
+            Iterator<KebabValue> iterator = results.values().iterator();
+            while (results.size() > capacity) {
+                iterator.next();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Drop all cached results, counters are kept.
+     */
+    public void clear() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    /**
+     * Get the variables declared by the function and the functions it calls. A call from a
+     * function having such a variable fails, so it is not looked up.
+     *
+     * @return declared variable names.
+     */
+    public String[] getDeclared() {
+        return declared;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static boolean isCacheable(KebabValue[] arguments) {
+        for (KebabValue argument : arguments) {
+            if (argument.isSequence()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Argument values compared exactly.
+     */
+    private static final class Arguments {
+
+        private final KebabValue[] values;
+        private final int hash;
+
+        Arguments(KebabValue[] values) {
+            this.values = values;
+            int hash = 1;
+            for (KebabValue value : values) {
+                hash = 31 * hash + (value.isNumber() ? Double.hashCode(value.doubleValue()) : value.hashCode());
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Arguments)) {
+                return false;
+            }
+            KebabValue[] that = ((Arguments) other).values;
+            if (that.length != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (!same(values[i], that[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean same(KebabValue lhs, KebabValue rhs) {
+            if (lhs == rhs) {
+                return true;
+            }
+            if (lhs.isNumber() || rhs.isNumber()) {
+                return lhs.isNumber() && rhs.isNumber()
+                        && Double.doubleToLongBits(lhs.doubleValue()) == Double.doubleToLongBits(rhs.doubleValue());
+            }
+            return !lhs.isVoid() && !rhs.isVoid() && lhs.equals(rhs);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package kebab.lang.func;
+
+import kebab.KebabBaseVisitor;
+import kebab.KebabParser;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks if a function only works with its own variables. Scoping is dynamic, so a function which
+ * reads or assigns any other variable depends on its callers. Declarations of nested functions are
+ * checked on their own, calls are collected so the called functions can be checked as well.
+ * <p>
+ * The body of a {@code _peach} loop is checked the same way, with the loop variable in place of the
+ * parameters.
+ */
+class Purity extends KebabBaseVisitor<Void> {
+
+    private final Set<String> parameters = new HashSet<>();
+    private final Set<String> declared = new LinkedHashSet<>();
+
+    // Calls of other functions, and built-in calls passing them by name, which are checked as well.
+    private final List<ParserRuleContext> calls = new ArrayList<>();
+
+    private final List<String> read = new ArrayList<>();
+    private final List<String> assigned = new ArrayList<>();
+
+    // Where the variables which are not its own come from.
+    private final String outside;
+
+    private String reason;
+
+    Purity(KebabParser.FunctionDeclarationContext context) {
+        outside = "of its callers";
+        if (context.argumentList() != null) {
+            for (KebabParser.ArgumentContext argument : context.argumentList().argument()) {
+                parameters.add(argument.identifier().getText());
+                if (argument.expression() != null) {
+                    visit(argument.expression());
+                }
+            }
+        }
+        visit(context.block());
+    }
+
+    Purity(KebabParser.ParallelEachContext context) {
+        outside = "outside of the loop";
+        parameters.add(context.identifier().getText());
+        visit(context.block());
+    }
+
+    /**
+     * Get why the function is not pure, phrased to follow the name of the function.
+     *
+     * @return reason, or {@code null} if the function is pure apart from the functions it calls.
+     */
+    String getReason() {
+        if (reason != null) {
+            return reason;
+        }
+        for (String variable : read) {
+            if (!isOwn(variable)) {
+                return String.format("uses variable '%s' %s", variable, outside);
+            }
+        }
+        return getSideEffect();
+    }
+
+    /**
+     * Get why the code cannot run on several threads at once. Unlike {@link #getReason()}, reading
+     * other variables is fine as nothing assigns them meanwhile.
+     *
+     * @return reason, or {@code null} if the code has no side effects apart from the functions it
+     * calls.
+     */
+    String getSideEffect() {
+        if (reason != null) {
+            return reason;
+        }
+        for (String variable : assigned) {
+            if (!isOwn(variable)) {
+                return String.format("assigns variable '%s' %s", variable, outside);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return variables declared with {@code keb} or by a loop.
+     */
+    Set<String> getDeclared() {
+        return declared;
+    }
+
+    List<ParserRuleContext> getCalls() {
+        return calls;
+    }
+
+    @Override
+    public Void visitFunctionDeclaration(KebabParser.FunctionDeclarationContext context) {
+        return null;
+    }
+
+    @Override
+    public Void visitShowFunctionCall(KebabParser.ShowFunctionCallContext context) {
+        reason = "shows output";
+        return null;
+    }
+
+    @Override
+    public Void visitShowLineFunctionCall(KebabParser.ShowLineFunctionCallContext context) {
+        reason = "shows output";
+        return null;
+    }
+
+    @Override
+    public Void visitInputExpression(KebabParser.InputExpressionContext context) {
+        reason = "reads input";
+        return null;
+    }
+
+    @Override
+    public Void visitLinesExpression(KebabParser.LinesExpressionContext context) {
+        reason = "reads input";
+        return null;
+    }
+
+    @Override
+    public Void visitSpawn(KebabParser.SpawnContext context) {
+        reason = "spawns a task";
+        return null;
+    }
+
+    @Override
+    public Void visitAwaitFunctionCall(KebabParser.AwaitFunctionCallContext context) {
+        reason = "awaits a task";
+        return null;
+    }
+
+    @Override
+    public Void visitChannelFunctionCall(KebabParser.ChannelFunctionCallContext context) {
+        reason = "creates a channel";
+        return null;
+    }
+
+    @Override
+    public Void visitSendFunctionCall(KebabParser.SendFunctionCallContext context) {
+        reason = "uses a channel";
+        return null;
+    }
+
+    @Override
+    public Void visitReceiveFunctionCall(KebabParser.ReceiveFunctionCallContext context) {
+        reason = "uses a channel";
+        return null;
+    }
+
+    @Override
+    public Void visitCloseFunctionCall(KebabParser.CloseFunctionCallContext context) {
+        reason = "uses a channel";
+        return null;
+    }
+
+    @Override
+    public Void visitIdentifierFunctionCall(KebabParser.IdentifierFunctionCallContext context) {
+        calls.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitMapFunctionCall(KebabParser.MapFunctionCallContext context) {
+        calls.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitFilterFunctionCall(KebabParser.FilterFunctionCallContext context) {
+        calls.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitReduceFunctionCall(KebabParser.ReduceFunctionCallContext context) {
+        calls.add(context);
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitSortFunctionCall(KebabParser.SortFunctionCallContext context) {
+        if (context.identifier() != null) {
+            calls.add(context);
+        }
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitIdentifierExpression(KebabParser.IdentifierExpressionContext context) {
+        read.add(context.identifier().getText());
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitAssignment(KebabParser.AssignmentContext context) {
+        String variable = context.identifier().getText();
+        if (context.indexes() == null) {
+            declared.add(variable);
+        } else {
+            assigned.add(variable);
+        }
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitReAssignment(KebabParser.ReAssignmentContext context) {
+        assigned.add(context.identifier().getText());
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitEachLoopStatement(KebabParser.EachLoopStatementContext context) {
+        declared.add(context.identifier().getText());
+        return visitChildren(context);
+    }
+
+    @Override
+    public Void visitParallelEach(KebabParser.ParallelEachContext context) {
+        declared.add(context.identifier().getText());
+        return visitChildren(context);
+    }
+
+    private boolean isOwn(String variable) {
+        return parameters.contains(variable) || declared.contains(variable);
+    }
+}
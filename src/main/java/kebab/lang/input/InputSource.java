@@ -0,0 +1,27 @@
+package kebab.lang.input;
+
+import kebab.lang.value.KebabValue;
+
+/**
+ * Source of the lines a script reads with {@code input()} and {@code lines()}. A source is used by
+ * one execution at a time, {@link StandardInput} by default.
+ */
+public interface InputSource {
+
+    /**
+     * Read the next line, {@code input()}.
+     *
+     * @return line without the separator or {@code null} at the end of input.
+     */
+    String readLine();
+
+    /**
+     * Get the remaining lines as a lazy sequence, {@code lines()}. Lines consumed by one loop are
+     * gone for the next one.
+     *
+     * @return lines of this source.
+     */
+    default Iterable<KebabValue> lines() {
+        return new SourceLines(this);
+    }
+}
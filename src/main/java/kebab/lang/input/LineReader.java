@@ -0,0 +1,83 @@
+package kebab.lang.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Reader splitting a byte stream into lines before decoding them, which skips the per character
+ * work of a {@link java.io.Reader}. Lines are separated by {@code \n} or {@code \r\n} like lines of
+ * {@link MappedLines}.
+ */
+class LineReader {
+
+    private final InputStream stream;
+    private final Charset charset = Charset.defaultCharset();
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    LineReader(InputStream stream, int size) {
+        this.stream = stream;
+        this.buffer = new byte[size];
+    }
+
+    /**
+     * Read the next line.
+     *
+     * @return line without the separator or {@code null} at the end of the stream.
+     */
+    String readLine() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    String line = decode(position, i);
+                    position = i + 1;
+                    return line;
+                }
+            }
+            int unread = limit - position;
+
+            if (!fill()) {
+                if (position == limit) {
+                    return null;
+                }
+                String line = decode(position, limit);
+                position = limit;
+                return line;
+            }
+
+            // Unread bytes were moved to the start of the buffer, and are known to have no separator.
+            scanned = unread;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int unread = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, unread);
+        } else if (unread == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, unread);
+            buffer = grown;
+        }
+        position = 0;
+        limit = unread;
+
+        int read = stream.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        return new String(buffer, start, end - start, charset);
+    }
+}
@@ -0,0 +1,131 @@
+package kebab.lang.input;
+
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lines of a file, {@code lines('path')}. The file is memory mapped a region at a time and each
+ * line is decoded only when the loop reaches it, so iterating a file takes constant memory no
+ * matter how large the file is. Every iteration reads the file again from the start.
+ */
+public class MappedLines implements Iterable<KebabValue> {
+
+    static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    private final Path path;
+
+    public MappedLines(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public Iterator<KebabValue> iterator() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new LineIterator(channel.size());
+        } catch (IOException e) {
+            throw new KebabException("Cannot read '%s': %s", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "lines('" + path + "')";
+    }
+
+    /**
+     * Iterator over lines separated by {@code \n} or {@code \r\n}, a trailing separator does not
+     * start another line.
+     */
+    private class LineIterator implements Iterator<KebabValue> {
+
+        private final long size;
+        private final Charset charset = Charset.defaultCharset();
+
+        private MappedByteBuffer region;
+        private long regionStart;
+        private long position;
+        private byte[] line = new byte[256];
+
+        LineIterator(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < size;
+        }
+
+        @Override
+        public KebabValue next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            int length = REGION_SIZE;
+            while (true) {
+                if (region == null || position >= regionStart + region.limit()) {
+                    map(position, length);
+                }
+
+                int start = (int) (position - regionStart);
+                int limit = region.limit();
+                int end = start;
+                while (end < limit && region.get(end) != '\n') {
+                    end++;
+                }
+
+                if (end < limit) {
+                    position = regionStart + end + 1;
+                    return decode(start, end);
+                }
+                if (regionStart + limit == size) {
+                    position = size;
+                    return decode(start, end);
+                }
+
+                // Line continues past the region, map again from its start, larger if needed.
+                if (start == 0) {
+                    if (length > Integer.MAX_VALUE / 2) {
+                        throw new KebabException("Line of '%s' at byte %d is too long", path, position);
+                    }
+                    length *= 2;
+                }
+                map(position, length);
+            }
+        }
+
+        private void map(long start, int length) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+                // The mapping stays valid once the channel is closed.
+                region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+                regionStart = start;
+            } catch (IOException e) {
+                throw new KebabException("Cannot read '%s': %s", path, e.getMessage());
+            }
+        }
+
+        private KebabValue decode(int start, int end) {
+            if (end > start && region.get(end - 1) == '\r') {
+                end--;
+            }
+
+            int length = end - start;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            region.position(start);
+            region.get(line, 0, length);
+            return new KebabValue(new String(line, 0, length, charset));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package kebab.lang.input;
+
+import kebab.lang.value.KebabValue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Sequence reading an input source as it is iterated.
+ */
+final class SourceLines implements Iterable<KebabValue> {
+
+    private final InputSource source;
+
+    SourceLines(InputSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public Iterator<KebabValue> iterator() {
+        return new Iterator<KebabValue>() {
+
+            // Lines are read only when asked for, a loop left early leaves the rest unread.
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = source.readLine();
+                }
+                return next != null;
+            }
+
+            @Override
+            public KebabValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                KebabValue line = new KebabValue(next);
+                next = null;
+                return line;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "lines()";
+    }
+}
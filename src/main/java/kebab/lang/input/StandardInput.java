@@ -0,0 +1,41 @@
+package kebab.lang.input;
+
+import kebab.util.KebabException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Standard input shared by all scripts of the process. A single large-buffered reader is kept for
+ * {@link System#in}, so bytes read ahead by one {@code input()} are still there for the next one.
+ */
+public final class StandardInput implements InputSource {
+
+    public static final StandardInput INSTANCE = new StandardInput();
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static InputStream stream;
+    private static LineReader reader;
+
+    private StandardInput() {
+    }
+
+    @Override
+    public String readLine() {
+        synchronized (StandardInput.class) {
+            if (stream != System.in) {
+
+                // Standard input was replaced, start reading the new one.
+                stream = System.in;
+                reader = new LineReader(stream, BUFFER_SIZE);
+            }
+
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new KebabException("Cannot read standard input: %s", e.getMessage());
+            }
+        }
+    }
+}
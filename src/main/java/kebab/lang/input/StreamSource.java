@@ -0,0 +1,28 @@
+package kebab.lang.input;
+
+import kebab.util.KebabException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Source reading lines from any input stream, such as the standard input a client of the server
+ * forwards.
+ */
+public class StreamSource implements InputSource {
+
+    private final LineReader reader;
+
+    public StreamSource(InputStream stream) {
+        this.reader = new LineReader(stream, StandardInput.BUFFER_SIZE);
+    }
+
+    @Override
+    public synchronized String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new KebabException("Cannot read input: %s", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package kebab.lang.node;
+
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Code block - scope. Variables of a block live in the frame of the enclosing function, so
+ * entering a block allocates nothing, leaving it clears the slots it declared.
+ * <p>
+ * A block ending with {@code _ret} stores the value in the frame and completes with
+ * {@link KebabValue#RETURN}, statements containing blocks pass that completion on until it
+ * reaches the function.
+ * <pre>
+ * block
+ *  : (statement | functionDeclaration)* (Return expression)?
+ *  ;
+ * </pre>
+ */
+public class BlockNode extends Node {
+
+    private final Node[] statements;
+    private final Node returnExpression;
+    private final int[] declared;
+
+    public BlockNode(ParserRuleContext context, Node[] statements, Node returnExpression, int[] declared) {
+        super(context);
+        this.statements = statements;
+        this.returnExpression = returnExpression;
+        this.declared = declared;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        for (Node statement : statements) {
+            if (statement.execute(frame) == KebabValue.RETURN) {
+                return KebabValue.RETURN;
+            }
+        }
+        if (returnExpression != null) {
+            frame.setReturned(returnExpression.execute(frame));
+            return KebabValue.RETURN;
+        }
+
+        // Local variables are gone once the block is left.
+        for (int slot : declared) {
+            frame.clear(slot);
+        }
+        return KebabValue.VOID;
+    }
+
+    public Node[] getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return expression of the {@code _ret} ending the block, {@code null} if there is none.
+     */
+    public Node getReturnExpression() {
+        return returnExpression;
+    }
+
+    @Override
+    protected String describe() {
+
+        // The last child is the returned expression.
+        return returnExpression != null ? "_ret" : "";
+    }
+
+    @Override
+    public Node[] getChildren() {
+        Node[] children = new Node[statements.length + 1];
+        System.arraycopy(statements, 0, children, 0, statements.length);
+        children[statements.length] = returnExpression;
+        return children;
+    }
+}
@@ -0,0 +1,251 @@
+package kebab.lang.node;
+
+import kebab.lang.bytecode.CompiledFunction;
+import kebab.lang.func.MemoCache;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.FrameDescriptor;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.Task;
+
+/**
+ * Compiled counterpart of {@link kebab.lang.func.Func}.
+ */
+public class FuncNode {
+
+    private final String identifier;
+    private final String[] parameters;
+    private final Node[] defaults;
+    private final int realParameterCount;
+    private final MemoCache memo;
+    private FrameDescriptor descriptor;
+    private BlockNode body;
+    private CompiledFunction compiled;
+
+    public FuncNode(String identifier,
+                    String[] parameters,
+                    int realParameterCount,
+                    MemoCache memo) {
+
+        this.identifier = identifier;
+        this.parameters = parameters;
+        this.defaults = new Node[parameters.length];
+        this.realParameterCount = realParameterCount;
+        this.memo = memo;
+    }
+
+    /**
+     * Invoke a function.
+     *
+     * @param arguments argument expressions, evaluated in the caller frame.
+     * @param caller    frame of the caller.
+     * @return kebab value.
+     */
+    public KebabValue invoke(Node[] arguments, Frame caller) {
+
+        // Frame of the function, parameters take the first slots.
+        Frame frame = caller.push(descriptor);
+        try {
+
+            // Assign real parameters.
+            for (int i = 0; i < arguments.length; i++) {
+                frame.set(i, arguments[i].execute(caller));
+            }
+            return enter(frame, arguments.length, caller);
+        } finally {
+            frame.pop();
+        }
+    }
+
+    /**
+     * Invoke a function with evaluated arguments, as the built-in list functions do.
+     *
+     * @param arguments argument values, optional parameters may be left out.
+     * @param caller    frame of the caller.
+     * @return kebab value.
+     */
+    public KebabValue call(KebabValue[] arguments, Frame caller) {
+        Frame frame = caller.push(descriptor);
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                frame.set(i, arguments[i]);
+            }
+            return enter(frame, arguments.length, caller);
+        } finally {
+            frame.pop();
+        }
+    }
+
+    /**
+     * Run a call once its real parameters are assigned.
+     *
+     * @param count amount of assigned parameters.
+     */
+    private KebabValue enter(Frame frame, int count, Frame caller) {
+
+        // Assign optional parameters.
+        for (int i = count; i < parameters.length; i++) {
+            frame.set(i, defaults[i].execute(frame));
+        }
+
+        if (!isCached(caller)) {
+            return run(frame);
+        }
+        KebabValue[] values = new KebabValue[parameters.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = frame.get(i);
+        }
+        KebabValue result = memo.get(values);
+        if (result == null) {
+            result = run(frame);
+            memo.put(values, result);
+        }
+        return result;
+    }
+
+    /**
+     * Run the body until it returns anything but a tail call.
+     */
+    private KebabValue run(Frame frame) {
+        KebabValue value;
+        do {
+
+            // Compiled functions reject arguments they were not compiled for.
+            if (compiled != null && (value = compiled.execute(frame)) != null) {
+                return value;
+            }
+
+            value = body.execute(frame) == KebabValue.RETURN ? frame.takeReturned() : KebabValue.VOID;
+            if (value == KebabValue.TAIL_CALL) {
+                Task.checkCancelled();
+            }
+        } while (value == KebabValue.TAIL_CALL);
+        return value;
+    }
+
+    /**
+     * Check if a call of this function has declared variables other than its parameters.
+     *
+     * @param frame frame of the call.
+     * @return true if a variable is declared.
+     */
+    public boolean hasLocals(Frame frame) {
+        for (int slot = parameters.length; slot < descriptor.size(); slot++) {
+            if (frame.get(slot) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set the parameters of a call for a tail call of this function to itself, the body is then
+     * run again by the call.
+     *
+     * @param frame     frame of the call, without declared variables.
+     * @param arguments evaluated arguments of the tail call.
+     */
+    public void reenter(Frame frame, KebabValue[] arguments) {
+        for (int i = 0; i < parameters.length; i++) {
+            frame.set(i, i < arguments.length ? arguments[i] : defaults[i].execute(frame));
+        }
+    }
+
+    /**
+     * Check if a call can use the cache. Declaring a variable the caller already has fails, so such
+     * calls are always run.
+     */
+    private boolean isCached(Frame caller) {
+        if (memo == null) {
+            return false;
+        }
+        for (String name : memo.getDeclared()) {
+            if (caller.lookup(name) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if function has only optional params.
+     *
+     * @return true if function has only optional params.
+     */
+    public boolean isPurelyOptional() {
+        return realParameterCount == 0;
+    }
+
+    /**
+     * Write the function signature, optional parameter values and body as an indented tree.
+     *
+     * @param out output to write to.
+     */
+    public void dump(StringBuilder out) {
+        out.append("_func ")
+                .append(identifier)
+                .append('(')
+                .append(String.join(", ", parameters))
+                .append(')')
+                .append(compiled != null ? " [bytecode]" : "")
+                .append(memo != null ? " [memo]" : "")
+                .append(System.lineSeparator());
+
+        for (Node value : defaults) {
+            if (value != null) {
+                value.dump(out, 1);
+            }
+        }
+        body.dump(out, 1);
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public String[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return expressions of optional parameter values, {@code null} for real parameters.
+     */
+    public Node[] getDefaults() {
+        return defaults;
+    }
+
+    public FrameDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    public BlockNode getBody() {
+        return body;
+    }
+
+    /**
+     * @return cache of results, {@code null} if the function is not memoised.
+     */
+    public MemoCache getMemo() {
+        return memo;
+    }
+
+    /**
+     * Attach a bytecode implementation of the function, used whenever it accepts the arguments.
+     *
+     * @param compiled compiled function.
+     */
+    public void setCompiled(CompiledFunction compiled) {
+        this.compiled = compiled;
+    }
+
+    void setDefault(int index, Node value) {
+        this.defaults[index] = value;
+    }
+
+    void setDescriptor(FrameDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    void setBody(BlockNode body) {
+        this.body = body;
+    }
+}
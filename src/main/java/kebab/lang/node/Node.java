@@ -0,0 +1,109 @@
+package kebab.lang.node;
+
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * A node of the compiled kebab tree. Nodes are created once by the {@link NodeCompiler} with all
+ * of their children and literals resolved, so evaluating them does not touch the parse tree.
+ */
+public abstract class Node {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    protected final ParserRuleContext context;
+
+    protected Node(ParserRuleContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Evaluate this node.
+     *
+     * @param frame frame to evaluate the node in.
+     * @return evaluated value, {@link KebabValue#VOID} for statements.
+     */
+    public abstract KebabValue execute(Frame frame);
+
+    /**
+     * Check if this node always evaluates to the same value.
+     *
+     * @return true for literals and folded expressions.
+     */
+    public boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * Check if this node can be evaluated at compile time, which is the case for side effect free
+     * nodes whose children are all constant.
+     *
+     * @return true if the node can be replaced by its value.
+     */
+    public boolean isFoldable() {
+        return false;
+    }
+
+    /**
+     * Get child nodes, used for dumping and walking the tree.
+     *
+     * @return child nodes, some of which might be {@code null}.
+     */
+    public Node[] getChildren() {
+        return NO_CHILDREN;
+    }
+
+    /**
+     * Describe node specific details, such as a variable name, in a tree dump.
+     *
+     * @return node details.
+     */
+    protected String describe() {
+        return "";
+    }
+
+    /**
+     * Write this node and its children as an indented tree.
+     *
+     * @param out   output to write to.
+     * @param depth indentation depth of this node.
+     */
+    public void dump(StringBuilder out, int depth) {
+        for (int i = 0; i < depth; i++) {
+            out.append("  ");
+        }
+        out.append(getClass().getSimpleName());
+
+        String details = describe();
+        if (!details.isEmpty()) {
+            out.append(' ').append(details);
+        }
+        out.append(System.lineSeparator());
+
+        for (Node child : getChildren()) {
+            if (child != null) {
+                child.dump(out, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Get the parse tree context this node was compiled from.
+     *
+     * @return source context of the node.
+     */
+    public ParserRuleContext getContext() {
+        return context;
+    }
+
+    /**
+     * Create an illegal expression exception pointing at this node.
+     *
+     * @return exception to throw.
+     */
+    protected KebabException error() {
+        return new KebabException(context);
+    }
+}
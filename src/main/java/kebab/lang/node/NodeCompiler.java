@@ -0,0 +1,620 @@
+package kebab.lang.node;
+
+import kebab.KebabBaseVisitor;
+import kebab.KebabParser;
+import kebab.lang.func.Func;
+import kebab.lang.func.FuncParameter;
+import kebab.lang.node.expression.*;
+import kebab.lang.node.scope.*;
+import kebab.lang.node.statement.*;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.*;
+
+/**
+ * Lowers a kebab parse tree into a {@link Node} tree. All child lookups, literal parsing and
+ * string escaping happen here once instead of on every evaluation, and side effect free
+ * expressions made of constants, such as {@code 2 ^ 10} or {@code 'ab' * 3}, are folded.
+ * <p>
+ * Variables are resolved to frame slots while compiling. Functions see the variables of their
+ * callers, so a name which is not declared in the function itself is resolved to a global slot
+ * if no function declares such a variable, or looked up through the callers at runtime otherwise.
+ */
+public class NodeCompiler extends KebabBaseVisitor<Node> {
+
+    private static final String BOOL_TRUE = "yes";
+
+    private final Map<String, FuncNode> functions;
+    private final Set<String> functionVariables;
+    private final VariableNames names;
+    private final FrameDescriptor global;
+
+    private boolean inFunction;
+    private FuncNode function;
+    private Scope scope;
+
+    private NodeCompiler() {
+        this.functions = new HashMap<>();
+        this.functionVariables = new HashSet<>();
+        this.names = new VariableNames();
+        this.global = new FrameDescriptor(names);
+    }
+
+    /**
+     * Compile a parsed script.
+     *
+     * @param tree      parse tree of the script.
+     * @param functions functions collected by {@link kebab.lang.func.KebabFunctionVisitor}.
+     * @return executable program.
+     */
+    public static Program compile(ParseTree tree, Map<String, Func> functions) {
+        NodeCompiler compiler = new NodeCompiler();
+
+        // Declare every function first, so calls can refer to functions declared below them.
+        for (Map.Entry<String, Func> entry : functions.entrySet()) {
+            Func func = entry.getValue();
+            List<FuncParameter> parameters = func.getParameters();
+
+            String[] names = new String[parameters.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = parameters.get(i).getIdentifier();
+            }
+            compiler.functions.put(entry.getKey(),
+                    new FuncNode(func.getIdentifier(), names, func.getRealParameterCount(), func.getMemo()));
+        }
+
+        // Names any function might declare, these cannot be resolved statically.
+        for (Func func : functions.values()) {
+            for (FuncParameter parameter : func.getParameters()) {
+                compiler.functionVariables.add(parameter.getIdentifier());
+            }
+            collectDeclarations(func.getBlock(), compiler.functionVariables);
+        }
+
+        compiler.scope = new Scope(compiler.global);
+        BlockNode root = compiler.block(tree);
+
+        compiler.inFunction = true;
+        for (Map.Entry<String, Func> entry : functions.entrySet()) {
+            compiler.function(entry.getValue(), compiler.functions.get(entry.getKey()));
+        }
+        return new Program(root, compiler.global, compiler.functions);
+    }
+
+    /**
+     * Compile function parameters and body into its own frame.
+     */
+    private void function(Func func, FuncNode node) {
+        function = node;
+        FrameDescriptor descriptor = new FrameDescriptor(names);
+        scope = new Scope(descriptor);
+
+        // Optional parameters see the parameters declared before them.
+        Token start = ((ParserRuleContext) func.getBlock()).start;
+        List<FuncParameter> parameters = func.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (parameters.get(i).isOptional()) {
+                node.setDefault(i, visit(parameters.get(i).getContext()));
+            }
+            scope.declare(start, parameters.get(i).getIdentifier().intern());
+        }
+        node.setBody(block(func.getBlock()));
+        node.setDescriptor(descriptor);
+    }
+
+    /**
+     * Check if a returned expression is a call of the function being compiled to itself. Calls of
+     * memoised functions always go through their cache.
+     */
+    private boolean isTailCall(Node node) {
+        return node instanceof CallNode
+                && function != null
+                && ((CallNode) node).getFunction() == function
+                && function.getMemo() == null;
+    }
+
+    /**
+     * Collect names of every variable declared in a tree.
+     */
+    private static void collectDeclarations(ParseTree tree, Set<String> names) {
+        if (tree instanceof KebabParser.AssignmentContext) {
+            KebabParser.AssignmentContext assignment = (KebabParser.AssignmentContext) tree;
+            names.add(assignment.identifier().getText());
+        } else if (tree instanceof KebabParser.EachLoopStatementContext) {
+            names.add(((KebabParser.EachLoopStatementContext) tree).identifier().getText());
+        } else if (tree instanceof KebabParser.ParallelEachContext) {
+            names.add(((KebabParser.ParallelEachContext) tree).identifier().getText());
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            collectDeclarations(tree.getChild(i), names);
+        }
+    }
+
+    @Override
+    public Node visitBlock(KebabParser.BlockContext ctx) {
+        Scope outer = scope;
+        scope = new Scope(outer);
+
+        List<KebabParser.StatementContext> statements = ctx.statement();
+        Node[] nodes = new Node[statements.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = visit(statements.get(i));
+        }
+        Node returnExpression = ctx.expression() != null ? visit(ctx.expression()) : null;
+        if (isTailCall(returnExpression)) {
+            CallNode call = (CallNode) returnExpression;
+            returnExpression = new TailCallNode(call.getContext(), function, call.getChildren());
+        }
+
+        BlockNode block = new BlockNode(ctx, nodes, returnExpression, scope.getDeclaredSlots());
+        scope = outer;
+        return block;
+    }
+
+    @Override
+    public Node visitAssignment(KebabParser.AssignmentContext ctx) {
+        String id = ctx.identifier().getText().intern();
+
+        // Variable created without assignment.
+        if (ctx.expression() == null) {
+            return new DeclareNode(ctx, declare(ctx.start, id), null, inFunction);
+        }
+
+        // The value is compiled first, a variable is not visible in its own initializer.
+        Node value = visit(ctx.expression());
+        if (ctx.indexes() != null) {
+            return new IndexAssignNode(ctx,
+                    new VariableNode(ctx, resolve(ctx.start, id)),
+                    expressions(ctx.indexes().expression()),
+                    value);
+        }
+        return new DeclareNode(ctx, declare(ctx.start, id), value, inFunction);
+    }
+
+    @Override
+    public Node visitReAssignment(KebabParser.ReAssignmentContext ctx) {
+        String id = ctx.identifier().getText().intern();
+        Node value = visit(ctx.expression());
+        if (ctx.indexes() != null) {
+            return new IndexAssignNode(ctx,
+                    new VariableNode(ctx, resolve(ctx.start, id)),
+                    expressions(ctx.indexes().expression()),
+                    value);
+        }
+        return new ReAssignNode(ctx, resolve(ctx.start, id), value);
+    }
+
+    @Override
+    public Node visitIdentifierFunctionCall(KebabParser.IdentifierFunctionCallContext ctx) {
+        Node[] arguments = ctx.expressionList() != null
+                ? expressions(ctx.expressionList().expression())
+                : new Node[0];
+
+        FuncNode function = CallNode.link(functions, ctx.identifier().getText(), arguments.length);
+        return new CallNode(ctx, function, arguments);
+    }
+
+    @Override
+    public Node visitShowFunctionCall(KebabParser.ShowFunctionCallContext ctx) {
+        return new ShowNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitShowLineFunctionCall(KebabParser.ShowLineFunctionCallContext ctx) {
+        return new ShowLineNode(ctx, ctx.expression() != null ? visit(ctx.expression()) : null);
+    }
+
+    @Override
+    public Node visitAssertFunctionCall(KebabParser.AssertFunctionCallContext ctx) {
+        return new AssertNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitSizeFunctionCall(KebabParser.SizeFunctionCallContext ctx) {
+        return fold(new SizeNode(ctx, visit(ctx.expression())));
+    }
+
+    @Override
+    public Node visitMapFunctionCall(KebabParser.MapFunctionCallContext ctx) {
+        String name = ctx.identifier().getText();
+        return new MapCallNode(ctx, visit(ctx.expression()), name, CallNode.link(functions, name, 1));
+    }
+
+    @Override
+    public Node visitFilterFunctionCall(KebabParser.FilterFunctionCallContext ctx) {
+        String name = ctx.identifier().getText();
+        return new FilterNode(ctx, visit(ctx.expression()), name, CallNode.link(functions, name, 1));
+    }
+
+    @Override
+    public Node visitReduceFunctionCall(KebabParser.ReduceFunctionCallContext ctx) {
+        String name = ctx.identifier().getText();
+        return new ReduceNode(ctx, visit(ctx.expression(0)), name, CallNode.link(functions, name, 2),
+                visit(ctx.expression(1)));
+    }
+
+    @Override
+    public Node visitSortFunctionCall(KebabParser.SortFunctionCallContext ctx) {
+        if (ctx.identifier() == null) {
+            return new SortNode(ctx, visit(ctx.expression()), null, null);
+        }
+        String name = ctx.identifier().getText();
+        return new SortNode(ctx, visit(ctx.expression()), name, CallNode.link(functions, name, 2));
+    }
+
+    @Override
+    public Node visitAwaitFunctionCall(KebabParser.AwaitFunctionCallContext ctx) {
+        return new AwaitNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitChannelFunctionCall(KebabParser.ChannelFunctionCallContext ctx) {
+        return new ChannelNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitSendFunctionCall(KebabParser.SendFunctionCallContext ctx) {
+        return new SendNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1)));
+    }
+
+    @Override
+    public Node visitReceiveFunctionCall(KebabParser.ReceiveFunctionCallContext ctx) {
+        return new ReceiveNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitCloseFunctionCall(KebabParser.CloseFunctionCallContext ctx) {
+        return new CloseNode(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitCompleteIfStatement(KebabParser.CompleteIfStatementContext ctx) {
+        List<KebabParser.ElseIfStatementContext> elseIfs = ctx.elseIfStatement();
+
+        Node[] conditions = new Node[elseIfs.size() + 1];
+        BlockNode[] blocks = new BlockNode[elseIfs.size() + 1];
+
+        conditions[0] = visit(ctx.ifStatement().expression());
+        blocks[0] = block(ctx.ifStatement().block());
+        for (int i = 0; i < elseIfs.size(); i++) {
+            conditions[i + 1] = visit(elseIfs.get(i).expression());
+            blocks[i + 1] = block(elseIfs.get(i).block());
+        }
+
+        BlockNode elseBlock = ctx.elseStatement() != null ? block(ctx.elseStatement().block()) : null;
+        return new IfNode(ctx, conditions, blocks, elseBlock);
+    }
+
+    @Override
+    public Node visitEachLoopStatement(KebabParser.EachLoopStatementContext ctx) {
+        Node iterable = visit(ctx.expression());
+
+        // Loop variable is only visible inside of the loop.
+        Scope outer = scope;
+        scope = new Scope(outer);
+        LocalVariable variable = declare(ctx.start, ctx.identifier().getText().intern());
+        BlockNode body = block(ctx.block());
+        scope = outer;
+
+        return new EachLoopNode(ctx, variable, iterable, body, inFunction);
+    }
+
+    @Override
+    public Node visitLoopStatement(KebabParser.LoopStatementContext ctx) {
+        return new LoopNode(ctx, visit(ctx.expression()), block(ctx.block()));
+    }
+
+    @Override
+    public Node visitUnaryMinusExpression(KebabParser.UnaryMinusExpressionContext ctx) {
+        return fold(new UnaryMinusNode(ctx, visit(ctx.expression())));
+    }
+
+    @Override
+    public Node visitNotExpression(KebabParser.NotExpressionContext ctx) {
+        return fold(new NotNode(ctx, visit(ctx.expression())));
+    }
+
+    @Override
+    public Node visitPowerExpression(KebabParser.PowerExpressionContext ctx) {
+        return fold(new PowerNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitMultiplyExpression(KebabParser.MultiplyExpressionContext ctx) {
+        return fold(new MultiplyNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitDivideExpression(KebabParser.DivideExpressionContext ctx) {
+        return fold(new DivideNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitModulusExpression(KebabParser.ModulusExpressionContext ctx) {
+        return fold(new ModulusNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitAddExpression(KebabParser.AddExpressionContext ctx) {
+        return fold(new AddNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitSubtractExpression(KebabParser.SubtractExpressionContext ctx) {
+        return fold(new SubtractNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitGtEqExpression(KebabParser.GtEqExpressionContext ctx) {
+        return fold(new GtEqNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitLtEqExpression(KebabParser.LtEqExpressionContext ctx) {
+        return fold(new LtEqNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitGtExpression(KebabParser.GtExpressionContext ctx) {
+        return fold(new GtNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitLtExpression(KebabParser.LtExpressionContext ctx) {
+        return fold(new LtNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitEqExpression(KebabParser.EqExpressionContext ctx) {
+        return fold(new EqNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitNotEqExpression(KebabParser.NotEqExpressionContext ctx) {
+        return fold(new NotEqNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitAndExpression(KebabParser.AndExpressionContext ctx) {
+        return fold(new AndNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitOrExpression(KebabParser.OrExpressionContext ctx) {
+        return fold(new OrNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitTernaryExpression(KebabParser.TernaryExpressionContext ctx) {
+        Node condition = visit(ctx.expression(0));
+        Node whenTrue = visit(ctx.expression(1));
+        Node whenFalse = visit(ctx.expression(2));
+
+        // Only the taken branch is left for constant conditions.
+        if (condition.isConstant()) {
+            return condition.execute(null).asBoolean() ? whenTrue : whenFalse;
+        }
+        return new TernaryNode(ctx, condition, whenTrue, whenFalse);
+    }
+
+    @Override
+    public Node visitInExpression(KebabParser.InExpressionContext ctx) {
+        return fold(new InNode(ctx, visit(ctx.expression(0)), visit(ctx.expression(1))));
+    }
+
+    @Override
+    public Node visitNumberExpression(KebabParser.NumberExpressionContext ctx) {
+        return new ConstantNode(ctx, KebabNumber.valueOf(Double.parseDouble(ctx.getText())));
+    }
+
+    @Override
+    public Node visitBoolExpression(KebabParser.BoolExpressionContext ctx) {
+        return new ConstantNode(ctx, KebabValue.valueOf(BOOL_TRUE.equals(ctx.getText())));
+    }
+
+    @Override
+    public Node visitEmptyExpression(KebabParser.EmptyExpressionContext ctx) {
+        return new ConstantNode(ctx, KebabValue.EMPTY);
+    }
+
+    @Override
+    public Node visitFunctionCallExpression(KebabParser.FunctionCallExpressionContext ctx) {
+        return indexed(ctx, visit(ctx.functionCall()), ctx.indexes());
+    }
+
+    @Override
+    public Node visitListExpression(KebabParser.ListExpressionContext ctx) {
+        return indexed(ctx, visit(ctx.list()), ctx.indexes());
+    }
+
+    @Override
+    public Node visitList(KebabParser.ListContext ctx) {
+        Node[] elements = ctx.expressionList() != null
+                ? expressions(ctx.expressionList().expression())
+                : new Node[0];
+
+        return fold(new ListNode(ctx, elements));
+    }
+
+    @Override
+    public Node visitMapExpression(KebabParser.MapExpressionContext ctx) {
+        return indexed(ctx, visit(ctx.map()), ctx.indexes());
+    }
+
+    @Override
+    public Node visitMap(KebabParser.MapContext ctx) {
+        List<KebabParser.MapEntryContext> entries = ctx.mapEntry();
+        Node[] keys = new Node[entries.size()];
+        Node[] values = new Node[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = visit(entries.get(i).expression(0));
+            values[i] = visit(entries.get(i).expression(1));
+        }
+        return fold(new MapNode(ctx, keys, values));
+    }
+
+    @Override
+    public Node visitIdentifierExpression(KebabParser.IdentifierExpressionContext ctx) {
+        String id = ctx.identifier().getText().intern();
+        return indexed(ctx, new VariableNode(ctx, resolve(ctx.start, id)), ctx.indexes());
+    }
+
+    @Override
+    public Node visitStringExpression(KebabParser.StringExpressionContext ctx) {
+        Node value = new ConstantNode(ctx, new KebabValue(unescape(ctx.String())));
+        return indexed(ctx, value, ctx.indexes());
+    }
+
+    @Override
+    public Node visitExpressionExpression(KebabParser.ExpressionExpressionContext ctx) {
+        return indexed(ctx, visit(ctx.expression()), ctx.indexes());
+    }
+
+    @Override
+    public Node visitInputExpression(KebabParser.InputExpressionContext ctx) {
+        return new InputNode(ctx, ctx.String() != null ? unescape(ctx.String()) : null);
+    }
+
+    @Override
+    public Node visitLinesExpression(KebabParser.LinesExpressionContext ctx) {
+        return new LinesNode(ctx, ctx.expression() != null ? visit(ctx.expression()) : null);
+    }
+
+    @Override
+    public Node visitParallelEachExpression(KebabParser.ParallelEachExpressionContext ctx) {
+        KebabParser.ParallelEachContext loop = ctx.parallelEach();
+        Node iterable = visit(loop.expression());
+
+        // Loop variable is only visible inside of the loop, whose _ret ends an iteration.
+        Scope outer = scope;
+        FuncNode enclosing = function;
+        scope = new Scope(outer);
+        function = null;
+        LocalVariable variable = declare(loop.start, loop.identifier().getText().intern());
+        BlockNode body = block(loop.block());
+        scope = outer;
+        function = enclosing;
+
+        return new ParallelEachNode(ctx, variable, iterable, body, inFunction);
+    }
+
+    @Override
+    public Node visitSpawn(KebabParser.SpawnContext ctx) {
+        Node[] arguments = ctx.expressionList() != null
+                ? expressions(ctx.expressionList().expression())
+                : new Node[0];
+
+        String name = ctx.identifier().getText();
+        return new SpawnNode(ctx, name, CallNode.link(functions, name, arguments.length), arguments);
+    }
+
+    @Override
+    protected Node defaultResult() {
+        return null;
+    }
+
+    @Override
+    protected Node aggregateResult(Node aggregate, Node nextResult) {
+
+        // Pass-through rules such as statement have a single meaningful child.
+        return nextResult != null ? nextResult : aggregate;
+    }
+
+    /**
+     * Declare a variable in the current scope.
+     */
+    private LocalVariable declare(Token token, String id) {
+        return new LocalVariable(id, scope.declare(token, id));
+    }
+
+    /**
+     * Resolve a variable visible at the current position.
+     */
+    private Variable resolve(Token token, String id) {
+        int slot = scope.resolve(id);
+        if (slot >= 0) {
+            return new LocalVariable(id, slot);
+        }
+
+        if (inFunction) {
+            if (functionVariables.contains(id)) {
+
+                // Some caller might have declared it.
+                return new DynamicVariable(id, names.idOf(id));
+            }
+
+            int globalSlot = global.indexOf(id);
+            if (globalSlot >= 0) {
+
+                // Only the global code declares such variable.
+                return new GlobalVariable(id, globalSlot);
+            }
+        }
+        throw new KebabException(token, "Variable '%s' is not declared in this scope", id);
+    }
+
+    /**
+     * Replace a node by its value if it can be evaluated at compile time.
+     */
+    private Node fold(Node node) {
+        if (!node.isFoldable()) {
+            return node;
+        }
+
+        KebabValue value;
+        try {
+            value = node.execute(null);
+        } catch (RuntimeException e) {
+
+            // Invalid expressions are reported at runtime, where they happen.
+            return node;
+        }
+        return new ConstantNode(node.getContext(), value);
+    }
+
+    /**
+     * Compile a block context.
+     */
+    private BlockNode block(ParseTree tree) {
+        Node node = visit(tree);
+        if (!(node instanceof BlockNode)) {
+            throw new KebabException((ParserRuleContext) tree);
+        }
+        return (BlockNode) node;
+    }
+
+    /**
+     * Compile a list of expressions.
+     */
+    private Node[] expressions(List<KebabParser.ExpressionContext> contexts) {
+        List<Node> nodes = new ArrayList<>(contexts.size());
+        for (KebabParser.ExpressionContext context : contexts) {
+            nodes.add(visit(context));
+        }
+        return nodes.toArray(new Node[nodes.size()]);
+    }
+
+    /**
+     * Wrap a node into an index lookup if the expression has indexes.
+     */
+    private Node indexed(ParserRuleContext ctx, Node node, KebabParser.IndexesContext indexes) {
+        if (indexes == null) {
+            return node;
+        }
+        return fold(new IndexNode(ctx, node, expressions(indexes.expression())));
+    }
+
+    /**
+     * Strip quotes and escapes of a string literal.
+     */
+    private static String unescape(TerminalNode string) {
+        String text = string.getText();
+        return text.substring(1, text.length() - 1).replaceAll("\\\\(.)", "$1");
+    }
+}
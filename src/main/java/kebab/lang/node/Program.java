@@ -0,0 +1,134 @@
+package kebab.lang.node;
+
+import kebab.lang.input.InputSource;
+import kebab.lang.input.StandardInput;
+import kebab.lang.node.expression.BinaryNode;
+import kebab.lang.node.expression.BinaryNode.Specialisation;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.FrameDescriptor;
+import kebab.lang.output.OutputSink;
+import kebab.lang.output.StreamSink;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.TaskGroup;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A kebab script compiled into a node tree, ready to be executed. Executions keep all their state
+ * in frames, the tree only learns which operands its binary nodes see.
+ */
+public class Program {
+
+    private final BlockNode root;
+    private final FrameDescriptor global;
+    private final Map<String, FuncNode> functions;
+
+    public Program(BlockNode root, FrameDescriptor global, Map<String, FuncNode> functions) {
+        this.root = root;
+        this.global = global;
+        this.functions = functions;
+    }
+
+    /**
+     * Execute the program in a fresh global frame, showing values on {@link System#out}.
+     *
+     * @return value returned by a top level {@code _ret}, {@link KebabValue#VOID} otherwise.
+     */
+    public KebabValue execute() {
+        return execute(new StreamSink(System.out));
+    }
+
+    /**
+     * Execute the program in a fresh global frame. Executions share nothing but the program, so
+     * a program can be executed by several threads at once.
+     *
+     * @param output where the script shows values, flushed once the execution ends.
+     * @return value returned by a top level {@code _ret}, {@link KebabValue#VOID} otherwise.
+     */
+    public KebabValue execute(OutputSink output) {
+        return execute(output, StandardInput.INSTANCE);
+    }
+
+    /**
+     * Execute the program in a fresh global frame. Output of the tasks which were never awaited is
+     * shown once the script ends, and the execution fails if one of them failed.
+     *
+     * @param output where the script shows values, flushed once the execution ends.
+     * @param input  where the script reads lines.
+     * @return value returned by a top level {@code _ret}, {@link KebabValue#VOID} otherwise.
+     */
+    public KebabValue execute(OutputSink output, InputSource input) {
+        TaskGroup tasks = new TaskGroup();
+        Frame frame = new Frame(global, output, input, tasks);
+        KebabValue returned;
+        RuntimeException failure;
+        try {
+            returned = root.execute(frame) == KebabValue.RETURN ? frame.takeReturned() : KebabValue.VOID;
+        } finally {
+            failure = tasks.finish(output);
+            output.flush();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return returned;
+    }
+
+    /**
+     * Dump the compiled, optimised tree of the program and its functions, which are sorted by
+     * their identifier so the dump does not depend on hashing.
+     *
+     * @return indented tree.
+     */
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        root.dump(out, 0);
+        for (FuncNode function : new TreeMap<>(functions).values()) {
+            function.dump(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Count the binary operator nodes of the program by the operands they are specialised on.
+     *
+     * @return node counts of every specialisation.
+     */
+    public Map<Specialisation, Integer> specialisations() {
+        Map<Specialisation, Integer> counts = new EnumMap<>(Specialisation.class);
+        for (Specialisation specialisation : Specialisation.values()) {
+            counts.put(specialisation, 0);
+        }
+        count(root, counts);
+        for (FuncNode function : functions.values()) {
+            for (Node value : function.getDefaults()) {
+                count(value, counts);
+            }
+            count(function.getBody(), counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Get compiled functions of this program.
+     *
+     * @return compiled functions by their lookup identifier.
+     */
+    public Map<String, FuncNode> getFunctions() {
+        return functions;
+    }
+
+    private static void count(Node node, Map<Specialisation, Integer> counts) {
+        if (node == null) {
+            return;
+        }
+        if (node instanceof BinaryNode) {
+            counts.merge(((BinaryNode) node).getSpecialisation(), 1, Integer::sum);
+        }
+        for (Node child : node.getChildren()) {
+            count(child, counts);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '+' expression #addExpression
+ * </pre>
+ */
+public class AddNode extends BinaryNode
+        implements BinaryNode.NumberOperator, BinaryNode.StringOperator, BinaryNode.ListOperator {
+
+    public AddNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (lhs == null || rhs == null) {
+            throw error();
+        }
+
+        // number + number
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return KebabNumber.valueOf(lhs.doubleValue() + rhs.doubleValue());
+        }
+
+        // list + any
+        if (lhs.isList()) {
+            return new KebabValue(lhs.asList().append(rhs));
+        }
+
+        // string + any
+        if (lhs.isString()) {
+            return KebabValue.concat(lhs.asCharSequence(), rhs.toString());
+        }
+
+        // any + string
+        if (rhs.isString()) {
+            return KebabValue.concat(lhs.toString(), rhs.asCharSequence());
+        }
+
+        return new KebabValue(lhs.toString() + rhs.toString());
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabNumber.valueOf(lhs + rhs);
+    }
+
+    @Override
+    public KebabValue applyString(KebabValue lhs, KebabValue rhs) {
+        return KebabValue.concat(lhs.asCharSequence(), rhs.toString());
+    }
+
+    @Override
+    public KebabValue applyList(KebabValue lhs, KebabValue rhs) {
+        return new KebabValue(lhs.asList().append(rhs));
+    }
+}
@@ -0,0 +1,25 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '&&' expression #andExpression
+ * </pre>
+ */
+public class AndNode extends BinaryNode {
+
+    public AndNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (!lhs.isBoolean() || !rhs.isBoolean()) {
+            throw error();
+        }
+        return KebabValue.valueOf(lhs.asBoolean() && rhs.asBoolean());
+    }
+}
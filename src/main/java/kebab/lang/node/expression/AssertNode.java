@@ -0,0 +1,44 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Assert '(' expression ')' #assertFunctionCall
+ * </pre>
+ */
+public class AssertNode extends Node {
+
+    private final Node expression;
+
+    public AssertNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = expression.execute(frame);
+
+        if (!value.isBoolean()) {
+            throw error();
+        }
+
+        if (!value.asBoolean()) {
+            throw new AssertionError("Failed Assertion "
+                    + expression.getContext().getText()
+                    + " line:"
+                    + context.start.getLine());
+        }
+
+        return KebabValue.VOID;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,32 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.Tasks;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Await '(' expression ')' #awaitFunctionCall
+ * </pre>
+ */
+public class AwaitNode extends Node {
+
+    private final Node task;
+
+    public AwaitNode(ParserRuleContext context, Node task) {
+        super(context);
+        this.task = task;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        return Tasks.await(context, task.execute(frame), frame.getOutput());
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{task};
+    }
+}
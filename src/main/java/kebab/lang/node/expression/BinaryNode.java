@@ -0,0 +1,191 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Base of all {@code expression op expression} nodes, operands are evaluated left to right.
+ * <p>
+ * A node specialises itself on the operands of its first execution: while they keep being of the
+ * same kind it runs the fast path of that kind and skips the type tests of {@link #apply}. Once
+ * other operands show up the node turns generic for good. Programs are shared by threads, so the
+ * state may be written by several of them, which is harmless as every fast path checks its guard.
+ * <p>
+ * An operator has a fast path for a kind of operands when it implements {@link NumberOperator},
+ * {@link StringOperator} or {@link ListOperator}, so a fast path cannot be declared without being
+ * implemented. All operators share {@link #execute(Frame)}, which tries the fast path first.
+ */
+public abstract class BinaryNode extends Node {
+
+    /**
+     * Kind of operands a node runs a fast path for.
+     */
+    public enum Specialisation {
+
+        // Not executed yet.
+        UNINITIALIZED,
+
+        // number op number
+        NUMBERS,
+
+        // string op any
+        STRING,
+
+        // list op any
+        LIST,
+
+        // Operands of different kinds were seen, or the operator has no fast path for them.
+        GENERIC
+    }
+
+    /**
+     * Operator with a fast path for two numbers.
+     */
+    public interface NumberOperator {
+
+        /**
+         * Apply the operator to two numbers.
+         */
+        KebabValue applyNumbers(double lhs, double rhs);
+    }
+
+    /**
+     * Operator with a fast path for a string and any value.
+     */
+    public interface StringOperator {
+
+        /**
+         * Apply the operator to a string and a value.
+         */
+        KebabValue applyString(KebabValue lhs, KebabValue rhs);
+    }
+
+    /**
+     * Operator with a fast path for a list and any value.
+     */
+    public interface ListOperator {
+
+        /**
+         * Apply the operator to a list and a value.
+         */
+        KebabValue applyList(KebabValue lhs, KebabValue rhs);
+    }
+
+    protected final Node lhs;
+    protected final Node rhs;
+
+    private Specialisation specialisation = Specialisation.UNINITIALIZED;
+
+    protected BinaryNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context);
+        this.lhs = lhs;
+        this.rhs = rhs;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        return execute(this.lhs.execute(frame), this.rhs.execute(frame));
+    }
+
+    /**
+     * Apply the operator through the fast path of the operands, specialising or turning the node
+     * generic as needed.
+     *
+     * @param lhs left operand.
+     * @param rhs right operand.
+     * @return operation result.
+     */
+    protected final KebabValue execute(KebabValue lhs, KebabValue rhs) {
+        Specialisation specialisation = this.specialisation;
+        if (specialisation == Specialisation.UNINITIALIZED) {
+            specialisation = specialise(lhs, rhs);
+            this.specialisation = specialisation;
+        }
+
+        if (specialisation == Specialisation.NUMBERS) {
+            if (lhs instanceof KebabNumber && rhs instanceof KebabNumber) {
+                return ((NumberOperator) this).applyNumbers(((KebabNumber) lhs).doubleValue(),
+                        ((KebabNumber) rhs).doubleValue());
+            }
+        } else if (specialisation == Specialisation.STRING) {
+            if (lhs != null && rhs != null && lhs.isString()) {
+                return ((StringOperator) this).applyString(lhs, rhs);
+            }
+        } else if (specialisation == Specialisation.LIST) {
+            if (lhs != null && rhs != null && lhs.isList()) {
+                return ((ListOperator) this).applyList(lhs, rhs);
+            }
+        }
+
+        // Operands changed kind, or the node is generic already.
+        if (specialisation != Specialisation.GENERIC) {
+            this.specialisation = Specialisation.GENERIC;
+        }
+        return apply(lhs, rhs);
+    }
+
+    /**
+     * Apply the operator to already evaluated operands.
+     *
+     * @param lhs left operand.
+     * @param rhs right operand.
+     * @return operation result.
+     */
+    protected abstract KebabValue apply(KebabValue lhs, KebabValue rhs);
+
+    /**
+     * @return kind of operands the node currently runs a fast path for.
+     */
+    public Specialisation getSpecialisation() {
+        return specialisation;
+    }
+
+    @Override
+    public boolean isFoldable() {
+        return lhs.isConstant() && rhs.isConstant();
+    }
+
+    public Node getLhs() {
+        return lhs;
+    }
+
+    public Node getRhs() {
+        return rhs;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{lhs, rhs};
+    }
+
+    /**
+     * Pick the fast path for the first operands.
+     */
+    private Specialisation specialise(KebabValue lhs, KebabValue rhs) {
+        Specialisation kind = Specialisation.GENERIC;
+        if (lhs instanceof KebabNumber && rhs instanceof KebabNumber) {
+            kind = Specialisation.NUMBERS;
+        } else if (lhs != null && rhs != null && lhs.isString()) {
+            kind = Specialisation.STRING;
+        } else if (lhs != null && rhs != null && lhs.isList()) {
+            kind = Specialisation.LIST;
+        }
+        return hasFastPath(kind) ? kind : Specialisation.GENERIC;
+    }
+
+    private boolean hasFastPath(Specialisation kind) {
+        switch (kind) {
+            case NUMBERS:
+                return this instanceof NumberOperator;
+            case STRING:
+                return this instanceof StringOperator;
+            case LIST:
+                return this instanceof ListOperator;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.Map;
+
+/**
+ * Function call with args or no args, the called function is resolved once when the call is
+ * compiled.
+ * <pre>
+ * : identifier '(' expressionList? ')' #identifierFunctionCall
+ * </pre>
+ */
+public class CallNode extends Node {
+
+    private final FuncNode function;
+    private final Node[] arguments;
+
+    /**
+     * @param function called function, {@code null} if no function matches the call.
+     */
+    public CallNode(ParserRuleContext context, FuncNode function, Node[] arguments) {
+        super(context);
+        this.function = function;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Select a function by the argument count of a call.
+     *
+     * @param functions     compiled functions by their lookup identifier.
+     * @param identifier    called function name.
+     * @param argumentCount argument count of the call.
+     * @return matching function or {@code null} if there is none.
+     */
+    public static FuncNode link(Map<String, FuncNode> functions, String identifier, int argumentCount) {
+        FuncNode function;
+        if ((function = functions.get(identifier + argumentCount)) != null) {
+
+            // Try to get a function by real parameter count.
+            return function;
+        } else if ((function = functions.get(identifier)) != null && function.isPurelyOptional()) {
+
+            // Try to get a purely optional function.
+            return function;
+        }
+        return null;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (function == null) {
+            throw error();
+        }
+        return function.invoke(arguments, frame);
+    }
+
+    /**
+     * @return called function, {@code null} if no function matches the call.
+     */
+    public FuncNode getFunction() {
+        return function;
+    }
+
+    @Override
+    protected String describe() {
+        return function != null ? function.getIdentifier() : "unresolved";
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return arguments;
+    }
+}
@@ -0,0 +1,32 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.Tasks;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | NewChannel '(' expression ')' #channelFunctionCall
+ * </pre>
+ */
+public class ChannelNode extends Node {
+
+    private final Node capacity;
+
+    public ChannelNode(ParserRuleContext context, Node capacity) {
+        super(context);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        return Tasks.channel(context, capacity.execute(frame));
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{capacity};
+    }
+}
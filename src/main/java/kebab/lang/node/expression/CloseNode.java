@@ -0,0 +1,32 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.Tasks;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | CloseChannel '(' expression ')' #closeFunctionCall
+ * </pre>
+ */
+public class CloseNode extends Node {
+
+    private final Node channel;
+
+    public CloseNode(ParserRuleContext context, Node channel) {
+        super(context);
+        this.channel = channel;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        return Tasks.close(context, channel.execute(frame));
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{channel};
+    }
+}
@@ -0,0 +1,44 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * A literal which is materialised once at compile time.
+ * <pre>
+ * | Number
+ * | Bool
+ * | Empty
+ * | String
+ * </pre>
+ */
+public class ConstantNode extends Node {
+
+    protected final KebabValue value;
+
+    public ConstantNode(ParserRuleContext context, KebabValue value) {
+        super(context);
+        this.value = value;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        return value;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
+
+    @Override
+    protected String describe() {
+        return value.isString() ? "'" + value + "'" : value.toString();
+    }
+
+    public KebabValue getValue() {
+        return value;
+    }
+}
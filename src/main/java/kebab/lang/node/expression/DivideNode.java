@@ -0,0 +1,31 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '/' expression #divideExpression
+ * </pre>
+ */
+public class DivideNode extends BinaryNode implements BinaryNode.NumberOperator {
+
+    public DivideNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return KebabNumber.valueOf(lhs.doubleValue() / rhs.doubleValue());
+        }
+        throw error();
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabNumber.valueOf(lhs / rhs);
+    }
+}
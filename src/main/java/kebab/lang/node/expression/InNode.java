@@ -0,0 +1,33 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression In expression #inExpression
+ * </pre>
+ */
+public class InNode extends BinaryNode {
+
+    public InNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (rhs.isList()) {
+            return KebabValue.valueOf(rhs.asList().contains(lhs));
+        }
+        if (rhs.isMap()) {
+            return KebabValue.valueOf(rhs.asMap().containsKey(lhs));
+        }
+
+        // Substring search.
+        if (rhs.isString() && lhs.isString()) {
+            return KebabValue.valueOf(rhs.asString().contains(lhs.asCharSequence()));
+        }
+        throw error();
+    }
+}
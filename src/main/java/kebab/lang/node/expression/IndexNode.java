@@ -0,0 +1,84 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabMap;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Indexed access on the value of another node, by position for lists and strings or by key for
+ * maps.
+ * <pre>
+ * indexes
+ *  : ('[' expression ']')+
+ *  ;
+ * </pre>
+ */
+public class IndexNode extends Node {
+
+    private final Node target;
+    private final Node[] indexes;
+
+    public IndexNode(ParserRuleContext context, Node target, Node[] indexes) {
+        super(context);
+        this.target = target;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue val = target.execute(frame);
+        for (Node index : indexes) {
+            KebabValue idx = index.execute(frame);
+            if (val.isMap()) {
+                val = get(index, val.asMap(), idx);
+                continue;
+            }
+            if (!idx.isNumber() || (!val.isList() && !val.isString())) {
+                throw new KebabException(index.getContext().start,
+                        "Could not resolve indexes on: '%s' at: %s", val, idx);
+            }
+            int i = (int) idx.doubleValue();
+            if (val.isString()) {
+                val = KebabValue.valueOf(val.asString().charAt(i));
+            } else {
+                val = val.asList().get(i);
+            }
+        }
+        return val;
+    }
+
+    /**
+     * Get the value of a map key, which must be present.
+     */
+    private static KebabValue get(Node index, KebabMap map, KebabValue key) {
+        KebabValue value = map.get(key);
+        if (value == null) {
+            throw new KebabException(index.getContext().start, "No key: '%s' in map", key);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean isFoldable() {
+        if (!target.isConstant()) {
+            return false;
+        }
+        for (Node index : indexes) {
+            if (!index.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        Node[] children = new Node[indexes.length + 1];
+        children[0] = target;
+        System.arraycopy(indexes, 0, children, 1, indexes.length);
+        return children;
+    }
+}
@@ -0,0 +1,49 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * <pre>
+ * | Input '(' String? ')' #inputExpression
+ * </pre>
+ */
+public class InputNode extends Node {
+
+    private final String path;
+
+    /**
+     * @param path file to read, {@code null} to read a line of the input of the execution.
+     */
+    public InputNode(ParserRuleContext context, String path) {
+        super(context);
+        this.path = path;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        try {
+            if (path != null) {
+                return new KebabValue(new String(Files.readAllBytes(Paths.get(path))));
+            } else {
+
+                // Show a pending prompt before waiting for the user.
+                frame.getOutput().flush();
+                return new KebabValue(frame.getInput().readLine());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected String describe() {
+        return path == null ? "" : "'" + path + "'";
+    }
+}
@@ -0,0 +1,51 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.input.MappedLines;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.nio.file.Paths;
+
+/**
+ * Lazy sequence of the lines of a file, iterated with {@code _loop(line : lines('path'))}, or of
+ * standard input with {@code lines()}.
+ * <pre>
+ * | Lines '(' expression? ')' #linesExpression
+ * </pre>
+ */
+public class LinesNode extends Node {
+
+    private final Node path;
+
+    /**
+     * @param path path of the file, {@code null} to read the input of the execution.
+     */
+    public LinesNode(ParserRuleContext context, Node path) {
+        super(context);
+        this.path = path;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (path == null) {
+
+            // Show a pending prompt before waiting for the user.
+            frame.getOutput().flush();
+            return new KebabValue(frame.getInput().lines());
+        }
+
+        KebabValue value = path.execute(frame);
+        if (!value.isString()) {
+            throw new KebabException(context.start, "Expected a file path in lines(), got: %s", value);
+        }
+        return new KebabValue(new MappedLines(Paths.get(value.asString())));
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{path};
+    }
+}
@@ -0,0 +1,73 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.ListFunctions;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.function.Supplier;
+
+/**
+ * Base of the built-in functions applying a function of the script to list elements, the function
+ * is passed by name and resolved once when the call is compiled.
+ */
+public abstract class ListFunctionNode extends Node {
+
+    protected final Node list;
+    private final String name;
+    private final int argumentCount;
+    private final FuncNode function;
+
+    /**
+     * @param name          name of the applied function.
+     * @param argumentCount amount of arguments the function is called with.
+     * @param function      applied function, {@code null} if no function matches.
+     */
+    protected ListFunctionNode(ParserRuleContext context,
+                               Node list,
+                               String name,
+                               int argumentCount,
+                               FuncNode function) {
+
+        super(context);
+        this.list = list;
+        this.name = name;
+        this.argumentCount = argumentCount;
+        this.function = function;
+    }
+
+    /**
+     * Bind the applied function to the threads calling it, every thread runs it in its own copy of
+     * the frame.
+     *
+     * @param frame frame of the built-in call.
+     * @return creates the function for the calling thread.
+     */
+    protected Supplier<ListFunctions.Callee> callees(Frame frame) {
+        if (function == null) {
+            throw ListFunctions.undeclared(context, name, argumentCount);
+        }
+        return () -> {
+            Frame fork = frame.fork();
+            return arguments -> function.call(arguments, fork);
+        };
+    }
+
+    /**
+     * @return name of the applied function.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    protected String describe() {
+        return function != null ? function.getIdentifier() : "unresolved";
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{list};
+    }
+}
@@ -0,0 +1,48 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * list
+ *  : '[' expressionList? ']'
+ *  ;
+ * </pre>
+ */
+public class ListNode extends Node {
+
+    private final Node[] elements;
+
+    public ListNode(ParserRuleContext context, Node[] elements) {
+        super(context);
+        this.elements = elements;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabList.Builder list = new KebabList.Builder();
+        for (Node element : elements) {
+            list.add(element.execute(frame));
+        }
+        return new KebabValue(list.build());
+    }
+
+    @Override
+    public boolean isFoldable() {
+        for (Node element : elements) {
+            if (!element.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return elements;
+    }
+}
@@ -0,0 +1,33 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '<' expression #ltExpression
+ * </pre>
+ */
+public class LtNode extends BinaryNode implements BinaryNode.NumberOperator {
+
+    public LtNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return KebabValue.valueOf(lhs.doubleValue() < rhs.doubleValue());
+        }
+        if (lhs.isString() && rhs.isString()) {
+            return KebabValue.valueOf(lhs.asString().compareTo(rhs.asString()) < 0);
+        }
+        throw error();
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabValue.valueOf(lhs < rhs);
+    }
+}
@@ -0,0 +1,26 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.ListFunctions;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | MapList '(' expression ',' identifier ')' #mapFunctionCall
+ * </pre>
+ */
+public class MapCallNode extends ListFunctionNode {
+
+    public MapCallNode(ParserRuleContext context, Node list, String name, FuncNode function) {
+        super(context, list, name, 1, function);
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = list.execute(frame);
+        return ListFunctions.map(context, value, callees(frame));
+    }
+}
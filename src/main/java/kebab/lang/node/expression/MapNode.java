@@ -0,0 +1,55 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabMap;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * map
+ *  : Open (mapEntry (',' mapEntry)*)? Close
+ *  ;
+ * </pre>
+ */
+public class MapNode extends Node {
+
+    private final Node[] keys;
+    private final Node[] values;
+
+    public MapNode(ParserRuleContext context, Node[] keys, Node[] values) {
+        super(context);
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabMap map = KebabMap.EMPTY;
+        for (int i = 0; i < keys.length; i++) {
+            map = map.update(keys[i].execute(frame), values[i].execute(frame));
+        }
+        return new KebabValue(map);
+    }
+
+    @Override
+    public boolean isFoldable() {
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].isConstant() || !values[i].isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        Node[] children = new Node[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            children[i * 2] = keys[i];
+            children[i * 2 + 1] = values[i];
+        }
+        return children;
+    }
+}
@@ -0,0 +1,76 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '*' expression #multiplyExpression
+ * </pre>
+ */
+public class MultiplyNode extends BinaryNode implements BinaryNode.NumberOperator {
+
+    private static final int MAX_FOLDED_LENGTH = 4096;
+
+    public MultiplyNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (lhs == null || rhs == null) {
+            throw error();
+        }
+
+        // number * number
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return KebabNumber.valueOf(lhs.doubleValue() * rhs.doubleValue());
+        }
+
+        // string * number
+        if (lhs.isString() && rhs.isNumber()) {
+            String string = lhs.asString();
+            int stop = (int) rhs.doubleValue();
+            StringBuilder str = new StringBuilder(Math.max(0, string.length() * stop));
+            for (int i = 0; i < stop; i++) {
+                str.append(string);
+            }
+            return new KebabValue(str.toString());
+        }
+
+        // list * number
+        if (lhs.isList() && rhs.isNumber()) {
+            KebabList total = KebabList.EMPTY;
+            int stop = (int) rhs.doubleValue();
+            for (int i = 0; i < stop; i++) {
+                total = total.concat(lhs.asList());
+            }
+            return new KebabValue(total);
+        }
+        throw error();
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabNumber.valueOf(lhs * rhs);
+    }
+
+    @Override
+    public boolean isFoldable() {
+        if (!super.isFoldable()) {
+            return false;
+        }
+
+        // Do not bloat the program with huge repeated strings or lists.
+        KebabValue times = ((ConstantNode) rhs).getValue();
+        KebabValue value = ((ConstantNode) lhs).getValue();
+        if (times.isNumber() && (value.isString() || value.isList())) {
+            int length = value.isString() ? value.asCharSequence().length() : value.asList().size();
+            return length * times.doubleValue() <= MAX_FOLDED_LENGTH;
+        }
+        return true;
+    }
+}
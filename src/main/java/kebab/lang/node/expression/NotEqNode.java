@@ -0,0 +1,28 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '!=' expression #notEqExpression
+ * </pre>
+ */
+public class NotEqNode extends BinaryNode implements BinaryNode.NumberOperator {
+
+    public NotEqNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        return KebabValue.valueOf(!lhs.equals(rhs));
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabValue.valueOf(!KebabNumber.equal(lhs, rhs));
+    }
+}
@@ -0,0 +1,42 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | '!' expression #notExpression
+ * </pre>
+ */
+public class NotNode extends Node {
+
+    private final Node expression;
+
+    public NotNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = expression.execute(frame);
+
+        // Not expressions only allowed for booleans and nulls.
+        if (!value.isBoolean() && !value.isEmpty()) {
+            throw error();
+        }
+        return KebabValue.valueOf(!value.asBoolean());
+    }
+
+    @Override
+    public boolean isFoldable() {
+        return expression.isConstant();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,79 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.ParallelEach;
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.LocalVariable;
+import kebab.lang.node.statement.DeclareNode;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.List;
+
+/**
+ * A for-each loop running its iterations in parallel, evaluates to the list of values returned by
+ * the iterations. Every thread runs the body in its own copy of the frame.
+ * <pre>
+ * parallelEach
+ *  : Peach '(' identifier Colon expression ')' Open block Close
+ *  ;
+ * </pre>
+ */
+public class ParallelEachNode extends Node {
+
+    private final LocalVariable variable;
+    private final Node iterable;
+    private final BlockNode body;
+    private final boolean checkCallers;
+
+    /**
+     * @param checkCallers true if the loop is inside a function.
+     */
+    public ParallelEachNode(ParserRuleContext context,
+                            LocalVariable variable,
+                            Node iterable,
+                            BlockNode body,
+                            boolean checkCallers) {
+
+        super(context);
+        this.variable = variable;
+        this.iterable = iterable;
+        this.body = body;
+        this.checkCallers = checkCallers;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        List<KebabValue> elements = ParallelEach.elements(context, iterable.execute(frame));
+
+        // Make sure callers don't have a variable like this already.
+        if (checkCallers) {
+            DeclareNode.checkCallers(context, frame, variable.getIdentifier());
+        }
+        return ParallelEach.run(elements, () -> {
+            Frame fork = frame.fork();
+            return element -> {
+                variable.set(fork, element);
+                if (body.execute(fork) != KebabValue.RETURN) {
+                    return ParallelEach.returned(context, element, null);
+                }
+
+                // The body was left without clearing its variables.
+                KebabValue returned = fork.takeReturned();
+                fork.restore(frame);
+                return ParallelEach.returned(context, element, returned);
+            };
+        }, true);
+    }
+
+    @Override
+    protected String describe() {
+        return variable.toString();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{iterable, body};
+    }
+}
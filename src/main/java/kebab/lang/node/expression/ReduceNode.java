@@ -0,0 +1,35 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.ListFunctions;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Reduce '(' expression ',' identifier ',' expression ')' #reduceFunctionCall
+ * </pre>
+ */
+public class ReduceNode extends ListFunctionNode {
+
+    private final Node initial;
+
+    public ReduceNode(ParserRuleContext context, Node list, String name, FuncNode function, Node initial) {
+        super(context, list, name, 2, function);
+        this.initial = initial;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = list.execute(frame);
+        KebabValue start = initial.execute(frame);
+        return ListFunctions.reduce(context, value, callees(frame).get(), start);
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{list, initial};
+    }
+}
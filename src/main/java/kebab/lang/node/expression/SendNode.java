@@ -0,0 +1,35 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.Tasks;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Send '(' expression ',' expression ')' #sendFunctionCall
+ * </pre>
+ */
+public class SendNode extends Node {
+
+    private final Node channel;
+    private final Node value;
+
+    public SendNode(ParserRuleContext context, Node channel, Node value) {
+        super(context);
+        this.channel = channel;
+        this.value = value;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue target = channel.execute(frame);
+        return Tasks.send(context, target, value.execute(frame));
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{channel, value};
+    }
+}
@@ -0,0 +1,40 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Printing of stuff, multiline.
+ * <pre>
+ * | ShowL '(' expression? ')'
+ * </pre>
+ */
+public class ShowLineNode extends Node {
+
+    private final Node expression;
+
+    /**
+     * @param expression expression to print, {@code null} to print an empty line.
+     */
+    public ShowLineNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (expression == null) {
+            frame.getOutput().writeLine("");
+        } else {
+            frame.getOutput().writeLine(expression.execute(frame).toString());
+        }
+        return KebabValue.VOID;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,33 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Printing of variables.
+ * <pre>
+ * | Show '(' expression ')'
+ * </pre>
+ */
+public class ShowNode extends Node {
+
+    private final Node expression;
+
+    public ShowNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        frame.getOutput().write(expression.execute(frame).toString());
+        return KebabValue.VOID;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,51 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Size '(' expression ')' #sizeFunctionCall
+ * </pre>
+ */
+public class SizeNode extends Node {
+
+    private final Node expression;
+
+    public SizeNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = expression.execute(frame);
+
+        if (value.isString()) {
+            return KebabNumber.valueOf(value.asCharSequence().length());
+        }
+
+        if (value.isList()) {
+            return KebabNumber.valueOf(value.asList().size());
+        }
+
+        if (value.isMap()) {
+            return KebabNumber.valueOf(value.asMap().size());
+        }
+
+        throw error();
+    }
+
+    @Override
+    public boolean isFoldable() {
+        return expression.isConstant();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,38 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.ListFunctions;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | Sort '(' expression (',' identifier)? ')' #sortFunctionCall
+ * </pre>
+ */
+public class SortNode extends ListFunctionNode {
+
+    /**
+     * @param name name of the comparing function, {@code null} to sort numbers or strings.
+     */
+    public SortNode(ParserRuleContext context, Node list, String name, FuncNode function) {
+        super(context, list, name, 2, function);
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = list.execute(frame);
+        return ListFunctions.sort(context, value, isNatural() ? null : callees(frame));
+    }
+
+    @Override
+    protected String describe() {
+        return isNatural() ? "" : super.describe();
+    }
+
+    private boolean isNatural() {
+        return getName() == null;
+    }
+}
@@ -0,0 +1,61 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.Tasks;
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Starts a function call as a task, arguments are evaluated before the task starts. The task runs
+ * in a copy of the frames of the spawning code.
+ * <pre>
+ * spawn
+ *  : Spawn identifier '(' expressionList? ')'
+ *  ;
+ * </pre>
+ */
+public class SpawnNode extends Node {
+
+    private final String name;
+    private final FuncNode function;
+    private final Node[] arguments;
+
+    /**
+     * @param name     name of the spawned function.
+     * @param function spawned function, {@code null} if no function matches.
+     */
+    public SpawnNode(ParserRuleContext context, String name, FuncNode function, Node[] arguments) {
+        super(context);
+        this.name = name;
+        this.function = function;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (function == null) {
+            throw Tasks.undeclared(context, name, arguments.length);
+        }
+
+        KebabValue[] values = new KebabValue[arguments.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[i].execute(frame);
+        }
+        return Tasks.spawn(frame.getTasks(), values, output -> {
+            Frame snapshot = frame.snapshot(output);
+            return () -> function.call(values, snapshot);
+        });
+    }
+
+    @Override
+    protected String describe() {
+        return function != null ? function.getIdentifier() : "unresolved";
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return arguments;
+    }
+}
@@ -0,0 +1,42 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '-' expression #subtractExpression
+ * </pre>
+ */
+public class SubtractNode extends BinaryNode implements BinaryNode.NumberOperator, BinaryNode.ListOperator {
+
+    public SubtractNode(ParserRuleContext context, Node lhs, Node rhs) {
+        super(context, lhs, rhs);
+    }
+
+    @Override
+    protected KebabValue apply(KebabValue lhs, KebabValue rhs) {
+        if (lhs.isNumber() && rhs.isNumber()) {
+            return KebabNumber.valueOf(lhs.doubleValue() - rhs.doubleValue());
+        }
+        if (lhs.isList()) {
+            return new KebabValue(lhs.asList().remove(rhs));
+        }
+        if (lhs.isMap()) {
+            return new KebabValue(lhs.asMap().remove(rhs));
+        }
+        throw error();
+    }
+
+    @Override
+    public KebabValue applyNumbers(double lhs, double rhs) {
+        return KebabNumber.valueOf(lhs - rhs);
+    }
+
+    @Override
+    public KebabValue applyList(KebabValue lhs, KebabValue rhs) {
+        return new KebabValue(lhs.asList().remove(rhs));
+    }
+}
@@ -0,0 +1,44 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.FuncNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Call of a function to itself as the value of a {@code _ret}. The function is run again in the
+ * frame of the running call, so tail recursion takes no stack. While the function still has
+ * variables of its own declared the call is made as usual, as the nested call would see them.
+ * <pre>
+ * : identifier '(' expressionList? ')' #identifierFunctionCall
+ * </pre>
+ */
+public class TailCallNode extends CallNode {
+
+    public TailCallNode(ParserRuleContext context, FuncNode function, Node[] arguments) {
+        super(context, function, arguments);
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        FuncNode function = getFunction();
+        if (function.hasLocals(frame)) {
+            return super.execute(frame);
+        }
+
+        // Arguments see the parameters of the running call, so all are evaluated first.
+        Node[] arguments = getChildren();
+        KebabValue[] values = new KebabValue[arguments.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments[i].execute(frame);
+        }
+        function.reenter(frame, values);
+        return KebabValue.TAIL_CALL;
+    }
+
+    @Override
+    protected String describe() {
+        return super.describe() + " [tail]";
+    }
+}
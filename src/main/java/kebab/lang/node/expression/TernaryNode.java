@@ -0,0 +1,39 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | expression '?' expression ':' expression #ternaryExpression
+ * </pre>
+ */
+public class TernaryNode extends Node {
+
+    private final Node condition;
+    private final Node whenTrue;
+    private final Node whenFalse;
+
+    public TernaryNode(ParserRuleContext context, Node condition, Node whenTrue, Node whenFalse) {
+        super(context);
+        this.condition = condition;
+        this.whenTrue = whenTrue;
+        this.whenFalse = whenFalse;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (condition.execute(frame).asBoolean()) {
+            return whenTrue.execute(frame);
+        } else {
+            return whenFalse.execute(frame);
+        }
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{condition, whenTrue, whenFalse};
+    }
+}
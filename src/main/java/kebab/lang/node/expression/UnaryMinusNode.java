@@ -0,0 +1,41 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabNumber;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | '-' expression #unaryMinusExpression
+ * </pre>
+ */
+public class UnaryMinusNode extends Node {
+
+    private final Node expression;
+
+    public UnaryMinusNode(ParserRuleContext context, Node expression) {
+        super(context);
+        this.expression = expression;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue v = expression.execute(frame);
+        if (!v.isNumber()) {
+            throw error();
+        }
+        return KebabNumber.valueOf(-v.doubleValue());
+    }
+
+    @Override
+    public boolean isFoldable() {
+        return expression.isConstant();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{expression};
+    }
+}
@@ -0,0 +1,42 @@
+package kebab.lang.node.expression;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.Variable;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * <pre>
+ * | identifier #identifierExpression
+ * </pre>
+ */
+public class VariableNode extends Node {
+
+    private final Variable variable;
+
+    public VariableNode(ParserRuleContext context, Variable variable) {
+        super(context);
+        this.variable = variable;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue value = variable.get(frame);
+        if (value == null) {
+            throw new KebabException(context.start, "Variable '%s' is not declared in this scope",
+                    variable.getIdentifier());
+        }
+        return value;
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    @Override
+    protected String describe() {
+        return variable.toString();
+    }
+}
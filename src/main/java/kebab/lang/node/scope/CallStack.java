@@ -0,0 +1,89 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.input.InputSource;
+import kebab.lang.output.OutputSink;
+import kebab.lang.value.TaskGroup;
+
+/**
+ * Stack of frames of a single execution, along with the output, input and tasks of the execution.
+ * Frame objects are kept once created, so a function call only pushes a frame and clears the slots
+ * it used when it is popped.
+ */
+public class CallStack {
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private final OutputSink output;
+    private final InputSource input;
+    private final TaskGroup tasks;
+    private Frame[] frames;
+    private int depth;
+
+    /**
+     * Create a stack with the global frame at the bottom.
+     *
+     * @param global global frame.
+     * @param output where the execution shows values.
+     * @param input  where the execution reads lines.
+     * @param tasks  tasks of the run.
+     */
+    CallStack(Frame global, OutputSink output, InputSource input, TaskGroup tasks) {
+        this.output = output;
+        this.input = input;
+        this.tasks = tasks;
+        this.frames = new Frame[INITIAL_DEPTH];
+        this.frames[0] = global;
+    }
+
+    /**
+     * Push a frame of a function call.
+     *
+     * @param descriptor slot layout of the function.
+     * @param caller     frame the function is called from.
+     * @return frame of the call.
+     */
+    Frame push(FrameDescriptor descriptor, Frame caller) {
+        if (++depth == frames.length) {
+            Frame[] grown = new Frame[frames.length * 2];
+            System.arraycopy(frames, 0, grown, 0, frames.length);
+            frames = grown;
+        }
+
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame(this, descriptor, caller);
+            frames[depth] = frame;
+        } else {
+            frame.enter(descriptor, caller);
+        }
+        return frame;
+    }
+
+    /**
+     * Pop the frame on top of the stack.
+     */
+    void pop() {
+        frames[depth--].leave();
+    }
+
+    /**
+     * Get the amount of function calls on the stack.
+     *
+     * @return call depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public OutputSink getOutput() {
+        return output;
+    }
+
+    public InputSource getInput() {
+        return input;
+    }
+
+    public TaskGroup getTasks() {
+        return tasks;
+    }
+}
@@ -0,0 +1,45 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.value.KebabValue;
+
+/**
+ * A variable used inside a function which might be declared by any of its callers, it is looked
+ * up through the call chain by the number of its name.
+ */
+public class DynamicVariable extends Variable {
+
+    private final int id;
+
+    /**
+     * @param identifier variable name.
+     * @param id         number of the name, see {@link VariableNames}.
+     */
+    public DynamicVariable(String identifier, int id) {
+        super(identifier);
+        this.id = id;
+    }
+
+    @Override
+    public KebabValue get(Frame frame) {
+        Frame declaring = frame.lookup(id);
+        if (declaring == null) {
+            return null;
+        }
+        return declaring.get(declaring.slotOf(id));
+    }
+
+    @Override
+    public boolean set(Frame frame, KebabValue value) {
+        Frame declaring = frame.lookup(id);
+        if (declaring == null) {
+            return false;
+        }
+        declaring.set(declaring.slotOf(id), value);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "dynamic " + identifier;
+    }
+}
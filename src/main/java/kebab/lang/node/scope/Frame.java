@@ -0,0 +1,275 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.input.InputSource;
+import kebab.lang.output.OutputSink;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.TaskGroup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runtime storage of a function call or of the global code. Variables are addressed by the slots
+ * assigned at compile time, an empty ({@code null}) slot means the variable is not declared.
+ * <p>
+ * Frames of function calls are owned by the {@link CallStack} and reused by later calls.
+ */
+public class Frame {
+
+    private final CallStack stack;
+    private final Frame global;
+
+    private FrameDescriptor descriptor;
+    private KebabValue[] slots;
+    private Frame caller;
+    private KebabValue returned;
+
+    /**
+     * Create a global frame, which starts a new execution.
+     *
+     * @param descriptor slot layout of the global code.
+     * @param output     where the execution shows values.
+     * @param input      where the execution reads lines.
+     * @param tasks      tasks of the run.
+     */
+    public Frame(FrameDescriptor descriptor, OutputSink output, InputSource input, TaskGroup tasks) {
+        this.stack = new CallStack(this, output, input, tasks);
+        this.global = this;
+        this.descriptor = descriptor;
+        this.slots = new KebabValue[descriptor.size()];
+    }
+
+    /**
+     * Create a frame of a function call.
+     *
+     * @param stack      stack owning the frame.
+     * @param descriptor slot layout of the function.
+     * @param caller     frame of the caller.
+     */
+    Frame(CallStack stack, FrameDescriptor descriptor, Frame caller) {
+        this.stack = stack;
+        this.global = caller.global;
+        this.descriptor = descriptor;
+        this.slots = new KebabValue[descriptor.size()];
+        this.caller = caller;
+    }
+
+    /**
+     * Create a copy of a frame for another thread.
+     *
+     * @param origin copied frame.
+     */
+    private Frame(Frame origin) {
+        this.stack = new CallStack(this, origin.getOutput(), origin.getInput(), origin.getTasks());
+        this.global = origin.global == origin ? this : origin.global;
+        this.descriptor = origin.descriptor;
+        this.slots = origin.slots.clone();
+        this.caller = origin.caller;
+    }
+
+    /**
+     * Create a copy of a frame for a task.
+     *
+     * @param origin copied frame.
+     * @param global copy of the global frame, {@code null} if this is the copy.
+     * @param caller copy of the caller.
+     * @param output where the task shows values.
+     */
+    private Frame(Frame origin, Frame global, Frame caller, OutputSink output) {
+        this.stack = global == null
+                ? new CallStack(this, output, origin.getInput(), origin.getTasks())
+                : global.stack;
+        this.global = global == null ? this : global;
+        this.descriptor = origin.descriptor;
+        this.slots = origin.slots.clone();
+        this.caller = caller;
+    }
+
+    /**
+     * Copy this frame for a thread running a part of a {@code _peach} loop. The copy has its own
+     * variables and call stack, it shares the callers of this frame and, unless this is the global
+     * frame, the global frame, which must only be read while the copy is in use.
+     *
+     * @return copy of this frame.
+     */
+    public Frame fork() {
+        return new Frame(this);
+    }
+
+    /**
+     * Copy this frame, its callers and the global frame for a task started with {@code _spawn}. The
+     * copies have a call stack of their own, so the task can run while this execution goes on and
+     * neither sees variables assigned by the other afterwards.
+     *
+     * @param output where the task shows values.
+     * @return copy of this frame.
+     */
+    public Frame snapshot(OutputSink output) {
+        List<Frame> callers = new ArrayList<>();
+        for (Frame frame = this; frame != null && frame != global; frame = frame.caller) {
+            callers.add(frame);
+        }
+
+        Frame copy = new Frame(global, null, null, output);
+        Frame globalCopy = copy;
+        for (int i = callers.size() - 1; i >= 0; i--) {
+            copy = new Frame(callers.get(i), globalCopy, copy, output);
+        }
+        return copy;
+    }
+
+    /**
+     * Reset the variables of a copy to those of the frame it was made from.
+     *
+     * @param origin frame the copy was made from with {@link #fork()}.
+     */
+    public void restore(Frame origin) {
+        System.arraycopy(origin.slots, 0, slots, 0, slots.length);
+    }
+
+    /**
+     * Reuse this frame for another call.
+     */
+    void enter(FrameDescriptor descriptor, Frame caller) {
+        this.descriptor = descriptor;
+        this.caller = caller;
+        if (slots.length < descriptor.size()) {
+            slots = new KebabValue[descriptor.size()];
+        }
+    }
+
+    /**
+     * Clear variables of a finished call.
+     */
+    void leave() {
+        Arrays.fill(slots, 0, descriptor.size(), null);
+        caller = null;
+        returned = null;
+    }
+
+    /**
+     * Push a frame for a function called from this frame.
+     *
+     * @param descriptor slot layout of the function.
+     * @return frame of the call, must be {@link #pop() popped} once the call is done.
+     */
+    public Frame push(FrameDescriptor descriptor) {
+        return stack.push(descriptor, this);
+    }
+
+    /**
+     * Pop this frame from the call stack.
+     */
+    public void pop() {
+        stack.pop();
+    }
+
+    public KebabValue get(int slot) {
+        return slots[slot];
+    }
+
+    public void set(int slot, KebabValue value) {
+        slots[slot] = value;
+    }
+
+    /**
+     * Mark a variable as not declared.
+     *
+     * @param slot slot of the variable.
+     */
+    public void clear(int slot) {
+        slots[slot] = null;
+    }
+
+    /**
+     * Store the value of a {@code _ret}, the block then completes with {@link KebabValue#RETURN}.
+     *
+     * @param value returned value.
+     */
+    public void setReturned(KebabValue value) {
+        returned = value;
+    }
+
+    /**
+     * Take the value stored by the last {@code _ret} executed in this frame.
+     *
+     * @return returned value.
+     */
+    public KebabValue takeReturned() {
+        KebabValue value = returned;
+        returned = null;
+        return value;
+    }
+
+    public Frame getCaller() {
+        return caller;
+    }
+
+    public Frame getGlobal() {
+        return global;
+    }
+
+    public CallStack getStack() {
+        return stack;
+    }
+
+    /**
+     * @return where the execution of this frame shows values.
+     */
+    public OutputSink getOutput() {
+        return stack.getOutput();
+    }
+
+    /**
+     * @return where the execution of this frame reads lines.
+     */
+    public InputSource getInput() {
+        return stack.getInput();
+    }
+
+    /**
+     * @return tasks of the run, which tasks spawned by this execution join.
+     */
+    public TaskGroup getTasks() {
+        return stack.getTasks();
+    }
+
+    /**
+     * Find the frame which currently declares a variable, starting from this frame and walking
+     * through the callers. Functions see variables of their callers, so this is how names which
+     * cannot be resolved at compile time are found.
+     *
+     * @param name variable name.
+     * @return frame declaring the variable or {@code null} if the variable is not declared.
+     */
+    public Frame lookup(String name) {
+        return lookup(descriptor.getNames().find(name));
+    }
+
+    /**
+     * Find the frame which currently declares a variable, by the number of its name.
+     *
+     * @param id number of the name, see {@link VariableNames}.
+     * @return frame declaring the variable or {@code null} if the variable is not declared.
+     */
+    public Frame lookup(int id) {
+        for (Frame frame = this; frame != null; frame = frame.caller) {
+            int slot = frame.descriptor.indexOf(id);
+            if (slot >= 0 && frame.slots[slot] != null) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a slot of a variable in this frame.
+     *
+     * @param id number of the name, see {@link VariableNames}.
+     * @return slot index or -1 if the name is never declared in this frame.
+     */
+    public int slotOf(int id) {
+        return descriptor.indexOf(id);
+    }
+}
@@ -0,0 +1,79 @@
+package kebab.lang.node.scope;
+
+import java.util.Arrays;
+
+/**
+ * Slot layout of a frame. Every distinct variable name of a function (or of the global code) gets
+ * its own slot, nested blocks share the frame of the function they are declared in.
+ */
+public class FrameDescriptor {
+
+    private final VariableNames names;
+    private int size;
+
+    // Slot of every name of the script by its number, -1 for names this frame never declares.
+    private int[] slots;
+
+    /**
+     * @param names numbers of the variable names of the script.
+     */
+    public FrameDescriptor(VariableNames names) {
+        this.names = names;
+        this.slots = new int[0];
+    }
+
+    /**
+     * Get the slot of a variable name, allocating a new slot if the name is not known yet.
+     *
+     * @param name variable name.
+     * @return slot index.
+     */
+    int allocate(String name) {
+        int id = names.idOf(name);
+        if (id >= slots.length) {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(id + 1, length * 2));
+            Arrays.fill(slots, length, slots.length, -1);
+        }
+        if (slots[id] < 0) {
+            slots[id] = size++;
+        }
+        return slots[id];
+    }
+
+    /**
+     * Find the slot of a variable name.
+     *
+     * @param name variable name.
+     * @return slot index or -1 if the name is never declared in this frame.
+     */
+    public int indexOf(String name) {
+        return indexOf(names.find(name));
+    }
+
+    /**
+     * Find the slot of a variable by the number of its name.
+     *
+     * @param id number of the name, see {@link VariableNames}.
+     * @return slot index or -1 if the name is never declared in this frame.
+     */
+    public int indexOf(int id) {
+        return id >= 0 && id < slots.length ? slots[id] : -1;
+    }
+
+    /**
+     * @return numbers of the variable names of the script.
+     */
+    public VariableNames getNames() {
+        return names;
+    }
+
+    /**
+     * Get the amount of slots a frame of this layout needs.
+     *
+     * @return slot count.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,37 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.value.KebabValue;
+
+/**
+ * A variable used inside a function which can only be declared by the global code, because no
+ * function declares a variable with such name.
+ */
+public class GlobalVariable extends Variable {
+
+    private final int slot;
+
+    public GlobalVariable(String identifier, int slot) {
+        super(identifier);
+        this.slot = slot;
+    }
+
+    @Override
+    public KebabValue get(Frame frame) {
+        return frame.getGlobal().get(slot);
+    }
+
+    @Override
+    public boolean set(Frame frame, KebabValue value) {
+        Frame global = frame.getGlobal();
+        if (global.get(slot) == null) {
+            return false;
+        }
+        global.set(slot, value);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "global " + identifier + "@" + slot;
+    }
+}
@@ -0,0 +1,36 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.value.KebabValue;
+
+/**
+ * A variable declared in the current frame.
+ */
+public class LocalVariable extends Variable {
+
+    private final int slot;
+
+    public LocalVariable(String identifier, int slot) {
+        super(identifier);
+        this.slot = slot;
+    }
+
+    @Override
+    public KebabValue get(Frame frame) {
+        return frame.get(slot);
+    }
+
+    @Override
+    public boolean set(Frame frame, KebabValue value) {
+        frame.set(slot, value);
+        return true;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return identifier + "@" + slot;
+    }
+}
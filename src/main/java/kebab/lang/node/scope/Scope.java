@@ -0,0 +1,99 @@
+package kebab.lang.node.scope;
+
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compile time view of a block, tracks which variables are visible at the current position and
+ * which slots they live in.
+ */
+public class Scope {
+
+    private final Map<String, Integer> variables;
+    private final List<Integer> declared;
+    private final FrameDescriptor frame;
+    private final Scope parent;
+
+    /**
+     * Create the outermost scope of a frame.
+     *
+     * @param frame frame layout the variables are allocated in.
+     */
+    public Scope(FrameDescriptor frame) {
+        this(frame, null);
+    }
+
+    /**
+     * Create a nested scope sharing the frame of its parent.
+     *
+     * @param parent enclosing scope.
+     */
+    public Scope(Scope parent) {
+        this(parent.frame, parent);
+    }
+
+    private Scope(FrameDescriptor frame, Scope parent) {
+        this.variables = new HashMap<>();
+        this.declared = new ArrayList<>();
+        this.frame = frame;
+        this.parent = parent;
+    }
+
+    /**
+     * Declare a new variable.
+     *
+     * @param token    token start where the declaration happens.
+     * @param variable variable identifier.
+     * @return slot of the variable.
+     */
+    public int declare(Token token, String variable) {
+        if (resolve(variable) >= 0) {
+
+            // Do not re-assign a variable by default.
+            throw new KebabException(token, "Variable '%s' already declared in this scope",
+                    variable);
+        }
+        int slot = frame.allocate(variable);
+        variables.put(variable, slot);
+        declared.add(slot);
+        return slot;
+    }
+
+    /**
+     * Find a variable visible from this scope.
+     *
+     * @param variable variable identifier.
+     * @return slot of the variable or -1 if it is not visible.
+     */
+    public int resolve(String variable) {
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            Integer slot = scope.variables.get(variable);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get slots declared directly in this scope, these are cleared once the block is left.
+     *
+     * @return declared slots.
+     */
+    public int[] getDeclaredSlots() {
+        int[] slots = new int[declared.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = declared.get(i);
+        }
+        return slots;
+    }
+
+    public FrameDescriptor getFrame() {
+        return frame;
+    }
+}
@@ -0,0 +1,36 @@
+package kebab.lang.node.scope;
+
+import kebab.lang.value.KebabValue;
+
+/**
+ * A variable reference resolved at compile time.
+ */
+public abstract class Variable {
+
+    protected final String identifier;
+
+    protected Variable(String identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * Read the variable.
+     *
+     * @param frame current frame.
+     * @return variable value or {@code null} if the variable is not declared.
+     */
+    public abstract KebabValue get(Frame frame);
+
+    /**
+     * Re-assign the variable.
+     *
+     * @param frame current frame.
+     * @param value new variable value.
+     * @return false if the variable is not declared.
+     */
+    public abstract boolean set(Frame frame, KebabValue value);
+
+    public String getIdentifier() {
+        return identifier;
+    }
+}
@@ -0,0 +1,40 @@
+package kebab.lang.node.scope;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Numbers the variable names of a compiled script. Frame descriptors of the script find the slot of
+ * a name by its number, so looking up a variable through the callers reads an array per frame
+ * instead of comparing names. Filled while compiling, only read once the script runs.
+ */
+public class VariableNames {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Get the number of a name, numbering it if it is new.
+     *
+     * @param name variable name.
+     * @return number of the name.
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = ids.size();
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Find the number of a name.
+     *
+     * @param name variable name.
+     * @return number of the name or -1 if no variable of the script has that name.
+     */
+    int find(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+}
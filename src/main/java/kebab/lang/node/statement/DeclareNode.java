@@ -0,0 +1,77 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.LocalVariable;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Assignment/creation of a variable. Redeclaration within the frame is rejected at compile time,
+ * declarations inside functions additionally check variables of the callers.
+ * <pre>
+ * assignment
+ *  : Keb identifier ':' expression
+ *  | Keb identifier
+ *  ;
+ * </pre>
+ */
+public class DeclareNode extends Node {
+
+    private final LocalVariable variable;
+    private final Node value;
+    private final boolean checkCallers;
+
+    /**
+     * @param value        initial value of the variable, {@code null} to declare an empty variable.
+     * @param checkCallers true if the declaration is inside a function.
+     */
+    public DeclareNode(ParserRuleContext context, LocalVariable variable, Node value, boolean checkCallers) {
+        super(context);
+        this.variable = variable;
+        this.value = value;
+        this.checkCallers = checkCallers;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+
+        // Variable created without assignment is empty.
+        KebabValue newValue = value == null ? KebabValue.EMPTY : value.execute(frame);
+        if (checkCallers) {
+            checkCallers(context, frame, variable.getIdentifier());
+        }
+        variable.set(frame, newValue);
+        return KebabValue.VOID;
+    }
+
+    public LocalVariable getVariable() {
+        return variable;
+    }
+
+    @Override
+    protected String describe() {
+        return variable.toString();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{value};
+    }
+
+    /**
+     * Make sure none of the callers of a function has a variable with the same name.
+     *
+     * @param context  declaration context.
+     * @param frame    frame of the function.
+     * @param variable variable identifier.
+     */
+    public static void checkCallers(ParserRuleContext context, Frame frame, String variable) {
+        Frame caller = frame.getCaller();
+        if (caller != null && caller.lookup(variable) != null) {
+            throw new KebabException(context.start, "Variable '%s' already declared in this scope",
+                    variable);
+        }
+    }
+}
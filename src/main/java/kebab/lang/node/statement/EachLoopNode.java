@@ -0,0 +1,93 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.LocalVariable;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * A for-each loop for strings, lists, map keys and sequences.
+ * <pre>
+ * eachLoopStatement
+ *  : Loop '(' identifier Colon expression ')' Open block Close
+ *  ;
+ * </pre>
+ */
+public class EachLoopNode extends Node {
+
+    private final LocalVariable variable;
+    private final Node iterable;
+    private final BlockNode body;
+    private final boolean checkCallers;
+
+    /**
+     * @param checkCallers true if the loop is inside a function.
+     */
+    public EachLoopNode(ParserRuleContext context,
+                        LocalVariable variable,
+                        Node iterable,
+                        BlockNode body,
+                        boolean checkCallers) {
+
+        super(context);
+        this.variable = variable;
+        this.iterable = iterable;
+        this.body = body;
+        this.checkCallers = checkCallers;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue iterate = iterable.execute(frame);
+        if (!iterate.isString() && !iterate.isList() && !iterate.isMap() && !iterate.isSequence()) {
+            throw new KebabException(context.start,
+                    "Cannot iterate a non-string, non-list, non-map or non-sequence in a _loop");
+        }
+
+        // Make sure callers don't have a variable like this already.
+        if (checkCallers) {
+            DeclareNode.checkCallers(context, frame, variable.getIdentifier());
+        }
+        variable.set(frame, KebabValue.EMPTY);
+        if (iterate.isString()) {
+
+            // Iterate a list of string.
+            String string = iterate.asString();
+            for (int i = 0; i < string.length(); i++) {
+                variable.set(frame, KebabValue.valueOf(string.charAt(i)));
+                if (body.execute(frame) == KebabValue.RETURN) {
+                    return KebabValue.RETURN;
+                }
+            }
+        } else {
+
+            // Iterate a list, the keys of a map or a sequence.
+            Iterable<KebabValue> values = iterate.isList() ? iterate.asList()
+                    : iterate.isMap() ? iterate.asMap().keySet()
+                    : iterate.asSequence();
+            for (KebabValue value : values) {
+                variable.set(frame, value);
+                if (body.execute(frame) == KebabValue.RETURN) {
+                    return KebabValue.RETURN;
+                }
+            }
+        }
+
+        // Clear the local for loop variable.
+        frame.clear(variable.getSlot());
+        return KebabValue.VOID;
+    }
+
+    @Override
+    protected String describe() {
+        return variable.toString();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{iterable, body};
+    }
+}
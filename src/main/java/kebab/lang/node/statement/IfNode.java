@@ -0,0 +1,76 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Complete if statement, {@code _elif} branches are flattened into the condition array.
+ * <pre>
+ * completeIfStatement
+ *  : ifStatement elseIfStatement* elseStatement? Close
+ *  ;
+ * </pre>
+ */
+public class IfNode extends Node {
+
+    private final Node[] conditions;
+    private final BlockNode[] blocks;
+    private final BlockNode elseBlock;
+
+    /**
+     * @param elseBlock {@code _el} block, {@code null} if there is none.
+     */
+    public IfNode(ParserRuleContext context, Node[] conditions, BlockNode[] blocks, BlockNode elseBlock) {
+        super(context);
+        this.conditions = conditions;
+        this.blocks = blocks;
+        this.elseBlock = elseBlock;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+
+        // _if(...) and _elif(...)
+        for (int i = 0; i < conditions.length; i++) {
+            if (conditions[i].execute(frame).asBoolean()) {
+                return blocks[i].execute(frame);
+            }
+        }
+
+        // _el(...)
+        if (elseBlock != null) {
+            return elseBlock.execute(frame);
+        }
+
+        return KebabValue.VOID;
+    }
+
+    public Node[] getConditions() {
+        return conditions;
+    }
+
+    public BlockNode[] getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return {@code _el} block, {@code null} if there is none.
+     */
+    public BlockNode getElseBlock() {
+        return elseBlock;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        Node[] children = new Node[conditions.length * 2 + 1];
+        for (int i = 0; i < conditions.length; i++) {
+            children[i * 2] = conditions[i];
+            children[i * 2 + 1] = blocks[i];
+        }
+        children[children.length - 1] = elseBlock;
+        return children;
+    }
+}
@@ -0,0 +1,84 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.expression.VariableNode;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabList;
+import kebab.lang.value.KebabMap;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Assignment of a list element or map key, with or without {@code keb}.
+ * <pre>
+ * : Keb? identifier indexes ':' expression
+ * </pre>
+ */
+public class IndexAssignNode extends Node {
+
+    private final VariableNode target;
+    private final Node[] indexes;
+    private final Node value;
+
+    /**
+     * @param target variable holding the list or map, gets the updated one.
+     */
+    public IndexAssignNode(ParserRuleContext context, VariableNode target, Node[] indexes, Node value) {
+        super(context);
+        this.target = target;
+        this.indexes = indexes;
+        this.value = value;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        KebabValue newVal = value.execute(frame);
+        KebabValue val = target.execute(frame);
+        KebabValue[] keys = new KebabValue[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            keys[i] = indexes[i].execute(frame);
+        }
+        target.getVariable().set(frame, update(val, keys, 0, newVal));
+        return KebabValue.VOID;
+    }
+
+    /**
+     * Lists and maps are immutable, so an element is set by rebuilding the path of nested values to
+     * it.
+     */
+    private KebabValue update(KebabValue val, KebabValue[] keys, int depth, KebabValue newVal) {
+        KebabValue key = keys[depth];
+        if (val.isMap()) {
+            KebabMap map = val.asMap();
+            if (depth < keys.length - 1) {
+                KebabValue element = map.get(key);
+                if (element == null) {
+                    throw new KebabException(context.start, "No key: '%s' in map", key);
+                }
+                newVal = update(element, keys, depth + 1, newVal);
+            }
+            return new KebabValue(map.update(key, newVal));
+        }
+
+        // TODO some more list size checking in here
+        if (!val.isList() || !key.isNumber()) {
+            throw error();
+        }
+        KebabList list = val.asList();
+        int i = (int) key.doubleValue();
+        if (depth < keys.length - 1) {
+            newVal = update(list.get(i), keys, depth + 1, newVal);
+        }
+        return new KebabValue(list.update(i, newVal));
+    }
+
+    @Override
+    public Node[] getChildren() {
+        Node[] children = new Node[indexes.length + 2];
+        children[0] = target;
+        System.arraycopy(indexes, 0, children, 1, indexes.length);
+        children[indexes.length + 1] = value;
+        return children;
+    }
+}
@@ -0,0 +1,54 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.BlockNode;
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.value.KebabValue;
+import kebab.lang.value.Task;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * A simple while loop.
+ * <pre>
+ * loopStatement
+ *  : Loop '(' expression ')' Open block Close
+ *  ;
+ * </pre>
+ */
+public class LoopNode extends Node {
+
+    private final Node condition;
+    private final BlockNode body;
+
+    public LoopNode(ParserRuleContext context, Node condition, BlockNode body) {
+        super(context);
+        this.condition = condition;
+        this.body = body;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+
+        // Check loop condition all the time.
+        while (condition.execute(frame).asBoolean()) {
+            if (body.execute(frame) == KebabValue.RETURN) {
+                return KebabValue.RETURN;
+            }
+            Task.checkCancelled();
+        }
+        return KebabValue.VOID;
+    }
+
+    public Node getCondition() {
+        return condition;
+    }
+
+    public BlockNode getBody() {
+        return body;
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{condition, body};
+    }
+}
@@ -0,0 +1,53 @@
+package kebab.lang.node.statement;
+
+import kebab.lang.node.Node;
+import kebab.lang.node.scope.Frame;
+import kebab.lang.node.scope.Variable;
+import kebab.lang.value.KebabValue;
+import kebab.util.KebabException;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+/**
+ * Reassignment to variable.
+ * <pre>
+ * reAssignment
+ *  : identifier ':' expression
+ *  ;
+ * </pre>
+ */
+public class ReAssignNode extends Node {
+
+    private final Variable variable;
+    private final Node value;
+
+    public ReAssignNode(ParserRuleContext context, Variable variable, Node value) {
+        super(context);
+        this.variable = variable;
+        this.value = value;
+    }
+
+    @Override
+    public KebabValue execute(Frame frame) {
+        if (!variable.set(frame, value.execute(frame))) {
+
+            // The variable was not declared in this scope.
+            throw new KebabException(context.start, "Variable '%s' is not declared in this scope",
+                    variable.getIdentifier());
+        }
+        return KebabValue.VOID;
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    @Override
+    protected String describe() {
+        return variable.toString();
+    }
+
+    @Override
+    public Node[] getChildren() {
+        return new Node[]{value};
+    }
+}
@@ -0,0 +1,133 @@
+package kebab.lang.output;
+
+import kebab.util.KebabException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sink encoding text into a byte buffer with the default charset, like {@link System#out} does. The
+ * buffer is written out according to a {@link FlushPolicy}.
+ */
+public abstract class BufferedSink implements OutputSink {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final FlushPolicy policy;
+    private final CharsetEncoder encoder;
+    private final boolean asciiCompatible;
+    private final boolean direct;
+    private ByteBuffer buffer;
+
+    /**
+     * @param capacity buffer size in bytes, the initial size with {@link FlushPolicy#ON_EXIT}.
+     * @param policy   when to write the buffer out.
+     * @param direct   true to allocate a direct buffer.
+     */
+    protected BufferedSink(int capacity, FlushPolicy policy, boolean direct) {
+        this.policy = policy;
+        this.direct = direct;
+        this.buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+
+        Charset charset = Charset.defaultCharset();
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void write(String text) {
+        encode(text);
+    }
+
+    @Override
+    public void writeLine(String text) {
+        encode(text);
+        encode(LINE_SEPARATOR);
+        if (policy == FlushPolicy.ON_NEWLINE) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        buffer.flip();
+        try {
+            if (buffer.hasRemaining()) {
+                drain(buffer);
+            }
+        } catch (IOException e) {
+            throw new KebabException("Cannot write output: %s", e.getMessage());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Write out the buffered bytes.
+     *
+     * @param bytes buffer ready to be read, between its position and limit.
+     */
+    protected abstract void drain(ByteBuffer bytes) throws IOException;
+
+    private void encode(String text) {
+
+        // Plain ASCII needs no encoder.
+        int length = text.length();
+        if (asciiCompatible && length <= buffer.remaining() && isAscii(text)) {
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+            return;
+        }
+
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                makeRoom();
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            makeRoom();
+        }
+    }
+
+    private void makeRoom() {
+        if (policy != FlushPolicy.ON_EXIT && buffer.position() > 0) {
+            flush();
+            return;
+        }
+
+        // Output is kept until the end, or a single character does not fit at all.
+
+        ByteBuffer grown = direct ? ByteBuffer.allocateDirect(buffer.capacity() * 2)
+                : ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package kebab.lang.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sink writing a direct buffer straight to a channel, such as a {@link java.nio.channels.FileChannel}.
+ */
+public class ChannelSink extends BufferedSink {
+
+    private final WritableByteChannel channel;
+
+    public ChannelSink(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY, FlushPolicy.ON_SIZE);
+    }
+
+    public ChannelSink(WritableByteChannel channel, int capacity, FlushPolicy policy) {
+        super(capacity, policy, true);
+        this.channel = channel;
+    }
+
+    @Override
+    protected void drain(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package kebab.lang.output;
+
+/**
+ * When a buffered sink writes its buffer out.
+ */
+public enum FlushPolicy {
+
+    /**
+     * Only once the execution ends, the buffer grows to hold all output.
+     */
+    ON_EXIT,
+
+    /**
+     * Whenever the buffer is full, and once the execution ends.
+     */
+    ON_SIZE,
+
+    /**
+     * After every line, for interactive use.
+     */
+    ON_NEWLINE
+}
@@ -0,0 +1,39 @@
+package kebab.lang.output;
+
+/**
+ * Sink collecting output in memory, for embedders which want the output as a string.
+ */
+public class MemorySink implements OutputSink {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public void write(String text) {
+        this.text.append(text);
+    }
+
+    @Override
+    public void writeLine(String text) {
+        this.text.append(text).append(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * @return everything shown so far.
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Forget everything shown so far.
+     */
+    public void clear() {
+        text.setLength(0);
+    }
+}
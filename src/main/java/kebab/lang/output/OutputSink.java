@@ -0,0 +1,27 @@
+package kebab.lang.output;
+
+/**
+ * Destination of everything a script shows with {@code show} and {@code showl}. A sink is used by
+ * one execution at a time, the engine flushes it when the execution ends.
+ */
+public interface OutputSink {
+
+    /**
+     * Show text, {@code show(...)}.
+     *
+     * @param text text to show.
+     */
+    void write(String text);
+
+    /**
+     * Show text followed by a line separator, {@code showl(...)}.
+     *
+     * @param text text to show, empty for an empty line.
+     */
+    void writeLine(String text);
+
+    /**
+     * Write out anything still buffered.
+     */
+    void flush();
+}
@@ -0,0 +1,29 @@
+package kebab.lang.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink writing its buffer to an output stream in large chunks, the stream is flushed after every
+ * chunk. Scripts show values on {@link System#out} through this sink by default.
+ */
+public class StreamSink extends BufferedSink {
+
+    private final OutputStream stream;
+
+    public StreamSink(OutputStream stream) {
+        this(stream, DEFAULT_CAPACITY, FlushPolicy.ON_SIZE);
+    }
+
+    public StreamSink(OutputStream stream, int capacity, FlushPolicy policy) {
+        super(capacity, policy, false);
+        this.stream = stream;
+    }
+
+    @Override
+    protected void drain(ByteBuffer bytes) throws IOException {
+        stream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        stream.flush();
+    }
+}
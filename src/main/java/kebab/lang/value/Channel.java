@@ -0,0 +1,168 @@
+package kebab.lang.value;
+
+import kebab.util.KebabException;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of values passed between tasks, {@code channel(capacity)}. Sending to a full channel
+ * waits for room and receiving from an empty one waits for a value. Once a channel is closed nothing
+ * more can be sent and receivers get the values still queued. Values are immutable, so a list sent
+ * through a channel stays as it was when it was sent.
+ * <p>
+ * A channel is a sequence of the values received from it: a loop over a channel ends once the
+ * channel is closed and drained.
+ * <p>
+ * A task which fails closes the channels it could send to with {@link #fail(Throwable)}, receivers
+ * then get an error once the channel is drained instead of waiting for values which never come.
+ */
+public final class Channel implements Iterable<KebabValue> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private final ArrayDeque<KebabValue> values;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Guarded by lock.
+    private boolean closed;
+    private Throwable failure;
+
+    public Channel(int capacity) {
+        this.capacity = capacity;
+        this.values = new ArrayDeque<>(Math.min(capacity, INITIAL_CAPACITY));
+    }
+
+    /**
+     * Queue a value, waiting while the channel is full.
+     *
+     * @param value sent value.
+     * @return false if the channel is closed.
+     */
+    public boolean send(KebabValue value) {
+        Task.sending(this);
+        lock.lock();
+        try {
+            while (values.size() == capacity && !closed) {
+                await(notFull);
+            }
+            if (closed) {
+                return false;
+            }
+            values.add(value);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the oldest value, waiting while the channel is empty and open.
+     *
+     * @return received value or {@code null} if the channel is closed and drained.
+     * @throws KebabException if the channel is drained and was closed by a failing task.
+     */
+    public KebabValue receive() {
+        lock.lock();
+        try {
+            while (values.isEmpty() && !closed) {
+                await(notEmpty);
+            }
+            KebabValue value = values.poll();
+            if (value != null) {
+                notFull.signal();
+            } else if (failure != null) {
+                throw new KebabException("Channel was closed by a failed task: %s", describe(failure));
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the channel, waiting senders and receivers are woken up.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the channel for a task which failed, unless it is closed already. Values already sent
+     * can still be received, after them receivers get an error.
+     *
+     * @param failure error the task failed with.
+     */
+    public void fail(Throwable failure) {
+        lock.lock();
+        try {
+            if (!closed) {
+                this.failure = failure;
+                close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<KebabValue> iterator() {
+        return new Iterator<KebabValue>() {
+
+            private KebabValue next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = receive();
+                }
+                return next != null;
+            }
+
+            @Override
+            public KebabValue next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                KebabValue value = next;
+                next = null;
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "channel";
+    }
+
+    /**
+     * Describe an error of a task, errors of scripts already tell where they happened.
+     */
+    static String describe(Throwable error) {
+        return error instanceof KebabException ? error.getMessage() : error.toString();
+    }
+
+    private static void await(Condition condition) {
+        try {
+            condition.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KebabException("Interrupted while waiting for a channel");
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package kebab.lang.value;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Immutable list of kebab values. Lists have value semantics: appending, removing or updating an
+ * element creates a new list, which shares all untouched parts with the original one.
+ * <p>
+ * Elements are kept in a trie of 32 element arrays plus a tail array holding the last elements,
+ * as in a persistent vector. Reading and updating an element takes O(log32 n) and appending takes
+ * amortised O(1): the tail has spare room, and the first list appending to a tail claims the next
+ * free slot instead of copying it.
+ * <p>
+ * Lists searched repeatedly with {@code in} build a {@link ListIndex}, which is passed on to the
+ * lists appended to them. Updated or removed elements leave the new list without an index.
+ */
+public final class KebabList extends AbstractList<KebabValue> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+    // Lists this long are indexed once they are searched more than once.
+    private static final int INDEX_THRESHOLD = 32;
+
+    public static final KebabList EMPTY = new KebabList(0, BITS, EMPTY_NODE, new Tail(new Object[0], 0));
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Tail tail;
+
+    private volatile ListIndex index;
+    private int searches;
+
+    private KebabList(int size, int shift, Object[] root, Tail tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Create a list of the given values.
+     *
+     * @param values list elements.
+     * @return new list.
+     */
+    public static KebabList of(Iterable<KebabValue> values) {
+        Builder builder = new Builder();
+        for (KebabValue value : values) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public KebabValue get(int index) {
+        checkIndex(index);
+        return (KebabValue) leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a list with a value added at the end.
+     *
+     * @param value appended value.
+     * @return new list.
+     */
+    public KebabList append(KebabValue value) {
+        KebabList list = appended(value);
+
+        // Lists grown by appending are searched like the list they came from.
+        list.searches = searches;
+        ListIndex index = this.index;
+        if (index != null && index.extend(list, value)) {
+            list.index = index;
+        }
+        return list;
+    }
+
+    private KebabList appended(KebabValue value) {
+
+        // Room left in the tail, which is shared if no other list has taken the slot yet.
+        int length = size - tailOffset();
+        if (length < WIDTH) {
+            if (tail.claim(length)) {
+                tail.values[length] = value;
+                return new KebabList(size + 1, shift, root, tail);
+            }
+
+            Object[] values = Arrays.copyOf(tail.values, capacity(length + 1));
+            values[length] = value;
+            return new KebabList(size + 1, shift, root, new Tail(values, length + 1));
+        }
+
+        // Full tail moves into the trie, which grows a level once the root is full.
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail.values);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail.values);
+        }
+
+        Object[] values = new Object[capacity(1)];
+        values[0] = value;
+        return new KebabList(size + 1, newShift, newRoot, new Tail(values, 1));
+    }
+
+    /**
+     * Check if the list contains a value, searching an index instead of the elements once the list
+     * is searched repeatedly.
+     *
+     * @param element value to look for.
+     * @return true if an element equals the value.
+     */
+    @Override
+    public boolean contains(Object element) {
+        if (!(element instanceof KebabValue)) {
+            return false;
+        }
+
+        KebabValue value = (KebabValue) element;
+        boolean indexable = !value.isList() && !value.isMap() && !value.isVoid();
+        ListIndex index = this.index;
+        if (index == null && indexable && size >= INDEX_THRESHOLD && ++searches > 1) {
+            index = new ListIndex(this);
+            this.index = index;
+        }
+        if (index != null && indexable) {
+            return index.contains(this, value);
+        }
+
+        for (KebabValue other : this) {
+            if (other.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a list with an element replaced.
+     *
+     * @param index element index.
+     * @param value new element value.
+     * @return new list.
+     */
+    public KebabList update(int index, KebabValue value) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            int length = size - tailOffset();
+            Object[] values = Arrays.copyOf(tail.values, capacity(length));
+            values[index & MASK] = value;
+            return new KebabList(size, shift, root, new Tail(values, length));
+        }
+        return new KebabList(size, shift, update(shift, root, index, value), tail);
+    }
+
+    /**
+     * Create a list without the first element equal to a value.
+     *
+     * @param value removed value.
+     * @return new list, or this list if it does not contain the value.
+     */
+    public KebabList remove(KebabValue value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            return this;
+        }
+
+        Builder builder = new Builder();
+        int i = 0;
+        for (KebabValue element : this) {
+            if (i++ != index) {
+                builder.add(element);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create a list with the elements of another list added at the end, only this list's tail and
+     * the right edge of its trie are copied.
+     *
+     * @param other appended list.
+     * @return new list.
+     */
+    public KebabList concat(KebabList other) {
+        KebabList list = this;
+        for (KebabValue value : other) {
+            list = list.append(value);
+        }
+        return list;
+    }
+
+    @Override
+    public Iterator<KebabValue> iterator() {
+        return new Iterator<KebabValue>() {
+
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public KebabValue next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (KebabValue) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Get index of the first element which is not in the trie.
+     */
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Get the array holding an element.
+     */
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail.values;
+        }
+
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] leaf) {
+        int child = ((size - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+        if (level == BITS) {
+            node[child] = leaf;
+        } else {
+            Object[] next = (Object[]) parent[child];
+            node[child] = next != null ? pushTail(level - BITS, next, leaf) : newPath(level - BITS, leaf);
+        }
+        return node;
+    }
+
+    /**
+     * Get the size of a tail array for some elements, leaving room to append.
+     */
+    private static int capacity(int length) {
+        return length <= 4 ? 4 : Math.min(WIDTH, Integer.highestOneBit(length - 1) << 1);
+    }
+
+    private static Object[] newPath(int level, Object[] leaf) {
+        if (level == 0) {
+            return leaf;
+        }
+        Object[] node = new Object[WIDTH];
+        node[0] = newPath(level - BITS, leaf);
+        return node;
+    }
+
+    private static Object[] update(int level, Object[] node, int index, KebabValue value) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = value;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = update(level - BITS, (Object[]) node[child], index, value);
+        }
+        return copy;
+    }
+
+    /**
+     * Collects values and builds the trie in one pass, which is cheaper than appending them one by
+     * one to a list.
+     */
+    public static final class Builder {
+
+        private Object[] values = new Object[WIDTH];
+        private int size;
+
+        public Builder add(KebabValue value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            return this;
+        }
+
+        public KebabList build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            // Last partial, or full, chunk of values is the tail.
+            int tailOffset = size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+            Object[] tail = Arrays.copyOfRange(values, tailOffset, tailOffset + capacity(size - tailOffset));
+
+            Object[][] nodes = new Object[tailOffset >>> BITS][];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = Arrays.copyOfRange(values, i << BITS, (i + 1) << BITS);
+            }
+
+            // Group nodes into parents until a single root is left.
+            int shift = BITS;
+            while (nodes.length > WIDTH) {
+                Object[][] parents = new Object[(nodes.length + MASK) >>> BITS][];
+                for (int i = 0; i < parents.length; i++) {
+                    parents[i] = new Object[WIDTH];
+                    int count = Math.min(WIDTH, nodes.length - (i << BITS));
+                    System.arraycopy(nodes, i << BITS, parents[i], 0, count);
+                }
+                nodes = parents;
+                shift += BITS;
+            }
+
+            Object[] root = new Object[WIDTH];
+            System.arraycopy(nodes, 0, root, 0, nodes.length);
+            return new KebabList(size, shift, root, new Tail(tail, size - tailOffset));
+        }
+    }
+
+    /**
+     * Last elements of one or more lists. Lists sharing a tail see only its first
+     * {@code size - tailOffset()} elements, so the slots after the longest of them are free.
+     */
+    private static final class Tail {
+
+        private static final AtomicIntegerFieldUpdater<Tail> USED =
+                AtomicIntegerFieldUpdater.newUpdater(Tail.class, "used");
+
+        private final Object[] values;
+        private volatile int used;
+
+        Tail(Object[] values, int used) {
+            this.values = values;
+            this.used = used;
+        }
+
+        /**
+         * Take the free slot after some elements, which works once per slot.
+         *
+         * @param length elements of the list taking the slot.
+         * @return true if the slot can be written.
+         */
+        boolean claim(int length) {
+            return length < values.length && used == length && USED.compareAndSet(this, length, length + 1);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package kebab.lang.value;
+
+import kebab.util.KebabException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Immutable map of kebab values keyed by strings, numbers or booleans. Maps have value semantics
+ * like lists: setting or removing a key creates a new map. Keys are iterated in insertion order.
+ * <p>
+ * Entries are kept in an open addressing hash table made of parallel arrays, with hashes and number
+ * keys stored as primitives. The table is a log of writes: a write to the map which made the latest
+ * write is appended in place, and maps only see the entries written before them, so taking a new map
+ * costs O(1). Any other write, or a write to a full table, copies the live entries into a new table.
+ * <p>
+ * Numbers are equal within {@link KebabValue#EPSILON}, which no hash code can respect. They are
+ * hashed by the nearest multiple of 2^-20, so numbers closer than epsilon share a hash unless they
+ * lie around the middle of two multiples, where the neighbouring multiple is tried as well.
+ */
+public final class KebabMap extends AbstractMap<KebabValue, KebabValue> {
+
+    // Number keys are hashed by their nearest multiple of 1 / SCALE.
+    private static final double SCALE = 0x1p20;
+    private static final double BORDER = KebabValue.EPSILON * SCALE;
+
+    private static final int MIN_CAPACITY = 4;
+
+    public static final KebabMap EMPTY = new KebabMap(new Table(0), 0, 0);
+
+    private final Table table;
+    private final int used;
+    private final int size;
+
+    private KebabMap(Table table, int used, int size) {
+        this.table = table;
+        this.used = used;
+        this.size = size;
+    }
+
+    /**
+     * Check if a value can be used as a key.
+     *
+     * @param key checked value.
+     * @return true for strings, numbers and booleans.
+     */
+    public static boolean isKey(Object key) {
+        if (!(key instanceof KebabValue)) {
+            return false;
+        }
+        KebabValue value = (KebabValue) key;
+        return value.isString() || value.isNumber() || value.isBoolean();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public KebabValue get(Object key) {
+        if (!isKey(key)) {
+            return null;
+        }
+        int slot = locate(table, (KebabValue) key);
+        return slot >= 0 ? table.get(slot, used) : null;
+    }
+
+    /**
+     * Create a map with a key set to a value.
+     *
+     * @param key   string, number or boolean key.
+     * @param value new value of the key.
+     * @return new map.
+     */
+    public KebabMap update(KebabValue key, KebabValue value) {
+        if (!isKey(key)) {
+            throw new KebabException("Cannot use '%s' as a map key", key);
+        }
+        int slot = locate(table, key);
+        boolean present = slot >= 0 && table.get(slot, used) != null;
+        return write(key, value, slot, present ? size : size + 1);
+    }
+
+    /**
+     * Create a map without a key.
+     *
+     * @param key removed key.
+     * @return new map, or this map if it does not contain the key.
+     */
+    public KebabMap remove(KebabValue key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        return write(key, null, locate(table, key), size - 1);
+    }
+
+    @Override
+    public Set<KebabValue> keySet() {
+        return new AbstractSet<KebabValue>() {
+
+            @Override
+            public Iterator<KebabValue> iterator() {
+                return new Cursor<KebabValue>() {
+
+                    @Override
+                    KebabValue at(int entry) {
+                        return table.keys[entry];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<KebabValue, KebabValue>> entrySet() {
+        return new AbstractSet<Entry<KebabValue, KebabValue>>() {
+
+            @Override
+            public Iterator<Entry<KebabValue, KebabValue>> iterator() {
+                return new Cursor<Entry<KebabValue, KebabValue>>() {
+
+                    @Override
+                    Entry<KebabValue, KebabValue> at(int entry) {
+                        return new SimpleImmutableEntry<>(table.keys[entry], table.values[entry]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Entry<KebabValue, KebabValue> entry : entrySet()) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Write a key, a null value removes it.
+     *
+     * @param slot slot of the key in this map's table, as returned by {@link #locate}.
+     * @param size size of the new map.
+     */
+    private KebabMap write(KebabValue key, KebabValue value, int slot, int size) {
+        Table table = this.table;
+        int position = used;
+        if (!table.claim(position)) {
+
+            // Someone else wrote to the table or it is full, continue in a copy.
+            table = copy();
+            position = this.size;
+            slot = locate(table, key);
+        }
+        table.append(position, key, value, slot);
+        return new KebabMap(table, position + 1, size);
+    }
+
+    /**
+     * Copy the live entries into a new table, with the slot after them claimed.
+     */
+    private Table copy() {
+        Table copy = new Table(Math.max(MIN_CAPACITY, 2 * (size + 1)));
+        int position = 0;
+        for (Entry<KebabValue, KebabValue> entry : entrySet()) {
+            KebabValue key = entry.getKey();
+            copy.append(position++, key, entry.getValue(), copy.locate(key, hash(key)));
+        }
+        copy.used = position + 1;
+        return copy;
+    }
+
+    /**
+     * Find the slot of a key.
+     *
+     * @return slot index, or {@code -1 - free} with the free slot where the key would be added.
+     */
+    private static int locate(Table table, KebabValue key) {
+        if (!key.isNumber()) {
+            return table.locate(key, hash(key));
+        }
+
+        double scaled = key.doubleValue() * SCALE + 0.5;
+        double multiple = Math.floor(scaled);
+        int slot = table.locate(key, hash(multiple));
+        if (slot < 0 && scaled - multiple < BORDER) {
+            int lower = table.locate(key, hash(multiple - 1));
+            slot = lower >= 0 ? lower : slot;
+        }
+        if (slot < 0 && multiple + 1 - scaled < BORDER) {
+            int upper = table.locate(key, hash(multiple + 1));
+            slot = upper >= 0 ? upper : slot;
+        }
+        return slot;
+    }
+
+    private static int hash(KebabValue key) {
+        if (key.isNumber()) {
+            return hash(Math.floor(key.doubleValue() * SCALE + 0.5));
+        }
+        int hash = key.isString() ? key.asString().hashCode() : key.get().hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(double multiple) {
+        return Long.hashCode((long) multiple * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Walks the entries of this map in insertion order.
+     */
+    private abstract class Cursor<T> implements Iterator<T> {
+
+        private int position;
+        private int entry = advance();
+
+        @Override
+        public boolean hasNext() {
+            return entry >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (entry < 0) {
+                throw new NoSuchElementException();
+            }
+            T next = at(entry);
+            entry = advance();
+            return next;
+        }
+
+        abstract T at(int entry);
+
+        /**
+         * Find the next key added to the map and its latest value.
+         */
+        private int advance() {
+            while (position < used) {
+                int entry = table.latest(position++, used);
+                if (entry >= 0) {
+                    return entry;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Write log of one or more maps. Every write of a key links to the previous one, the maps sharing
+     * the table see the writes below their own {@code used} count.
+     */
+    private static final class Table {
+
+        private static final AtomicIntegerFieldUpdater<Table> USED =
+                AtomicIntegerFieldUpdater.newUpdater(Table.class, "used");
+
+        private final KebabValue[] keys;
+        private final KebabValue[] values;
+        private final double[] numbers;
+        private final int[] hashes;
+        private final int[] previous;
+        private final int[] next;
+
+        // Latest write of a key plus one, zero for free slots.
+        private final AtomicIntegerArray slots;
+
+        private volatile int used;
+
+        Table(int capacity) {
+            keys = new KebabValue[capacity];
+            values = new KebabValue[capacity];
+            numbers = new double[capacity];
+            hashes = new int[capacity];
+            previous = new int[capacity];
+            next = new int[capacity];
+            Arrays.fill(next, Integer.MAX_VALUE);
+
+            // At most half of the slots are taken.
+            slots = new AtomicIntegerArray(capacity == 0 ? 1 : Integer.highestOneBit(capacity * 2 - 1) << 1);
+        }
+
+        /**
+         * Take the position after some entries, which works once per position.
+         *
+         * @param position entries of the map writing.
+         * @return true if the position can be written.
+         */
+        boolean claim(int position) {
+            return position < keys.length && used == position && USED.compareAndSet(this, position, position + 1);
+        }
+
+        int locate(KebabValue key, int hash) {
+            int mask = slots.length() - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int entry = slots.get(i) - 1;
+                if (entry < 0) {
+                    return -1 - i;
+                }
+                if (hashes[entry] == hash && matches(entry, key)) {
+                    return i;
+                }
+            }
+        }
+
+        /**
+         * Get the value of a key in a map, null if the map does not contain it.
+         */
+        KebabValue get(int slot, int used) {
+            int entry = slots.get(slot) - 1;
+            while (entry >= used) {
+                entry = previous[entry];
+            }
+            return entry >= 0 ? values[entry] : null;
+        }
+
+        /**
+         * Follow the writes of a key to the last one a map sees, starting at the write adding the key.
+         *
+         * @param entry write adding a key, or any other write.
+         * @param used  entries of the map.
+         * @return write holding the value of the key in the map, or -1 if the entry does not add a key
+         * or the map does not contain it.
+         */
+        int latest(int entry, int used) {
+            int first = previous[entry];
+            if (values[entry] == null || first >= 0 && values[first] != null) {
+                return -1;
+            }
+
+            int later;
+            while ((later = next[entry]) < used) {
+                entry = later;
+                if (values[entry] == null) {
+                    return -1;
+                }
+            }
+            return entry;
+        }
+
+        /**
+         * Write a claimed position, publishing it through the slot of the key.
+         */
+        void append(int position, KebabValue key, KebabValue value, int slot) {
+            if (slot >= 0) {
+                int last = slots.get(slot) - 1;
+                keys[position] = keys[last];
+                numbers[position] = numbers[last];
+                hashes[position] = hashes[last];
+                previous[position] = last;
+                next[last] = position;
+            } else {
+                slot = -1 - slot;
+                keys[position] = key;
+                numbers[position] = key.isNumber() ? key.doubleValue() : Double.NaN;
+                hashes[position] = hash(key);
+                previous[position] = -1;
+            }
+            values[position] = value;
+            slots.set(slot, position + 1);
+        }
+
+        private boolean matches(int entry, KebabValue key) {
+            if (key.isNumber()) {
+                return Math.abs(numbers[entry] - key.doubleValue()) < KebabValue.EPSILON;
+            }
+            return keys[entry].equals(key);
+        }
+    }
+}
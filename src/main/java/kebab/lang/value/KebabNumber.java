@@ -0,0 +1,84 @@
+package kebab.lang.value;
+
+/**
+ * Number value holding a primitive double, so arithmetic does not box. Small integral values are
+ * cached as they are by far the most common results of loop counters and indexes.
+ */
+public final class KebabNumber extends KebabValue {
+
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+
+    private static final KebabNumber[] CACHE = new KebabNumber[CACHE_HIGH - CACHE_LOW];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new KebabNumber(i + CACHE_LOW);
+        }
+    }
+
+    private final double number;
+
+    private KebabNumber(double number) {
+        super(null, false);
+        this.number = number;
+    }
+
+    /**
+     * Get a number value, cached values are returned for small integers.
+     *
+     * @param number primitive number.
+     * @return kebab number.
+     */
+    public static KebabNumber valueOf(double number) {
+        int integer = (int) number;
+        if (integer == number && integer >= CACHE_LOW && integer < CACHE_HIGH
+                && (integer != 0 || Double.doubleToRawLongBits(number) == 0L)) {
+
+            // Negative zero is not cached, it must stay distinguishable from zero.
+            return CACHE[integer - CACHE_LOW];
+        }
+        return new KebabNumber(number);
+    }
+
+    /**
+     * Compare numbers the same way {@link KebabValue#equals(Object)} does.
+     *
+     * @param lhs first number.
+     * @param rhs second number.
+     * @return true if the numbers are equal.
+     */
+    public static boolean equal(double lhs, double rhs) {
+        return Math.abs(lhs - rhs) < EPSILON;
+    }
+
+    @Override
+    public double doubleValue() {
+        return number;
+    }
+
+    @Override
+    public Double asDouble() {
+        return number;
+    }
+
+    @Override
+    public Long asLong() {
+        return (long) number;
+    }
+
+    @Override
+    public boolean isNumber() {
+        return true;
+    }
+
+    @Override
+    public Object get() {
+        return number;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(number);
+    }
+}
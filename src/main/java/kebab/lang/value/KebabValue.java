@@ -27,16 +27,95 @@ public class KebabValue implements Comparable<KebabValue> {
     public static final KebabValue EMPTY = new KebabValue();
     public static final KebabValue VOID = new KebabValue();
 
+    /**
+     * Completion of a block left through {@code _ret}, handed up through the enclosing statements
+     * to the function, which picks up the returned value. Never visible to scripts.
+     */
+    public static final KebabValue RETURN = new KebabValue();
+
+    /**
+     * Value returned by a function calling itself in tail position, the function then runs again
+     * with the arguments of that call instead of nesting a new call. Never visible to scripts.
+     */
+    public static final KebabValue TAIL_CALL = new KebabValue();
+
+    /**
+     * Largest difference of numbers which are still equal.
+     */
+    static final double EPSILON = 0.00000000001;
+
+    public static final KebabValue TRUE = new KebabValue(Boolean.TRUE);
+    public static final KebabValue FALSE = new KebabValue(Boolean.FALSE);
+
+    // Single character strings of indexing and string loops.
+    private static final KebabValue[] CHARACTERS = new KebabValue[256];
+
+    static {
+        for (char c = 0; c < CHARACTERS.length; c++) {
+            CHARACTERS[c] = new KebabValue(String.valueOf(c));
+        }
+    }
+
     private final Object value;
 
     private KebabValue() {
         this.value = new Object();
     }
 
+    /**
+     * Create a value, a plain {@link List} is copied into a {@link KebabList}.
+     *
+     * @param value wrapped value.
+     */
     public KebabValue(Object value) {
-        Assert.notNull(value);
+        this(value instanceof List<?> ? toKebabList((List<?>) value) : value, true);
+    }
+
+    /**
+     * Create a value, specialised values such as {@link KebabNumber} keep their state in own fields
+     * and skip validation.
+     *
+     * @param value    wrapped value.
+     * @param validate true if the value type must be validated.
+     */
+    KebabValue(Object value, boolean validate) {
         this.value = value;
-        this.validate();
+        if (validate) {
+            Assert.notNull(value);
+            this.validate();
+        }
+    }
+
+    /**
+     * Get a shared boolean value.
+     *
+     * @param value primitive boolean.
+     * @return {@link #TRUE} or {@link #FALSE}.
+     */
+    public static KebabValue valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * Get a single character string, shared for Latin-1 characters.
+     *
+     * @param c character.
+     * @return string value.
+     */
+    public static KebabValue valueOf(char c) {
+        return c < CHARACTERS.length ? CHARACTERS[c] : new KebabValue(String.valueOf(c));
+    }
+
+    /**
+     * Concatenate two strings, long results are kept as a {@link Rope} until their characters
+     * are needed.
+     *
+     * @param lhs first string.
+     * @param rhs second string.
+     * @return concatenated string value.
+     */
+    public static KebabValue concat(CharSequence lhs, CharSequence rhs) {
+        return new KebabValue(Rope.concat(lhs, rhs));
     }
 
     @Override
@@ -45,7 +124,7 @@ public class KebabValue implements Comparable<KebabValue> {
             if (this.equals(that)) {
                 return 0;
             } else {
-                return this.asDouble().compareTo(that.asDouble());
+                return Double.compare(this.doubleValue(), that.doubleValue());
             }
         } else if (this.isString() && that.isString()) {
             return this.asString().compareTo(that.asString());
@@ -70,17 +149,51 @@ public class KebabValue implements Comparable<KebabValue> {
         return ((Number) value).doubleValue();
     }
 
+    /**
+     * Get current value as a primitive double, prefer this over {@link #asDouble()}.
+     *
+     * @return current value as double.
+     */
+    public double doubleValue() {
+        return ((Number) value).doubleValue();
+    }
+
     public Long asLong() {
         return ((Number) value).longValue();
     }
 
+    public KebabList asList() {
+        return (KebabList) value;
+    }
+
+    public KebabMap asMap() {
+        return (KebabMap) value;
+    }
+
     @SuppressWarnings("unchecked")
-    public List<KebabValue> asList() {
-        return (List<KebabValue>) value;
+    public Iterable<KebabValue> asSequence() {
+        return (Iterable<KebabValue>) value;
+    }
+
+    public Task asTask() {
+        return (Task) value;
+    }
+
+    public Channel asChannel() {
+        return (Channel) value;
     }
 
     public String asString() {
-        return (String) value;
+        return value instanceof Rope ? value.toString() : (String) value;
+    }
+
+    /**
+     * Get a string value without flattening a {@link Rope}, for concatenation and length.
+     *
+     * @return string or rope.
+     */
+    public CharSequence asCharSequence() {
+        return (CharSequence) value;
     }
 
     public boolean isBoolean() {
@@ -92,7 +205,11 @@ public class KebabValue implements Comparable<KebabValue> {
     }
 
     public boolean isList() {
-        return value instanceof List<?>;
+        return value instanceof KebabList;
+    }
+
+    public boolean isMap() {
+        return value instanceof KebabMap;
     }
 
     public boolean isEmpty() {
@@ -104,14 +221,36 @@ public class KebabValue implements Comparable<KebabValue> {
     }
 
     public boolean isString() {
-        return value instanceof String;
+        return value instanceof String || value instanceof Rope;
+    }
+
+    /**
+     * Check if this is a lazy sequence, such as the lines of a file, which can only be iterated.
+     *
+     * @return true if the value is a sequence.
+     */
+    public boolean isSequence() {
+        return value instanceof Iterable<?> && !isList();
+    }
+
+    public boolean isTask() {
+        return value instanceof Task;
+    }
+
+    public boolean isChannel() {
+        return value instanceof Channel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KebabList toKebabList(List<?> list) {
+        return list instanceof KebabList ? (KebabList) list : KebabList.of((List<KebabValue>) list);
     }
 
     /**
      * Throw an exception if invalid value is assigned.
      */
     private void validate() {
-        if (!(isBoolean() || isList() || isNumber() || isString())) {
+        if (!(isBoolean() || isList() || isMap() || isNumber() || isString() || isSequence() || isTask())) {
             throw new KebabException("Got invalid type: %s", value.getClass());
         }
     }
@@ -133,13 +272,17 @@ public class KebabValue implements Comparable<KebabValue> {
         if (this == other) {
             return true;
         }
-        if (other == null || this.getClass() != other.getClass()) {
+        if (!(other instanceof KebabValue)) {
             return false;
         }
         KebabValue that = (KebabValue) other;
         if (this.isNumber() && that.isNumber()) {
-            double diff = Math.abs(this.asDouble() - that.asDouble());
-            return diff < 0.00000000001;
+            double diff = Math.abs(this.doubleValue() - that.doubleValue());
+            return diff < EPSILON;
+        } else if (this.isNumber() || that.isNumber()) {
+            return false;
+        } else if (this.isString() && that.isString()) {
+            return this.asString().equals(that.asString());
         } else {
             return this.value.equals(that.value);
         }
@@ -147,6 +290,9 @@ public class KebabValue implements Comparable<KebabValue> {
 
     @Override
     public int hashCode() {
+        if (value instanceof Rope) {
+            return value.toString().hashCode();
+        }
         return value.hashCode();
     }
 
@@ -160,7 +306,7 @@ public class KebabValue implements Comparable<KebabValue> {
             return Boolean.valueOf(value.toString()) ? Values.BOOLEAN_TRUE.getName() : Values.BOOLEAN_FALSE.getName();
         } else if (isNumber()) {
 
-            double doubleValue = asDouble();
+            double doubleValue = doubleValue();
             int intValue = ((int) doubleValue);
 
             // Our value might be a int.
@@ -0,0 +1,126 @@
+package kebab.lang.value;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hash index of list elements for {@code in}, mapping element keys to the position of their first
+ * occurrence. Lists made by appending to an indexed list share its index: the index only grows, and
+ * a list sees the entries below its own size, which are exactly its elements.
+ * <p>
+ * Numbers are equal within {@link KebabValue#EPSILON}, which no hash code can respect, so a number
+ * is keyed by the {@code EPSILON} wide bucket it falls into and looked up in its own and the
+ * neighbouring buckets. Every candidate is checked with {@link KebabValue#equals(Object)}. List
+ * and map elements are not indexed, looking them up scans the list.
+ */
+final class ListIndex {
+
+    private static final AtomicIntegerFieldUpdater<ListIndex> SIZE =
+            AtomicIntegerFieldUpdater.newUpdater(ListIndex.class, "size");
+
+    // Position, or int[] of positions of distinct numbers sharing a bucket.
+    private final Map<Object, Object> positions = new ConcurrentHashMap<>();
+    private volatile int size;
+
+    /**
+     * Index the elements of a list.
+     */
+    ListIndex(KebabList list) {
+        int position = 0;
+        for (KebabValue value : list) {
+            add(list, value, position++);
+        }
+        size = position;
+    }
+
+    /**
+     * Add the element appended to a list of the given size, which works once per size.
+     *
+     * @param list  list with the element appended.
+     * @param value appended element.
+     * @return false if the index already grew past the list, it cannot be shared then.
+     */
+    boolean extend(KebabList list, KebabValue value) {
+        int position = list.size() - 1;
+        if (size != position || !SIZE.compareAndSet(this, position, position + 1)) {
+            return false;
+        }
+        add(list, value, position);
+        return true;
+    }
+
+    /**
+     * Check if a list contains an element.
+     *
+     * @param list  indexed list, sharing this index.
+     * @param value element to look for, not a list.
+     * @return true if the list contains the element.
+     */
+    boolean contains(KebabList list, KebabValue value) {
+        if (!value.isNumber()) {
+            return matches(list, positions.get(key(value)), value);
+        }
+
+        double bucket = bucket(value.doubleValue());
+        return matches(list, positions.get(bucket), value)
+                || matches(list, positions.get(bucket - 1), value)
+                || matches(list, positions.get(bucket + 1), value);
+    }
+
+    private void add(KebabList list, KebabValue value, int position) {
+        if (value.isList() || value.isMap() || value.isVoid()) {
+            return;
+        }
+
+        Object key = key(value);
+        Object stored = positions.putIfAbsent(key, position);
+        if (stored == null || !value.isNumber()) {
+            return;
+        }
+
+        // Keep every distinct number of a bucket, each may be equal to different lookups.
+        int[] known = stored instanceof int[] ? (int[]) stored : new int[]{(Integer) stored};
+        for (int index : known) {
+            if (list.get(index).doubleValue() == value.doubleValue()) {
+                return;
+            }
+        }
+        int[] grown = new int[known.length + 1];
+        System.arraycopy(known, 0, grown, 0, known.length);
+        grown[known.length] = position;
+        positions.put(key, grown);
+    }
+
+    private static boolean matches(KebabList list, Object stored, KebabValue value) {
+        if (stored == null) {
+            return false;
+        }
+        if (stored instanceof Integer) {
+            int position = (Integer) stored;
+            return position < list.size() && list.get(position).equals(value);
+        }
+        for (int position : (int[]) stored) {
+            if (position < list.size() && list.get(position).equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object key(KebabValue value) {
+        if (value.isNumber()) {
+            return bucket(value.doubleValue());
+        }
+        if (value.isString()) {
+            return value.asString();
+        }
+        return value.get();
+    }
+
+    private static double bucket(double number) {
+
+        // Adding zero turns -0.0 into 0.0.
+        return Math.floor(number / KebabValue.EPSILON) + 0.0;
+    }
+}
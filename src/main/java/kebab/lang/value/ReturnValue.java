@@ -1,6 +0,0 @@
-package kebab.lang.value;
-
-public class ReturnValue extends RuntimeException {
-
-    public KebabValue value;
-}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package kebab.lang.value;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * String built by concatenation, kept as a tree of the concatenated pieces until the characters
+ * are needed. Concatenating onto a rope only allocates a node, so building a string in a loop
+ * takes linear instead of quadratic time. The string is flattened once, on first use.
+ */
+public final class Rope implements CharSequence {
+
+    /**
+     * Longest string built by copying, short pieces are merged instead of creating nodes.
+     */
+    static final int FLAT_LIMIT = 128;
+
+    // Pieces of the rope, dropped once it is flattened so it does not hold its tree and the copy.
+    // Cleared after flat is set, so whoever sees them cleared also sees the flattened string.
+    private volatile CharSequence left;
+    private volatile CharSequence right;
+    private final int length;
+
+    // Flattened string, threads reading the rope at once may each compute it.
+    private volatile String flat;
+
+    private Rope(CharSequence left, CharSequence right) {
+        this.left = left;
+        this.right = right;
+        this.length = left.length() + right.length();
+    }
+
+    /**
+     * Concatenate two strings or ropes.
+     *
+     * @param left  first part.
+     * @param right second part.
+     * @return a string if the result is short, a rope otherwise.
+     */
+    static CharSequence concat(CharSequence left, CharSequence right) {
+        if (right.length() == 0) {
+            return left;
+        }
+        if (left.length() == 0) {
+            return right;
+        }
+
+        left = flattened(left);
+        right = flattened(right);
+        if (left.length() + right.length() <= FLAT_LIMIT) {
+            return left.toString() + right;
+        }
+
+        // Merge a short piece into the last leaf to keep the tree shallow.
+        if (left instanceof Rope && right.length() < FLAT_LIMIT) {
+            Rope rope = (Rope) left;
+            CharSequence last = rope.right;
+            CharSequence first = rope.left;
+            if (first != null && last instanceof String && last.length() + right.length() <= FLAT_LIMIT) {
+                return new Rope(first, last + right.toString());
+            }
+        }
+        return new Rope(left, right);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String string = flat;
+        if (string == null) {
+            char[] chars = new char[length];
+            fill(chars);
+            string = new String(chars);
+            flat = string;
+            left = null;
+            right = null;
+        }
+        return string;
+    }
+
+    /**
+     * Copy the pieces in order, without recursion since ropes built in a loop are deep.
+     */
+    private void fill(char[] chars) {
+        Deque<CharSequence> pending = new ArrayDeque<>();
+        pending.push(this);
+        int position = 0;
+        while (!pending.isEmpty()) {
+            CharSequence piece = flattened(pending.pop());
+            if (piece instanceof Rope) {
+                Rope rope = (Rope) piece;
+                CharSequence first = rope.left;
+                CharSequence last = rope.right;
+                if (first == null || last == null) {
+
+                    // Flattened by another thread meanwhile.
+                    pending.push(rope.flat);
+                } else {
+                    pending.push(last);
+                    pending.push(first);
+                }
+            } else {
+                String string = (String) piece;
+                string.getChars(0, string.length(), chars, position);
+                position += string.length();
+            }
+        }
+    }
+
+    /**
+     * Use the flattened string of a rope once it is known.
+     */
+    private static CharSequence flattened(CharSequence piece) {
+        if (piece instanceof Rope && ((Rope) piece).flat != null) {
+            return ((Rope) piece).flat;
+        }
+        return piece;
+    }
+}
@@ -0,0 +1,235 @@
+package kebab.lang.value;
+
+import kebab.lang.output.OutputSink;
+import kebab.util.KebabException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Result of a function started with {@code _spawn}, {@code await(task)} waits for it. A task shows
+ * values into a buffer of its own, which is passed on to the output of whoever awaits it first, so
+ * output of concurrent tasks never interleaves. Tasks nobody awaits are shown by their
+ * {@link TaskGroup} once the script ends.
+ * <p>
+ * A task which fails closes the channels it was passed or sent to, see {@link Channel#fail}.
+ * <p>
+ * A task still running long after the script ended is cancelled by interrupting its thread. Waits
+ * on channels end with an error then, and loops call {@link #checkCancelled()} to stop.
+ */
+public final class Task {
+
+    // Task running on the current thread, for channels to tell who sends to them.
+    private static final ThreadLocal<Task> CURRENT = new ThreadLocal<>();
+
+    private final CompletableFuture<KebabValue> result = new CompletableFuture<>();
+    private final TaskSink output;
+    private final TaskGroup group;
+    private final long order;
+
+    // Written by the spawning thread before the task starts, then only by the task.
+    private final Set<Channel> channels = new HashSet<>();
+
+    // Guarded by this.
+    private boolean shown;
+
+    // Guarded by lock, so a thread is only interrupted while it runs this task.
+    private final Object lock = new Object();
+    private Thread runner;
+    private boolean cancelled;
+
+    /**
+     * @param output    where the task shows values.
+     * @param group     tasks of the run.
+     * @param order     position of the task among the tasks of the run.
+     * @param arguments values passed to the task.
+     */
+    Task(TaskSink output, TaskGroup group, long order, KebabValue[] arguments) {
+        this.output = output;
+        this.group = group;
+        this.order = order;
+        for (KebabValue argument : arguments) {
+            if (argument.isChannel()) {
+                channels.add(argument.asChannel());
+            }
+        }
+    }
+
+    /**
+     * Run the task, called by the thread it is scheduled on.
+     *
+     * @param body function call of the task.
+     */
+    public void run(Supplier<KebabValue> body) {
+        synchronized (lock) {
+            if (cancelled) {
+                fail(new KebabException("Task was cancelled before it started"));
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+
+        CURRENT.set(this);
+        try {
+            result.complete(body.get());
+        } catch (Throwable e) {
+            fail(e);
+        } finally {
+            CURRENT.remove();
+            synchronized (lock) {
+                runner = null;
+
+                // An interrupt meant for this task must not reach the next one run by the thread.
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void fail(Throwable e) {
+        for (Channel channel : channels) {
+            channel.fail(e);
+        }
+        result.completeExceptionally(e);
+    }
+
+    /**
+     * Stop the running task if it was cancelled, called by loops which might run forever.
+     */
+    public static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new KebabException("Interrupted while running");
+        }
+    }
+
+    /**
+     * @return where the task shows values.
+     */
+    public OutputSink getOutput() {
+        return output;
+    }
+
+    /**
+     * Wait until the task is done and show what it has shown.
+     *
+     * @param caller output of the awaiting code.
+     * @return value returned by the function of the task.
+     */
+    public KebabValue await(OutputSink caller) {
+        KebabValue value;
+        try {
+            value = result.join();
+        } catch (CompletionException e) {
+            showOutput(caller);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+        showOutput(caller);
+        return value;
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    @Override
+    public String toString() {
+        return "task";
+    }
+
+    /**
+     * Note a channel the task running on this thread sends to.
+     */
+    static void sending(Channel channel) {
+        Task task = CURRENT.get();
+        if (task != null) {
+            task.channels.add(channel);
+        }
+    }
+
+    long getOrder() {
+        return order;
+    }
+
+    /**
+     * Wait for the task to finish, at most until a deadline.
+     *
+     * @param deadline {@link System#nanoTime()} to stop waiting at.
+     * @return true if the task is done.
+     */
+    boolean join(long deadline) {
+        try {
+            result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+
+            // Done with an error, or not done yet.
+        }
+        return result.isDone();
+    }
+
+    /**
+     * Stop the task, by interrupting its thread if it is running.
+     */
+    void cancel() {
+        synchronized (lock) {
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Show what a task which is still running has shown so far.
+     *
+     * @param caller output of the script.
+     * @return true if the output was shown now, false if the task was awaited meanwhile.
+     */
+    boolean releaseRunning(OutputSink caller) {
+        return showOutput(caller);
+    }
+
+    /**
+     * Show the output of a finished task which was not awaited.
+     *
+     * @param caller output of the script.
+     * @return error the task failed with, {@code null} if it succeeded or was awaited meanwhile.
+     */
+    Throwable release(OutputSink caller) {
+        if (!showOutput(caller)) {
+            return null;
+        }
+        try {
+            result.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+    }
+
+    /**
+     * @return true if the output was shown now, false if it was shown before.
+     */
+    private synchronized boolean showOutput(OutputSink caller) {
+        if (shown) {
+            return false;
+        }
+        shown = true;
+        caller.write(output.take());
+        group.forget(this);
+        return true;
+    }
+}
@@ -0,0 +1,118 @@
+package kebab.lang.value;
+
+import kebab.lang.output.OutputSink;
+import kebab.util.KebabException;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tasks spawned by one run of a script, including the tasks spawned by its tasks. Awaited tasks
+ * leave the group. Once the script ends the run waits for the tasks left, shows their output in the
+ * order they were spawned and fails if any of them failed. Tasks still running
+ * {@link #FINISH_TIMEOUT_MILLIS} after the script ended are cancelled: what they showed so far is
+ * shown and the run fails, so no task outlives its run unnoticed.
+ */
+public final class TaskGroup {
+
+    /**
+     * Time the end of a run waits for the tasks nobody awaited.
+     */
+    public static final long FINISH_TIMEOUT_MILLIS = 10_000;
+
+    // Time a cancelled task gets to stop before the run ends without it.
+    private static final long CANCEL_TIMEOUT_MILLIS = 1_000;
+
+    private final AtomicLong spawned = new AtomicLong();
+    private final long timeoutMillis;
+
+    // Tasks not awaited yet, by the order they were spawned in.
+    private final Map<Long, Task> pending = new ConcurrentSkipListMap<>();
+
+    public TaskGroup() {
+        this(FINISH_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis time the end of the run waits for tasks.
+     */
+    TaskGroup(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Create a task of this run, which shows values into a buffer of its own.
+     *
+     * @param arguments values passed to the task, channels among them are closed if it fails.
+     * @return new task, not started yet.
+     */
+    public Task create(KebabValue[] arguments) {
+        Task task = new Task(new TaskSink(), this, spawned.getAndIncrement(), arguments);
+        pending.put(task.getOrder(), task);
+        return task;
+    }
+
+    /**
+     * Wait for the tasks nobody awaited and show their output, called once the script ends. Tasks
+     * spawned meanwhile are waited for as well.
+     *
+     * @param output output of the script.
+     * @return error to fail the run with if any of the tasks failed or had to be cancelled,
+     * {@code null} otherwise.
+     */
+    public RuntimeException finish(OutputSink output) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Task task : pending.values()) {
+            task.join(deadline);
+        }
+
+        Set<Task> running = new HashSet<>();
+        for (Task task : pending.values()) {
+            if (!task.isDone()) {
+                task.cancel();
+                running.add(task);
+            }
+        }
+        long stopped = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CANCEL_TIMEOUT_MILLIS);
+        for (Task task : running) {
+            task.join(stopped);
+        }
+
+        KebabException failure = null;
+        for (Task task : pending.values()) {
+            Throwable error;
+
+            // A task spawned by a cancelled task might not have stopped either.
+            if (running.contains(task) || !task.isDone()) {
+                task.cancel();
+                error = task.releaseRunning(output) ? cancelled() : null;
+            } else {
+                error = task.release(output);
+            }
+            if (error == null) {
+                continue;
+            }
+
+            if (failure == null) {
+                failure = new KebabException("A task which was never awaited failed: %s", Channel.describe(error));
+                failure.initCause(error);
+            } else {
+                failure.addSuppressed(error);
+            }
+        }
+        return failure;
+    }
+
+    private KebabException cancelled() {
+        return new KebabException("Task was cancelled, it was still running %d ms after the script ended",
+                timeoutMillis);
+    }
+
+    void forget(Task task) {
+        pending.remove(task.getOrder());
+    }
+}
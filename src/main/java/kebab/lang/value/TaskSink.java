@@ -0,0 +1,61 @@
+package kebab.lang.value;
+
+import kebab.lang.output.OutputSink;
+import kebab.util.KebabException;
+
+/**
+ * Output of a task, kept until the task is awaited or the script ends. The thread of the task
+ * writes while another thread may show what was written so far, and a task may keep at most
+ * {@link #MAX_LENGTH} characters: showing more fails the task rather than filling the memory.
+ */
+final class TaskSink implements OutputSink {
+
+    /**
+     * Characters a task may show before it is awaited.
+     */
+    static final int MAX_LENGTH = 4 * 1024 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final StringBuilder text = new StringBuilder();
+    private final int limit;
+
+    TaskSink() {
+        this(MAX_LENGTH);
+    }
+
+    /**
+     * @param limit characters the task may show.
+     */
+    TaskSink(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write(String text) {
+        if (this.text.length() + text.length() > limit) {
+            throw new KebabException("Task showed more than %d characters before it was awaited", limit);
+        }
+        this.text.append(text);
+    }
+
+    @Override
+    public void writeLine(String text) {
+        write(text + LINE_SEPARATOR);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Take everything shown so far.
+     *
+     * @return shown text.
+     */
+    synchronized String take() {
+        String shown = text.toString();
+        text.setLength(0);
+        return shown;
+    }
+}
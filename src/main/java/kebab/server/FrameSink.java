@@ -0,0 +1,27 @@
+package kebab.server;
+
+import kebab.lang.output.BufferedSink;
+import kebab.lang.output.FlushPolicy;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink sending the output of a script to a client, every chunk of the buffer becomes a frame.
+ */
+class FrameSink extends BufferedSink {
+
+    private final DataOutputStream out;
+
+    FrameSink(DataOutputStream out, FlushPolicy policy) {
+        super(DEFAULT_CAPACITY, policy, false);
+        this.out = out;
+    }
+
+    @Override
+    protected void drain(ByteBuffer bytes) throws IOException {
+        Protocol.write(out, Protocol.OUTPUT, bytes.array(), bytes.arrayOffset() + bytes.position(),
+                bytes.remaining());
+    }
+}
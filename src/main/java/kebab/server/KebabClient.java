@@ -0,0 +1,126 @@
+package kebab.server;
+
+import kebab.lang.engine.Backend;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Client sending a script to a running {@link KebabServer}, standard input is read when the
+ * script asks for it and the output is shown as it arrives. The client only needs the JVM itself,
+ * nothing of the parser or the engines is loaded.
+ */
+public class KebabClient {
+
+    // Script path reading the script itself from standard input.
+    private static final String STANDARD_INPUT = "-";
+
+    private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
+    private KebabClient() {
+    }
+
+    /**
+     * Run a script on the server.
+     *
+     * @param port      port of the server.
+     * @param file      script path, {@code -} to send the source read from standard input.
+     * @param backend   backend running the script.
+     * @param lineFlush true to have every line sent as soon as it is shown.
+     * @return exit status, 0 if the script ran without an error.
+     */
+    public static int run(int port, String file, Backend backend, boolean lineFlush) throws IOException {
+        Path tokenFile = ServerToken.file(port);
+        String token = ServerToken.read(tokenFile);
+        if (token == null) {
+            System.err.printf("No kebab server token in %s, start a server on port %d with --server%n",
+                    tokenFile, port);
+            return 2;
+        }
+
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        } catch (ConnectException e) {
+            System.err.printf("No kebab server is listening on port %d, start one with --server%n", port);
+            return 2;
+        }
+
+        try (Socket connection = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            out.writeUTF(Protocol.VERSION);
+            out.writeUTF(token);
+            out.writeUTF(backend.name());
+            out.writeBoolean(lineFlush);
+            InputStream input = System.in;
+            if (STANDARD_INPUT.equals(file)) {
+
+                // Standard input is the script, the script itself finds it at its end.
+                out.writeByte(Protocol.SOURCE);
+                Protocol.writeText(out, new String(readAll(input), StandardCharsets.UTF_8));
+                input = new ByteArrayInputStream(new byte[0]);
+            } else {
+
+                // The server resolves paths against its own directory.
+                out.writeByte(Protocol.FILE);
+                Protocol.writeText(out, Paths.get(file).toAbsolutePath().toString());
+            }
+            out.flush();
+            return receive(new DataInputStream(new BufferedInputStream(connection.getInputStream())), out, input);
+        }
+    }
+
+    /**
+     * Show the frames of a response until the exit frame, sending standard input when asked for.
+     */
+    private static int receive(DataInputStream in, DataOutputStream out, InputStream input) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        while (true) {
+            byte kind = in.readByte();
+            if (kind == Protocol.EXIT) {
+                System.out.flush();
+                return in.readInt();
+            }
+            if (kind == Protocol.INPUT) {
+                int read = input.read(buffer, 0, Math.min(Protocol.readLength(in, Integer.MAX_VALUE), buffer.length));
+                out.writeInt(read < 0 ? Protocol.END_OF_INPUT : read);
+                out.write(buffer, 0, Math.max(read, 0));
+                out.flush();
+                continue;
+            }
+
+            PrintStream stream = kind == Protocol.ERROR ? System.err : System.out;
+            for (int length = Protocol.readLength(in, Integer.MAX_VALUE); length > 0; ) {
+                int read = in.read(buffer, 0, Math.min(length, buffer.length));
+                if (read < 0) {
+                    throw new IOException("Connection closed by the server");
+                }
+                stream.write(buffer, 0, read);
+                length -= read;
+            }
+            stream.flush();
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (int read; (read = input.read(buffer)) >= 0; ) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package kebab.server;
+
+import kebab.lang.engine.Backend;
+import kebab.lang.engine.KebabEngine;
+import kebab.lang.engine.ScriptCache;
+import kebab.lang.input.StreamSource;
+import kebab.lang.output.FlushPolicy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs scripts sent by {@link KebabClient}, so only the first script pays for starting the JVM,
+ * loading the parser and compiling. Parsed scripts are kept in a {@link ScriptCache}, files are
+ * parsed again only once they change.
+ * <p>
+ * The server listens on the loopback address, every connection is a run of its own on a thread of
+ * its own. Scripts run in the server process: relative paths are resolved against the directory the
+ * server was started in, and memoised functions keep their results between runs.
+ * <p>
+ * Any local user can connect to the port, so a connection only runs a script once the client has
+ * sent the {@link ServerToken} of the server, which is readable by the user of the server only.
+ */
+public class KebabServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7373;
+
+    // Parsed scripts kept between runs.
+    private static final int MAX_SCRIPTS = 256;
+    private static final long MAX_SCRIPT_WEIGHT = 64L * 1024 * 1024;
+
+    private final ServerSocket socket;
+    private final Path tokenFile;
+    private final String token;
+    private final ScriptCache scripts = new ScriptCache(MAX_SCRIPTS, MAX_SCRIPT_WEIGHT, true);
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "kebab-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Bind a server, which accepts connections once it {@link #listen() listens}. The token of the
+     * server is written to {@code ~/.kebab}, where clients of the same user find it.
+     *
+     * @param port port to listen on, {@code 0} for any free port.
+     */
+    public KebabServer(int port) throws IOException {
+        this.socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.tokenFile = ServerToken.file(socket.getLocalPort());
+        try {
+            this.token = ServerToken.create(tokenFile);
+
+            // A server stopped without close() leaves no token behind either.
+            tokenFile.toFile().deleteOnExit();
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Accept connections until the server is closed.
+     */
+    public void listen() throws IOException {
+        while (!socket.isClosed()) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (SocketException e) {
+                if (socket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            connections.execute(() -> serve(connection));
+        }
+    }
+
+    /**
+     * Stop accepting connections, runs in progress are finished.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        connections.shutdown();
+        Files.deleteIfExists(tokenFile);
+    }
+
+    /**
+     * @return port the server listens on.
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * @return cache of the scripts run so far.
+     */
+    public ScriptCache getScripts() {
+        return scripts;
+    }
+
+    /**
+     * Run the script of a connection, an error of the script is sent to the client instead of
+     * stopping the server.
+     */
+    void serve(Socket socket) {
+        try (Socket connection = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+
+            int status = 1;
+            try {
+                run(in, out);
+                status = 0;
+            } catch (Throwable e) {
+
+                // Stack overflows and other errors of the script end the run, not the server.
+                StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                byte[] bytes = trace.toString().getBytes(StandardCharsets.UTF_8);
+                Protocol.write(out, Protocol.ERROR, bytes, 0, bytes.length);
+            } finally {
+                Protocol.exit(out, status);
+            }
+        } catch (IOException e) {
+
+            // The client is gone, nobody is left to tell.
+        }
+    }
+
+    private void run(DataInputStream in, DataOutputStream out) throws Exception {
+        String version = in.readUTF();
+        if (!Protocol.VERSION.equals(version)) {
+            throw new IOException("Unsupported client: " + version);
+        }
+        if (!ServerToken.matches(token, in.readUTF())) {
+            throw new IOException("Invalid token, the client must run as the user of the server");
+        }
+        Backend backend = Backend.valueOf(in.readUTF());
+        FlushPolicy flushPolicy = in.readBoolean() ? FlushPolicy.ON_NEWLINE : FlushPolicy.ON_SIZE;
+
+        byte kind = in.readByte();
+        String script = Protocol.readText(in);
+        KebabEngine engine = kind == Protocol.FILE ? scripts.file(script) : scripts.source(script);
+
+        engine.backend(backend)
+                .output(new FrameSink(out, flushPolicy))
+                .input(new StreamSource(new RequestedInput(in, out)))
+                .run();
+    }
+}
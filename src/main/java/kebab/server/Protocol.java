@@ -0,0 +1,109 @@
+package kebab.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Messages exchanged by {@link KebabClient} and {@link KebabServer} over a local socket.
+ * <p>
+ * A request starts with the token of the server, then names the backend, the flush policy and
+ * either a script file or the script source. The server answers with frames of output and errors,
+ * ending with an exit frame. Standard input is only sent when the script reads it: the server sends
+ * an input frame with the amount of bytes it can take, the client answers with a chunk of its
+ * standard input, or {@code -1} at its end.
+ */
+final class Protocol {
+
+    static final String VERSION = "kebab/2";
+
+    // Kinds of scripts in a request.
+    static final byte FILE = 'f';
+    static final byte SOURCE = 's';
+
+    // Kinds of frames in a response.
+    static final byte OUTPUT = 'o';
+    static final byte ERROR = 'e';
+    static final byte EXIT = 'x';
+    static final byte INPUT = 'i';
+
+    // Length of the chunk of standard input sent at its end.
+    static final int END_OF_INPUT = -1;
+
+    private Protocol() {
+    }
+
+    /**
+     * Write a frame with data, the stream is flushed so the client sees it at once.
+     *
+     * @param out  response stream, shared by the threads of a run.
+     * @param kind {@link #OUTPUT} or {@link #ERROR}.
+     */
+    static void write(DataOutputStream out, byte kind, byte[] bytes, int offset, int length) throws IOException {
+        synchronized (out) {
+            out.writeByte(kind);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+            out.flush();
+        }
+    }
+
+    /**
+     * Write the last frame of a response.
+     *
+     * @param out    response stream.
+     * @param status exit status of the client, 0 if the script ran without an error.
+     */
+    static void exit(DataOutputStream out, int status) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(status);
+            out.flush();
+        }
+    }
+
+    /**
+     * Ask the client for a chunk of its standard input.
+     *
+     * @param out    response stream.
+     * @param length maximum length of the chunk.
+     */
+    static void input(DataOutputStream out, int length) throws IOException {
+        synchronized (out) {
+            out.writeByte(INPUT);
+            out.writeInt(length);
+            out.flush();
+        }
+    }
+
+    /**
+     * Read the length of a frame, chunk or text, which the other side might have sent wrong.
+     *
+     * @param in  stream to read from.
+     * @param max longest length expected.
+     * @return the length.
+     */
+    static int readLength(DataInputStream in, int max) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > max) {
+            throw new IOException("Invalid length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Write text as long as a frame or request allows, unlike {@link DataOutputStream#writeUTF}.
+     */
+    static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in, Integer.MAX_VALUE)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
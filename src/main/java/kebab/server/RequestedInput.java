@@ -0,0 +1,54 @@
+package kebab.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Standard input of a client, every read asks the client for a chunk of it.
+ */
+class RequestedInput extends InputStream {
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private boolean ended;
+
+    RequestedInput(DataInputStream in, DataOutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] bytes = new byte[1];
+        return read(bytes, 0, 1) < 0 ? -1 : bytes[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (ended) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+
+        // An empty chunk is no end of input, ask again until there is at least a byte.
+        while (true) {
+            Protocol.input(out, length);
+            int read = in.readInt();
+            if (read == Protocol.END_OF_INPUT) {
+                ended = true;
+                return -1;
+            }
+            if (read < 0 || read > length) {
+                throw new IOException("Invalid input length: " + read);
+            }
+            if (read > 0) {
+                in.readFully(bytes, offset, read);
+                return read;
+            }
+        }
+    }
+}
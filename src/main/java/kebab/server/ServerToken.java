@@ -0,0 +1,99 @@
+package kebab.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Set;
+
+/**
+ * Secret a {@link KebabServer} writes to a file only its user can read, and which a
+ * {@link KebabClient} has to send before a script is run. Other users on the machine can connect
+ * to the port, but cannot run scripts as the user of the server.
+ * <p>
+ * Tokens live in {@code ~/.kebab}, a file per port. The directory and the files are created
+ * readable by their owner only, on file systems without POSIX permissions they are left to the
+ * defaults of the home directory.
+ */
+final class ServerToken {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ServerToken() {
+    }
+
+    /**
+     * @param port port of the server.
+     * @return token file of the server on that port.
+     */
+    static Path file(int port) {
+        return Paths.get(System.getProperty("user.home"), ".kebab", "server-" + port + ".token");
+    }
+
+    /**
+     * Write a new random token, replacing the token of a server which used the port before.
+     *
+     * @param file token file.
+     * @return the token.
+     */
+    static String create(Path file) throws IOException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        char[] token = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            token[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            token[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+        Files.createDirectories(directory, permissions(posix, "rwx------"));
+
+        // Written aside and moved in place, so the file is never readable by others.
+        Path written = Files.createTempFile(directory, "server-", ".tmp", permissions(posix, "rw-------"));
+        try {
+            Files.write(written, new String(token).getBytes(StandardCharsets.US_ASCII));
+            Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(written);
+        }
+        return new String(token);
+    }
+
+    /**
+     * @param file token file.
+     * @return the token, {@code null} if there is no token file.
+     */
+    static String read(Path file) throws IOException {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compare tokens in constant time, so the time to reject a token tells nothing about it.
+     */
+    static boolean matches(String expected, String actual) {
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                actual.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static FileAttribute<?>[] permissions(boolean posix, String permissions) {
+        if (!posix) {
+            return new FileAttribute<?>[0];
+        }
+        Set<PosixFilePermission> set = PosixFilePermissions.fromString(permissions);
+        return new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(set)};
+    }
+}
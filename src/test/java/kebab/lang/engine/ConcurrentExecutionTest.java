@@ -0,0 +1,97 @@
+package kebab.lang.engine;
+
+import kebab.lang.output.MemorySink;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the same parsed scripts from several threads at once, every run with an engine and output
+ * of its own. A run must show exactly what a single threaded run of the reference interpreter
+ * shows, whatever the other threads are doing meanwhile.
+ */
+public class ConcurrentExecutionTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 16;
+
+    private static final String[] SCRIPTS = {
+            "src/jmh/resources/kebab/benchmark/output.kebab",
+            "src/test/resources/kebab/conformance/dynscope.kebab",
+            "src/test/resources/kebab/conformance/funcs.kebab",
+            "src/test/resources/kebab/conformance/in.kebab",
+            "src/test/resources/kebab/conformance/listfuncs.kebab",
+            "src/test/resources/kebab/conformance/lists.kebab"
+    };
+
+    @Test(timeout = 60000)
+    public void tree() throws Exception {
+        runConcurrently(Backend.TREE);
+    }
+
+    @Test(timeout = 60000)
+    public void bytecode() throws Exception {
+        runConcurrently(Backend.BYTECODE);
+    }
+
+    @Test(timeout = 60000)
+    public void visitor() throws Exception {
+        runConcurrently(Backend.VISITOR);
+    }
+
+    private static void runConcurrently(Backend backend) throws Exception {
+        ScriptCache cache = new ScriptCache(SCRIPTS.length, Long.MAX_VALUE, false);
+        List<String> sources = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (String script : SCRIPTS) {
+            String source = new String(Files.readAllBytes(Paths.get(script)), StandardCharsets.UTF_8);
+            sources.add(source);
+            expected.add(run(KebabEngine.source(source).backend(Backend.VISITOR)));
+        }
+
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                results.add(threads.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+
+                        // Threads start on different scripts, so different scripts run at once.
+                        int script = (offset + round) % SCRIPTS.length;
+                        assertEquals(SCRIPTS[script], expected.get(script),
+                                run(cache.source(sources.get(script)).backend(backend)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        // Every thread shared the scripts parsed by the first runs.
+        assertEquals(SCRIPTS.length, cache.size());
+    }
+
+    private static String run(KebabEngine engine) {
+        MemorySink output = new MemorySink();
+        engine.output(output).run();
+        return output.getText();
+    }
+}
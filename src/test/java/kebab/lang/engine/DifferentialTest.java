@@ -0,0 +1,85 @@
+package kebab.lang.engine;
+
+import kebab.lang.input.StreamSource;
+import kebab.lang.output.MemorySink;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs every example, conformance and benchmark script on each backend and compares the output, the
+ * returned value and the error with the ones of the {@link Backend#VISITOR}, which is kept as the
+ * reference interpreter.
+ */
+@RunWith(Parameterized.class)
+public class DifferentialTest {
+
+    private static final String[] SCRIPT_DIRECTORIES = {
+            "src/main/resources",
+            "src/test/resources/kebab/conformance",
+            "src/jmh/resources/kebab/benchmark"
+    };
+
+    private final Path script;
+
+    public DifferentialTest(String name, Path script) {
+        this.script = script;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> scripts() throws IOException {
+        List<Object[]> scripts = new ArrayList<>();
+        for (String directory : SCRIPT_DIRECTORIES) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(directory), "*.kebab")) {
+                for (Path file : files) {
+                    scripts.add(new Object[]{file.getFileName().toString(), file});
+                }
+            }
+        }
+        return scripts;
+    }
+
+    @Test(timeout = 30000)
+    public void treeMatchesVisitor() throws IOException {
+        assertEquals(run(Backend.VISITOR), run(Backend.TREE));
+    }
+
+    @Test(timeout = 30000)
+    public void bytecodeMatchesVisitor() throws IOException {
+        assertEquals(run(Backend.VISITOR), run(Backend.BYTECODE));
+    }
+
+    /**
+     * Run the script with no input, the value it returns or the error it ends with is appended to the
+     * output.
+     */
+    private String run(Backend backend) throws IOException {
+        String source = new String(Files.readAllBytes(script), StandardCharsets.UTF_8);
+        MemorySink output = new MemorySink();
+        try {
+            Object returned = KebabEngine.source(source)
+                    .backend(backend)
+                    .output(output)
+                    .input(new StreamSource(new ByteArrayInputStream(new byte[0])))
+                    .run();
+            output.writeLine(String.valueOf(returned));
+        } catch (RuntimeException | AssertionError | StackOverflowError e) {
+            output.writeLine(e.toString());
+        }
+        return output.getText();
+    }
+}
@@ -0,0 +1,84 @@
+package kebab.lang.engine;
+
+import kebab.lang.output.StreamSink;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Output is buffered, yet a console has to see it in the order the script shows it relative to
+ * the errors on the error stream and to the prompts of the script.
+ */
+public class OutputOrderTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final List<String> console = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void outputPrecedesTheError() {
+        for (Backend backend : Backend.values()) {
+            console.clear();
+            try {
+                engine("showl('before')\nassert(1 == 2)\nshowl('after')", backend).run();
+            } catch (AssertionError e) {
+                console.add("error");
+            }
+            assertEquals(backend.name(), Arrays.asList("out: before" + LINE_SEPARATOR, "error"), console);
+        }
+    }
+
+    @Test
+    public void promptPrecedesInput() {
+        for (Backend backend : Backend.values()) {
+            console.clear();
+            engine("show('name? ')\nkeb name: input()\nshowl('hello ' + name)", backend)
+                    .input(() -> {
+                        console.add("input");
+                        return "kebab";
+                    })
+                    .run();
+            assertEquals(backend.name(),
+                    Arrays.asList("out: name? ", "input", "out: hello kebab" + LINE_SEPARATOR), console);
+        }
+    }
+
+    @Test
+    public void outputPrecedesStreamedInput() {
+        for (Backend backend : Backend.values()) {
+            console.clear();
+            engine("showl('header')\n_loop(line : lines()) {\n    showl(line)\n}", backend)
+                    .input(() -> {
+                        console.add("input");
+                        return null;
+                    })
+                    .run();
+            assertEquals(backend.name(), Arrays.asList("out: header" + LINE_SEPARATOR, "input"), console);
+        }
+    }
+
+    /**
+     * Engine showing values in a console, through the sink scripts use by default.
+     */
+    private KebabEngine engine(String source, Backend backend) {
+        OutputStream out = new OutputStream() {
+
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                console.add("out: " + new String(b, off, len));
+            }
+        };
+        return KebabEngine.source(source).backend(backend).output(new StreamSink(out));
+    }
+}
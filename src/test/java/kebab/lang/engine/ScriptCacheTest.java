@@ -0,0 +1,164 @@
+package kebab.lang.engine;
+
+import kebab.lang.output.MemorySink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScriptCacheTest {
+
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("scripts");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void sourceIsParsedOnce() {
+        ScriptCache cache = new ScriptCache(10, UNBOUNDED, false);
+        assertEquals("1\n", run(cache.source("showl(1)")));
+        assertEquals("1\n", run(cache.source("showl(1)")));
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedScriptIsEvicted() {
+        ScriptCache cache = new ScriptCache(2, UNBOUNDED, false);
+        cache.source("showl(1)");
+        cache.source("showl(2)");
+
+        // Using the first script again leaves the second as the least recently used one.
+        cache.source("showl(1)");
+        cache.source("showl(3)");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        long misses = cache.getMisses();
+        cache.source("showl(1)");
+        assertEquals(misses, cache.getMisses());
+        cache.source("showl(2)");
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test
+    public void scriptsAreEvictedByWeight() {
+        ScriptCache cache = new ScriptCache(100, UNBOUNDED, false);
+        cache.source("showl(1)");
+        long weight = cache.getWeight();
+
+        cache = new ScriptCache(100, 2 * weight + weight / 2, false);
+        cache.source("showl(1)");
+        cache.source("showl(2)");
+        assertEquals(0, cache.getEvictions());
+
+        cache.source("showl(3)");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals(2 * weight, cache.getWeight());
+    }
+
+    @Test
+    public void newestScriptStaysOverWeight() {
+        ScriptCache cache = new ScriptCache(100, 1, false);
+        cache.source("showl(1)");
+        cache.source("showl(2)");
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void unchangedFileIsNotRead() throws IOException {
+        ScriptCache cache = new ScriptCache(10, UNBOUNDED, true);
+        Path file = write("a.kebab", "showl('a')", 1000);
+
+        assertEquals("a\n", run(cache.file(file.toString())));
+        assertEquals("a\n", run(cache.file(file.toString())));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void modifiedFileIsParsedAgain() throws IOException {
+        ScriptCache cache = new ScriptCache(10, UNBOUNDED, true);
+        Path file = write("a.kebab", "showl('a')", 1000);
+        cache.file(file.toString());
+
+        write("a.kebab", "showl('b')", 2000);
+        assertEquals("b\n", run(cache.file(file.toString())));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void touchedFileKeepsItsScript() throws IOException {
+        ScriptCache cache = new ScriptCache(10, UNBOUNDED, true);
+        Path file = write("a.kebab", "showl('a')", 1000);
+        cache.file(file.toString());
+
+        // Read and hashed again, the contents are still cached.
+        write("a.kebab", "showl('a')", 2000);
+        assertEquals("a\n", run(cache.file(file.toString())));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void filesAreForgottenWithTheirScript() throws IOException {
+        ScriptCache cache = new ScriptCache(2, UNBOUNDED, true);
+        cache.file(write("a.kebab", "showl('a')", 1000).toString());
+        cache.file(write("b.kebab", "showl('b')", 1000).toString());
+        cache.file(write("c.kebab", "showl('c')", 1000).toString());
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getFileCount());
+    }
+
+    @Test
+    public void fileCountIsBounded() throws IOException {
+        ScriptCache cache = new ScriptCache(2, UNBOUNDED, true);
+
+        // Files with the same contents share a script, which is never evicted.
+        for (int i = 0; i < 10; i++) {
+            cache.file(write(i + ".kebab", "showl('same')", 1000).toString());
+        }
+        assertEquals(1, cache.size());
+        assertTrue(cache.getFileCount() <= 2);
+    }
+
+    private Path write(String name, String source, long modified) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    private static String run(KebabEngine engine) {
+        MemorySink output = new MemorySink();
+        engine.output(output).run();
+        return output.getText().replace(System.lineSeparator(), "\n");
+    }
+}
@@ -0,0 +1,89 @@
+package kebab.lang.output;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BufferedSinkTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    @Test
+    public void onSizeWritesWhenTheBufferIsFull() {
+        StreamSink sink = new StreamSink(stream, 16, FlushPolicy.ON_SIZE);
+        sink.write("0123456789");
+        assertEquals("", stream.toString());
+
+        // The buffer is filled up and written out, the rest waits for the next flush.
+        sink.write("abcdefghij");
+        assertEquals("0123456789abcdef", stream.toString());
+
+        sink.flush();
+        assertEquals("0123456789abcdefghij", stream.toString());
+    }
+
+    @Test
+    public void onSizeKeepsLines() {
+        StreamSink sink = new StreamSink(stream, 64, FlushPolicy.ON_SIZE);
+        sink.writeLine("a");
+        sink.writeLine("b");
+        assertEquals("", stream.toString());
+
+        sink.flush();
+        assertEquals("a" + LINE_SEPARATOR + "b" + LINE_SEPARATOR, stream.toString());
+    }
+
+    @Test
+    public void onNewlineWritesEveryLine() {
+        StreamSink sink = new StreamSink(stream, 64, FlushPolicy.ON_NEWLINE);
+        sink.writeLine("a");
+        assertEquals("a" + LINE_SEPARATOR, stream.toString());
+
+        // Text without a line separator waits for the next line.
+        sink.write("b");
+        assertEquals("a" + LINE_SEPARATOR, stream.toString());
+        sink.writeLine("c");
+        assertEquals("a" + LINE_SEPARATOR + "bc" + LINE_SEPARATOR, stream.toString());
+    }
+
+    @Test
+    public void onExitGrowsUntilFlushed() {
+        StreamSink sink = new StreamSink(stream, 4, FlushPolicy.ON_EXIT);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sink.write("line " + i);
+            expected.append("line ").append(i);
+        }
+        assertEquals("", stream.toString());
+
+        sink.flush();
+        assertEquals(expected.toString(), stream.toString());
+    }
+
+    @Test
+    public void textIsEncodedWithTheDefaultCharset() {
+        String text = "kebab éè 串 🍢";
+
+        // Characters may be wider than the whole buffer.
+        StreamSink sink = new StreamSink(stream, 1, FlushPolicy.ON_SIZE);
+        sink.write(text);
+        sink.flush();
+        assertArrayEquals(text.getBytes(Charset.defaultCharset()), stream.toByteArray());
+    }
+
+    @Test
+    public void channelSinkWritesTheSameBytes() {
+        ChannelSink sink = new ChannelSink(Channels.newChannel(stream), 8, FlushPolicy.ON_SIZE);
+        sink.writeLine("first line");
+        sink.write("second");
+        sink.flush();
+        assertEquals("first line" + LINE_SEPARATOR + "second", stream.toString());
+    }
+}
@@ -0,0 +1,127 @@
+package kebab.lang.value;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KebabListTest {
+
+    // Elements of a root holding 32 leaves plus a full tail, the next append grows a level.
+    private static final int FULL_ROOT = 32 * 32 + 32;
+
+    @Test
+    public void appendsToSharedTailDoNotSeeEachOther() {
+        KebabList shared = numbers(3);
+        KebabList first = shared.append(KebabNumber.valueOf(10));
+        KebabList second = shared.append(KebabNumber.valueOf(20));
+
+        // The second append finds the slot after the shared elements taken and copies the tail.
+        assertEquals(values(0, 1, 2, 10), first);
+        assertEquals(values(0, 1, 2, 20), second);
+        assertEquals(values(0, 1, 2), shared);
+
+        assertEquals(values(0, 1, 2, 10, 11), first.append(KebabNumber.valueOf(11)));
+        assertEquals(values(0, 1, 2, 20, 21), second.append(KebabNumber.valueOf(21)));
+    }
+
+    @Test
+    public void appendsToSharedFullTailDoNotSeeEachOther() {
+        KebabList shared = numbers(64);
+        KebabList first = shared.append(KebabNumber.valueOf(-1));
+        KebabList second = shared.append(KebabNumber.valueOf(-2));
+
+        assertEquals(-1, first.get(64).doubleValue(), 0);
+        assertEquals(-2, second.get(64).doubleValue(), 0);
+        assertEquals(64, shared.size());
+        assertEquals(numbers(64), first.subList(0, 64));
+        assertEquals(numbers(64), second.subList(0, 64));
+    }
+
+    @Test
+    public void appendingGrowsTrieLevel() {
+        KebabList list = KebabList.EMPTY;
+        for (int i = 0; i < FULL_ROOT + 2; i++) {
+            list = list.append(KebabNumber.valueOf(i));
+            if (i >= FULL_ROOT - 2) {
+                assertElements(list, i + 1);
+            }
+        }
+    }
+
+    @Test
+    public void builtListsAroundTrieLevel() {
+        for (int size = FULL_ROOT - 2; size <= FULL_ROOT + 2; size++) {
+            KebabList list = numbers(size);
+            assertElements(list, size);
+
+            // Appending to a built list carries on from the same layout.
+            assertElements(list.append(KebabNumber.valueOf(size)), size + 1);
+        }
+    }
+
+    @Test
+    public void updatesAroundTrieLevelLeaveOriginal() {
+        KebabList list = numbers(FULL_ROOT + 1);
+        for (int index : new int[]{0, 1023, 1024, FULL_ROOT - 1, FULL_ROOT}) {
+            KebabList updated = list.update(index, KebabNumber.valueOf(-1));
+            assertEquals(-1, updated.get(index).doubleValue(), 0);
+            assertEquals(index, list.get(index).doubleValue(), 0);
+        }
+    }
+
+    @Test
+    public void concatAcrossTrieLevel() {
+        KebabList list = numbers(1000).concat(numbers(100));
+        assertEquals(1100, list.size());
+        assertEquals(999, list.get(999).doubleValue(), 0);
+        assertEquals(0, list.get(1000).doubleValue(), 0);
+        assertEquals(99, list.get(1099).doubleValue(), 0);
+    }
+
+    @Test
+    public void indexedListIsSharedWithAppendedLists() {
+        KebabList list = numbers(100);
+        assertTrue(list.contains(KebabNumber.valueOf(50)));
+        assertTrue(list.contains(KebabNumber.valueOf(60)));
+
+        KebabList first = list.append(KebabNumber.valueOf(1000));
+        KebabList second = list.append(KebabNumber.valueOf(2000));
+        assertTrue(first.contains(KebabNumber.valueOf(1000)));
+        assertFalse(first.contains(KebabNumber.valueOf(2000)));
+        assertTrue(second.contains(KebabNumber.valueOf(2000)));
+        assertFalse(second.contains(KebabNumber.valueOf(1000)));
+        assertFalse(list.contains(KebabNumber.valueOf(1000)));
+    }
+
+    private static void assertElements(KebabList list, int size) {
+        assertEquals(size, list.size());
+        int i = 0;
+        for (KebabValue value : list) {
+            assertEquals(i, value.doubleValue(), 0);
+            assertEquals(i, list.get(i).doubleValue(), 0);
+            i++;
+        }
+        assertEquals(size, i);
+    }
+
+    private static KebabList numbers(int size) {
+        KebabList.Builder builder = new KebabList.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(KebabNumber.valueOf(i));
+        }
+        return builder.build();
+    }
+
+    private static List<KebabValue> values(double... numbers) {
+        List<KebabValue> values = new ArrayList<>();
+        for (double number : numbers) {
+            values.add(KebabNumber.valueOf(number));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,105 @@
+package kebab.lang.value;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class KebabMapTest {
+
+    @Test
+    public void keysAreIteratedInInsertionOrder() {
+        KebabMap map = map("c", "a", "b");
+        assertEquals(Arrays.asList("c", "a", "b"), keys(map));
+    }
+
+    @Test
+    public void readdedKeyMovesToTheEnd() {
+        KebabMap map = map("a", "b", "c");
+        KebabMap removed = map.remove(string("a"));
+        KebabMap readded = removed.update(string("a"), string("again"));
+
+        assertEquals(Arrays.asList("b", "c", "a"), keys(readded));
+        assertEquals("again", readded.get(string("a")).asString());
+        assertEquals(Arrays.asList("b", "c"), keys(removed));
+        assertEquals(Arrays.asList("a", "b", "c"), keys(map));
+    }
+
+    @Test
+    public void updatedKeyKeepsItsPlace() {
+        KebabMap map = map("a", "b", "c").update(string("b"), string("new"));
+        assertEquals(Arrays.asList("a", "b", "c"), keys(map));
+        assertEquals("new", map.get(string("b")).asString());
+    }
+
+    @Test
+    public void removeAndReaddManyTimes() {
+        KebabMap map = map("a", "b", "c", "d");
+        List<String> expected = new ArrayList<>(keys(map));
+
+        // Every round writes past the end of the table, which is copied from time to time.
+        for (int i = 0; i < 100; i++) {
+            String key = expected.remove(i % expected.size());
+            expected.add(key);
+            map = map.remove(string(key)).update(string(key), string(key));
+            assertEquals(expected, keys(map));
+            assertEquals(4, map.size());
+        }
+    }
+
+    @Test
+    public void writesToOlderMapDoNotShowInNewerOne() {
+        KebabMap map = map("a", "b");
+        KebabMap first = map.update(string("c"), string("c"));
+        KebabMap second = map.remove(string("a")).update(string("a"), string("a"));
+
+        assertEquals(Arrays.asList("a", "b", "c"), keys(first));
+        assertEquals(Arrays.asList("b", "a"), keys(second));
+        assertEquals(Arrays.asList("a", "b"), keys(map));
+    }
+
+    @Test
+    public void removingMissingKeyKeepsMap() {
+        KebabMap map = map("a");
+        assertSame(map, map.remove(string("b")));
+    }
+
+    @Test
+    public void removedNumberKeyIsReaddedAtTheEnd() {
+        KebabMap map = KebabMap.EMPTY
+                .update(KebabNumber.valueOf(1), string("one"))
+                .update(KebabNumber.valueOf(2), string("two"));
+        map = map.remove(KebabNumber.valueOf(1 + KebabValue.EPSILON / 2));
+        assertFalse(map.containsKey(KebabNumber.valueOf(1)));
+        assertNull(map.get(KebabNumber.valueOf(1)));
+
+        map = map.update(KebabNumber.valueOf(1), string("again"));
+        assertEquals("{2: two, 1: again}", map.toString());
+    }
+
+    private static KebabMap map(String... keys) {
+        KebabMap map = KebabMap.EMPTY;
+        for (String key : keys) {
+            map = map.update(string(key), string(key));
+        }
+        return map;
+    }
+
+    private static List<String> keys(KebabMap map) {
+        List<String> keys = new ArrayList<>();
+        for (KebabValue key : map.keySet()) {
+            keys.add(key.asString());
+        }
+        return keys;
+    }
+
+    private static KebabValue string(String value) {
+        return new KebabValue(value);
+    }
+}
@@ -0,0 +1,106 @@
+package kebab.lang.value;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ListIndexTest {
+
+    private static final double EPSILON = KebabValue.EPSILON;
+
+    @Test
+    public void numbersAcrossBucketBorderAreFound() {
+        KebabList list = list(10 * EPSILON);
+        ListIndex index = new ListIndex(list);
+
+        // Equal numbers just below and above the border of the element's bucket.
+        assertTrue(index.contains(list, KebabNumber.valueOf(10 * EPSILON - EPSILON / 2)));
+        assertTrue(index.contains(list, KebabNumber.valueOf(10 * EPSILON + EPSILON / 2)));
+        assertTrue(index.contains(list, KebabNumber.valueOf(10 * EPSILON - EPSILON * 0.999)));
+    }
+
+    @Test
+    public void numbersTwoBucketsAwayAreNotFound() {
+        KebabList list = list(10 * EPSILON);
+        ListIndex index = new ListIndex(list);
+        assertFalse(index.contains(list, KebabNumber.valueOf(12 * EPSILON)));
+        assertFalse(index.contains(list, KebabNumber.valueOf(8 * EPSILON)));
+    }
+
+    @Test
+    public void distinctNumbersSharingBucketAreAllFound() {
+        double base = 1000 * EPSILON;
+        KebabList list = list(base + 0.1 * EPSILON, base + 0.5 * EPSILON, base + 0.9 * EPSILON);
+        ListIndex index = new ListIndex(list);
+
+        // Each lookup is equal to a different element of the same bucket.
+        for (double offset = -0.8; offset <= 1.8; offset += 0.05) {
+            assertContains(index, list, base + offset * EPSILON);
+        }
+    }
+
+    @Test
+    public void numbersOnSeveralBordersMatchScan() {
+        double[] numbers = new double[200];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (i / 2) * EPSILON + (i % 2 == 0 ? 0 : EPSILON * 0.999);
+        }
+        KebabList list = list(numbers);
+        ListIndex index = new ListIndex(list);
+        for (int i = -20; i < 2200; i++) {
+            assertContains(index, list, i * EPSILON / 10);
+        }
+    }
+
+    @Test
+    public void negativeZeroIsZero() {
+        KebabList list = list(0.0);
+        ListIndex index = new ListIndex(list);
+        assertTrue(index.contains(list, KebabNumber.valueOf(-0.0)));
+        assertTrue(index.contains(list, KebabNumber.valueOf(-EPSILON / 2)));
+    }
+
+    @Test
+    public void largeNumbersAreFound() {
+        KebabList list = list(1e6, 1e6 + 1, -1e6);
+        ListIndex index = new ListIndex(list);
+        assertContains(index, list, 1e6);
+        assertContains(index, list, 1e6 + 1);
+        assertContains(index, list, -1e6);
+        assertContains(index, list, 1e6 + 0.5);
+    }
+
+    @Test
+    public void extendedIndexSeesOnlyOwnElements() {
+        KebabList list = list(1, 2, 3);
+        ListIndex index = new ListIndex(list);
+        KebabList appended = list.append(KebabNumber.valueOf(4 + EPSILON / 2));
+        assertTrue(index.extend(appended, appended.get(3)));
+
+        assertTrue(index.contains(appended, KebabNumber.valueOf(4)));
+        assertFalse(index.contains(list, KebabNumber.valueOf(4)));
+
+        // The index grew past lists of size 3, other appends cannot share it.
+        KebabList other = list.append(KebabNumber.valueOf(5));
+        assertFalse(index.extend(other, other.get(3)));
+    }
+
+    private static void assertContains(ListIndex index, KebabList list, double number) {
+        KebabValue value = KebabNumber.valueOf(number);
+        boolean scanned = false;
+        for (KebabValue element : list) {
+            scanned |= element.equals(value);
+        }
+        assertEquals(String.valueOf(number), scanned, index.contains(list, value));
+    }
+
+    private static KebabList list(double... numbers) {
+        KebabList.Builder builder = new KebabList.Builder();
+        for (double number : numbers) {
+            builder.add(KebabNumber.valueOf(number));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,195 @@
+package kebab.lang.value;
+
+import kebab.lang.output.MemorySink;
+import kebab.util.KebabException;
+import org.junit.Test;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskGroupTest {
+
+    private static final KebabValue[] NO_ARGUMENTS = new KebabValue[0];
+
+    private final TaskGroup group = new TaskGroup();
+
+    @Test
+    public void outputOfTasksNobodyAwaitedIsShownInSpawnOrder() {
+        runShowing("first");
+        runShowing("second");
+
+        MemorySink output = new MemorySink();
+        assertNull(group.finish(output));
+        assertEquals("first\nsecond\n", output.getText().replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    public void awaitedTaskIsNotShownAgain() {
+        Task task = runShowing("once");
+        task.await(new MemorySink());
+
+        MemorySink output = new MemorySink();
+        assertNull(group.finish(output));
+        assertEquals("", output.getText());
+    }
+
+    @Test
+    public void failedTaskFailsTheRun() {
+        KebabException first = new KebabException("first");
+        KebabException second = new KebabException("second");
+        run(failing(first));
+        run(failing(second));
+
+        RuntimeException failure = group.finish(new MemorySink());
+        assertTrue(failure.getMessage(), failure.getMessage().endsWith("first"));
+        assertSame(first, failure.getCause());
+        assertSame(second, failure.getSuppressed()[0]);
+    }
+
+    @Test
+    public void awaitedFailureDoesNotFailTheRun() {
+        Task task = run(failing(new KebabException("awaited")));
+        try {
+            task.await(new MemorySink());
+            fail();
+        } catch (KebabException e) {
+            assertEquals("awaited", e.getMessage());
+        }
+        assertNull(group.finish(new MemorySink()));
+    }
+
+    @Test
+    public void runningTaskIsWaitedFor() throws InterruptedException {
+        Thread thread = start(group, task -> {
+            sleep(50);
+            task.getOutput().writeLine("late");
+        });
+
+        MemorySink output = new MemorySink();
+        assertNull(group.finish(output));
+        assertEquals("late\n", output.getText().replace(System.lineSeparator(), "\n"));
+        thread.join();
+    }
+
+    @Test
+    public void taskStillRunningIsCancelledAndShown() throws InterruptedException {
+        TaskGroup group = new TaskGroup(50);
+        Thread thread = start(group, task -> {
+            task.getOutput().writeLine("so far");
+            while (true) {
+                Task.checkCancelled();
+            }
+        });
+
+        MemorySink output = new MemorySink();
+        RuntimeException failure = group.finish(output);
+        assertTrue(failure.getMessage(), failure.getMessage().contains("Task was cancelled"));
+        assertEquals("so far\n", output.getText().replace(System.lineSeparator(), "\n"));
+        thread.join();
+    }
+
+    @Test
+    public void taskOutputIsCapped() {
+        TaskSink output = new TaskSink(4);
+        output.write("abcd");
+        try {
+            output.write("e");
+            fail();
+        } catch (KebabException e) {
+            assertEquals("Task showed more than 4 characters before it was awaited", e.getMessage());
+        }
+        assertEquals("abcd", output.take());
+    }
+
+    @Test
+    public void failedTaskClosesChannelsItWasPassed() {
+        Channel channel = new Channel(1);
+        Task task = group.create(new KebabValue[]{new KebabValue(channel)});
+        task.run(failing(new KebabException("producer")));
+
+        assertDrainedWithError(channel, "producer");
+    }
+
+    @Test
+    public void failedTaskClosesChannelsItSentTo() {
+        Channel channel = new Channel(2);
+        run(() -> {
+            channel.send(KebabNumber.valueOf(1));
+            throw new KebabException("producer");
+        });
+
+        // Values sent before the failure are still received.
+        assertEquals(1, channel.receive().doubleValue(), 0);
+        assertDrainedWithError(channel, "producer");
+    }
+
+    @Test
+    public void closedChannelStaysClosedNormally() {
+        Channel channel = new Channel(1);
+        run(() -> {
+            channel.send(KebabNumber.valueOf(1));
+            channel.close();
+            throw new KebabException("after close");
+        });
+
+        assertEquals(1, channel.receive().doubleValue(), 0);
+        assertNull(channel.receive());
+    }
+
+    private Task run(Supplier<KebabValue> body) {
+        Task task = group.create(NO_ARGUMENTS);
+        task.run(body);
+        return task;
+    }
+
+    private Task runShowing(String text) {
+        Task task = group.create(NO_ARGUMENTS);
+        task.run(() -> {
+            task.getOutput().writeLine(text);
+            return KebabValue.VOID;
+        });
+        return task;
+    }
+
+    /**
+     * Run a task of a group on a thread of its own.
+     */
+    private static Thread start(TaskGroup group, Consumer<Task> body) {
+        Task task = group.create(NO_ARGUMENTS);
+        Thread thread = new Thread(() -> task.run(() -> {
+            body.accept(task);
+            return KebabValue.VOID;
+        }));
+        thread.start();
+        return thread;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Supplier<KebabValue> failing(RuntimeException error) {
+        return () -> {
+            throw error;
+        };
+    }
+
+    private static void assertDrainedWithError(Channel channel, String message) {
+        try {
+            channel.receive();
+            fail();
+        } catch (KebabException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith(message));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package kebab.server;
+
+import kebab.lang.engine.Backend;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KebabServerTest {
+
+    private KebabServer server;
+    private Thread listener;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new KebabServer(0);
+        listener = new Thread(() -> {
+            try {
+                server.listen();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        listener.start();
+    }
+
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        server.close();
+        listener.join();
+    }
+
+    @Test
+    public void tokenIsReadableByItsUserOnly() throws IOException {
+        Path file = ServerToken.file(server.getPort());
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+        }
+        assertEquals(64, ServerToken.read(file).length());
+    }
+
+    @Test
+    public void clientWithTokenRunsScript() throws IOException {
+        Path script = Files.createTempFile("script", ".kebab");
+        try {
+            Files.write(script, "showl(1)".getBytes(StandardCharsets.UTF_8));
+            assertEquals(0, KebabClient.run(server.getPort(), script.toString(), Backend.TREE, false));
+        } finally {
+            Files.delete(script);
+        }
+    }
+
+    @Test
+    public void wrongTokenIsRejected() throws IOException {
+        Response response = request("not the token", null);
+        assertTrue(response.error, response.error.contains("Invalid token"));
+        assertEquals(1, response.status);
+    }
+
+    @Test
+    public void emptyInputChunkIsNotAByte() throws IOException {
+        String script = "_loop(line : lines()) {\n    showl(size(line) + line)\n}";
+        Response response = request(token(), script, "", "ab", "", "\nc");
+        assertEquals("", response.error);
+        assertEquals("2ab\n1c\n", response.output.replace(System.lineSeparator(), "\n"));
+        assertEquals(0, response.status);
+    }
+
+    @Test
+    public void negativeInputLengthIsRejected() throws IOException {
+        Response response = request(token(), "_loop(line : lines()) {\n    showl(line)\n}", (String) null);
+        assertTrue(response.error, response.error.contains("Invalid input length: -2"));
+        assertEquals(1, response.status);
+    }
+
+    @Test
+    public void closedServerRemovesItsToken() throws IOException {
+        server.close();
+        assertFalse(Files.exists(ServerToken.file(server.getPort())));
+    }
+
+    private String token() throws IOException {
+        return ServerToken.read(ServerToken.file(server.getPort()));
+    }
+
+    /**
+     * Send a request and collect the response.
+     *
+     * @param script source of the script, {@code null} to send the token only.
+     * @param chunks standard input, a chunk per input frame asked for, {@code null} for a negative
+     *               length. Input ends after the last chunk.
+     */
+    private Response request(String token, String script, String... chunks) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeUTF(Protocol.VERSION);
+            out.writeUTF(token);
+            if (script != null) {
+                out.writeUTF(Backend.TREE.name());
+                out.writeBoolean(false);
+                out.writeByte(Protocol.SOURCE);
+                Protocol.writeText(out, script);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Response response = new Response();
+            int chunk = 0;
+            byte kind;
+            while ((kind = in.readByte()) != Protocol.EXIT) {
+                if (kind == Protocol.INPUT) {
+                    in.readInt();
+                    if (chunk == chunks.length) {
+                        out.writeInt(Protocol.END_OF_INPUT);
+                    } else if (chunks[chunk] == null) {
+                        out.writeInt(-2);
+                    } else {
+                        byte[] bytes = chunks[chunk].getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                    out.flush();
+                    chunk++;
+                    continue;
+                }
+
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                if (kind == Protocol.ERROR) {
+                    response.error += text;
+                } else {
+                    response.output += text;
+                }
+            }
+            response.status = in.readInt();
+            return response;
+        }
+    }
+
+    private static class Response {
+
+        private String output = "";
+        private String error = "";
+        private int status;
+    }
+}